@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EntityScan("org.example.onlinegradebookapp.entity")
 @EnableJpaRepositories("org.example.onlinegradebookapp.repository")
+@EnableScheduling
 public class OnlineGradebookAppApplication {
 
 	public static void main(String[] args) {
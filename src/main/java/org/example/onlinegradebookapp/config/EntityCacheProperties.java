@@ -0,0 +1,41 @@
+package org.example.onlinegradebookapp.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Regions of the Hibernate second-level cache, e.g. gradebook.entity-cache.regions.subjects.maximum-size=1000 with
+// gradebook.entity-cache.regions.subjects.time-to-live=1h. The cache is local to each instance, so the time to live
+// bounds how long a change made by another instance can stay unseen (no time to live keeps entries until evicted).
+// The defaults below are the only ones; a region configured in the properties replaces its default as a whole.
+// Users are not cached: an update loaded from a stale copy writes every column back, which could restore an old
+// password hash or credential version
+@Getter
+@Component
+@ConfigurationProperties(prefix = "gradebook.entity-cache")
+public class EntityCacheProperties {
+    private final Map<String, Region> regions = new LinkedHashMap<>(Map.of(
+            "subjects", new Region(1_000, Duration.ofHours(1)),
+            "classes", new Region(1_000, Duration.ofHours(1)),
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, new Region(1_000, Duration.ofMinutes(10)),
+            // Must outlive cached query results, which are checked against the last update of their tables
+            RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new Region(10_000, null)));
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Region {
+        private long maximumSize = 1_000;
+
+        private Duration timeToLive = Duration.ofHours(1);
+    }
+}
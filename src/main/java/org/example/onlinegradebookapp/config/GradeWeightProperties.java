@@ -0,0 +1,32 @@
+package org.example.onlinegradebookapp.config;
+
+import org.example.onlinegradebookapp.entity.TestCategory.TestCategory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Weights of test categories used for weighted grade averages,
+// e.g. gradebook.grade-weights.CLASS_TEST=3 (a weight of 0 leaves the category out)
+@Component
+@ConfigurationProperties(prefix = "gradebook")
+public class GradeWeightProperties {
+    private final Map<TestCategory, Double> gradeWeights = new EnumMap<>(Map.of(
+            TestCategory.CLASS_TEST, 3.0,
+            TestCategory.QUIZ, 2.0,
+            TestCategory.ORAL_ANSWER, 2.0,
+            TestCategory.HOMEWORK, 1.0,
+            TestCategory.CLASSWORK, 1.0,
+            TestCategory.OTHER, 1.0));
+
+    public Map<TestCategory, Double> getGradeWeights() {
+        return gradeWeights;
+    }
+
+    // Returns the weight of given category; categories without a configured weight count once
+    public double weightOf(TestCategory category) {
+        Double weight = gradeWeights.get(category);
+        return weight != null ? weight : 1.0;
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.onlinegradebookapp.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Keys signing JWT tokens, identified by the 'kid' header, e.g. gradebook.jwt.keys.2025-01=<Base64 secret> with
+// gradebook.jwt.active-key-id=2025-01; keys given this way are read at startup, so rotating them takes a restart.
+// When gradebook.jwt.keystore.path is set, the keys are secret key entries of the keystore (alias = key id) instead.
+// The keystore and gradebook.jwt.active-key-file are re-read every reload-interval, so keys rotate without restart
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "gradebook.jwt")
+public class JwtKeyProperties {
+    // Key signing new tokens
+    private String activeKeyId;
+
+    // File holding the id of the key signing new tokens; when set, it replaces activeKeyId and is re-read on reload
+    private String activeKeyFile;
+
+    // Base64 secrets (at least 256 bits) by key id
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    private Keystore keystore = new Keystore();
+
+    // A key removed from the configuration still verifies tokens for this long (the lifetime of an access token)
+    private Duration gracePeriod = Duration.ofMinutes(10);
+
+    private Duration reloadInterval = Duration.ofMinutes(1);
+
+    @Getter
+    @Setter
+    public static class Keystore {
+        private String path;
+
+        private String password = "";
+
+        private String type = "PKCS12";
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.onlinegradebookapp.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Limits of login attempts, e.g. gradebook.login-throttle.email-capacity=5 with email-refill-period=12s allows
+// a burst of 5 attempts per email, then one attempt every 12 seconds. The IP limit only stops floods: users of a
+// school often share one NAT address, so it is set well above the per-email limit. Behind a reverse proxy the
+// client address comes from X-Forwarded-For only with server.forward-headers-strategy=native
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "gradebook.login-throttle")
+public class LoginThrottleProperties {
+    private int emailCapacity = 5;
+
+    private Duration emailRefillPeriod = Duration.ofSeconds(12);
+
+    private int ipCapacity = 200;
+
+    private Duration ipRefillPeriod = Duration.ofMillis(200);
+
+    // Buckets not used for this long are forgotten (they would be full again anyway)
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private long maxEntries = 100_000;
+}
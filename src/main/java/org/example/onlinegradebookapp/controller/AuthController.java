@@ -1,33 +1,46 @@
 package org.example.onlinegradebookapp.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.security.SecurityRequirements;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.example.onlinegradebookapp.exception.BadRequestException;
+import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
 import org.example.onlinegradebookapp.exception.UnauthorizedException;
 import org.example.onlinegradebookapp.payload.request.LoginDto;
+import org.example.onlinegradebookapp.payload.request.LogoutDto;
+import org.example.onlinegradebookapp.payload.request.RefreshTokenDto;
 import org.example.onlinegradebookapp.payload.request.StudentRegistrationDto;
+import org.example.onlinegradebookapp.payload.request.TokenRevocationDto;
 import org.example.onlinegradebookapp.payload.request.UserRegistrationDto;
+import org.example.onlinegradebookapp.payload.response.AuthTokensResponseDto;
 import org.example.onlinegradebookapp.security.CustomUserDetails;
-import org.example.onlinegradebookapp.security.JwtService;
+import org.example.onlinegradebookapp.security.LoginRateLimiter;
 import org.example.onlinegradebookapp.service.CustomUserDetailsService;
+import org.example.onlinegradebookapp.service.RefreshTokenService;
 import org.example.onlinegradebookapp.service.StudentService;
+import org.example.onlinegradebookapp.service.TokenRevocationService;
 import org.example.onlinegradebookapp.service.UserService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.HashMap;
-import java.util.Map;
-
 @RestController
 @RequestMapping("/api/auth")
 @Tag(name = "Authorization", description = "Registration and log in operations to authorize USERS/STUDENTS")
@@ -36,16 +49,21 @@ public class AuthController {
     private final UserService userService;
     private final StudentService studentService;
     private final AuthenticationManager authenticationManager;
-    private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final TokenRevocationService tokenRevocationService;
 
     public AuthController(UserService userService, StudentService studentService, AuthenticationManager authenticationManager,
-                          JwtService jwtService, CustomUserDetailsService userDetailsService) {
+                          CustomUserDetailsService userDetailsService, RefreshTokenService refreshTokenService,
+                          LoginRateLimiter loginRateLimiter, TokenRevocationService tokenRevocationService) {
         this.userService = userService;
         this.studentService = studentService;
         this.authenticationManager = authenticationManager;
-        this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.refreshTokenService = refreshTokenService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @PostMapping("/register/user")
@@ -67,21 +85,73 @@ public class AuthController {
 
     @PostMapping("/login")
     @Operation(summary = "Login a user/student with JWT token",
-            description = "Generates JWT token used to authorize other endpoints")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginDto dto) throws UnauthorizedException {
+            description = "Generates JWT token used to authorize other endpoints and a refresh token used to get new JWT tokens")
+    public ResponseEntity<?> login(@Valid @RequestBody LoginDto dto, HttpServletRequest request) throws UnauthorizedException {
+        // Reject bursts of attempts before looking up the user and verifying the password
+        loginRateLimiter.acquire(dto.getEmail(), request.getRemoteAddr());
         try {
             Authentication auth = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(dto.getEmail(), dto.getPassword())
             );
             SecurityContextHolder.getContext().setAuthentication(auth);
             CustomUserDetails userDetails = userDetailsService.loadUserByUsername(dto.getEmail());
-            String token = jwtService.generateToken(userDetails);
-            Map<String, String> response = new HashMap<>();
-            response.put("email", dto.getEmail());
-            response.put("token", token);
+            AuthTokensResponseDto response = refreshTokenService.issueTokens(userDetails);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (BadCredentialsException e) {
             throw new UnauthorizedException("Invalid email or password");
         }
     }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Get a new JWT token with a refresh token",
+            description = "Exchanges a refresh token for a new JWT token and a new refresh token. " +
+                    "Each refresh token can be used once; reusing it logs out all sessions started with the same login")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenDto dto) throws UnauthorizedException {
+        AuthTokensResponseDto response = refreshTokenService.refresh(dto.getRefreshToken());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Log out a user/student",
+            description = "Revokes the JWT token from the Authorization header and, if given, the refresh token")
+    @SecurityRequirement(name = "Bearer authorization")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+                                    @RequestBody(required = false) LogoutDto dto) throws UnauthorizedException {
+        if(authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new UnauthorizedException("Missing JWT token");
+        }
+        tokenRevocationService.revoke(authHeader.substring(7));
+        if(dto != null && dto.getRefreshToken() != null) {
+            refreshTokenService.revoke(dto.getRefreshToken());
+        }
+        return new ResponseEntity<>("Logged out successfully", HttpStatus.OK);
+    }
+
+    @PostMapping("/revoke")
+    @PreAuthorize(value = "hasRole('ADMIN')")
+    @Operation(summary = "Revoke a JWT token",
+            description = "Revokes a JWT token given as the token or by its ID (jti), so it can't be used anymore " +
+                    "before it expires")
+    @SecurityRequirement(name = "Bearer authorization")
+    public ResponseEntity<?> revoke(@Valid @RequestBody TokenRevocationDto dto) throws BadRequestException {
+        if(dto.getJti() != null && !dto.getJti().isBlank()) {
+            tokenRevocationService.revokeById(dto.getJti());
+        } else if(dto.getToken() != null && !dto.getToken().isBlank()) {
+            tokenRevocationService.revoke(dto.getToken());
+        } else {
+            throw new BadRequestException("Token or token ID (jti) must be given");
+        }
+        return new ResponseEntity<>("Token revoked successfully", HttpStatus.OK);
+    }
+
+    @PostMapping("/revoke/users/{id}")
+    @PreAuthorize(value = "hasRole('ADMIN')")
+    @Operation(summary = "Revoke all tokens of a user",
+            description = "Revokes all JWT and refresh tokens of the user with given ID, so the user has to log in again")
+    @SecurityRequirement(name = "Bearer authorization")
+    @Parameter(in = ParameterIn.PATH, name = "id", description = "User ID")
+    public ResponseEntity<?> revokeUserTokens(@PathVariable Long id) throws ResourceNotFoundException {
+        tokenRevocationService.revokeUserTokens(id);
+        return new ResponseEntity<>("Tokens of the user revoked successfully", HttpStatus.OK);
+    }
 }
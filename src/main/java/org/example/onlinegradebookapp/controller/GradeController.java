@@ -7,24 +7,31 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.example.onlinegradebookapp.entity.Grade;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.payload.request.GradeDto;
 import org.example.onlinegradebookapp.payload.request.GradeUpdateDto;
+import org.example.onlinegradebookapp.payload.response.CursorPage;
+import org.example.onlinegradebookapp.payload.response.GradeResponseDto;
 import org.example.onlinegradebookapp.service.GradeService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/grades")
 @Tag(name = "Grades", description = "Operations for students grades")
 public class GradeController {
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
     private final GradeService gradeService;
 
     public GradeController(GradeService gradeService) {
@@ -32,20 +39,41 @@ public class GradeController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all student grades",
-            description = "Get a list of all student grades from the database")
-    public ResponseEntity<?> getAllGrades() {
-        List<Grade> grades = gradeService.findAllGrades();
+    @Operation(summary = "Get a page of student grades",
+            description = "Get a page of student grades ordered by ID. Pass 'nextCursor' from the previous response " +
+                    "as 'cursor' to get the next page")
+    @Parameter(in = ParameterIn.QUERY, name = "cursor", description = "Opaque cursor returned by the previous page")
+    @Parameter(in = ParameterIn.QUERY, name = "size", description = "Page size (1-" + GradeService.MAX_PAGE_SIZE + ")")
+    @Parameter(in = ParameterIn.QUERY, name = "studentId", description = "Student ID")
+    @Parameter(in = ParameterIn.QUERY, name = "testId", description = "Knowledge test ID")
+    @Parameter(in = ParameterIn.QUERY, name = "from", description = "Grades created on or after this date (YYYY-MM-DD)")
+    @Parameter(in = ParameterIn.QUERY, name = "to", description = "Grades created on or before this date (YYYY-MM-DD)")
+    public ResponseEntity<?> getAllGrades(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer size,
+                                          @RequestParam(required = false) Long studentId,
+                                          @RequestParam(required = false) Long testId,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        CursorPage<GradeResponseDto> grades = gradeService.findGrades(cursor, size, studentId, testId, from, to);
         return new ResponseEntity<>(grades, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/export", produces = GradeController.NDJSON_MEDIA_TYPE)
+    @Operation(summary = "Export all student grades",
+            description = "Stream all student grades ordered by ID as newline-delimited JSON (one grade per line)")
+    public void exportGrades(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON_MEDIA_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        gradeService.exportGrades(response.getOutputStream());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get a single student grade",
             description = "Get a single student grade with given ID",
-    responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = Grade.class)))})
+    responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = GradeResponseDto.class)))})
     @Parameter(in = ParameterIn.PATH, name = "id", description = "Grade ID")
     public ResponseEntity<?> getGradeById(@PathVariable Long id) {
-        Grade grade = gradeService.findGradeById(id);
+        GradeResponseDto grade = gradeService.findGradeById(id);
         return new ResponseEntity<>(grade, HttpStatus.OK);
     }
 
@@ -57,6 +85,14 @@ public class GradeController {
         return new ResponseEntity<>("Grade created successfully" ,HttpStatus.CREATED);
     }
 
+    @PutMapping
+    @Operation(summary = "Create or replace a grade for a knowledge test",
+    description = "Create a grade of the student for the knowledge test or replace the existing one")
+    public ResponseEntity<?> saveGrade(@Valid @RequestBody GradeDto dto) {
+        gradeService.saveGrade(dto);
+        return new ResponseEntity<>("Grade saved successfully" ,HttpStatus.OK);
+    }
+
     @PatchMapping("/{id}")
     @Operation(summary = "Update attributes of the single grade",
     description = "Update attributes of the single grade with given ID")
@@ -8,10 +8,16 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.example.onlinegradebookapp.entity.KnowledgeTest;
 import org.example.onlinegradebookapp.exception.BadRequestException;
+import org.example.onlinegradebookapp.payload.request.GradeBatchEntryDto;
 import org.example.onlinegradebookapp.payload.request.KnowledgeTestDto;
 import org.example.onlinegradebookapp.payload.request.KnowledgeTestUpdateDto;
+import org.example.onlinegradebookapp.payload.response.GradeBatchResponseDto;
+import org.example.onlinegradebookapp.payload.response.GradeSheetEntryResponseDto;
+import org.example.onlinegradebookapp.payload.response.GradeStatsResponseDto;
+import org.example.onlinegradebookapp.payload.response.KnowledgeTestResponseDto;
+import org.example.onlinegradebookapp.service.GradeService;
+import org.example.onlinegradebookapp.service.GradeStatisticsService;
 import org.example.onlinegradebookapp.service.KnowledgeTestService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,29 +31,53 @@ import java.util.List;
 @Tag(name = "Knowledge tests", description = "Operations for knowledge tests writing by students")
 public class KnowledgeTestController {
     private final KnowledgeTestService knowledgeTestService;
+    private final GradeService gradeService;
+    private final GradeStatisticsService gradeStatisticsService;
 
-    public KnowledgeTestController(KnowledgeTestService knowledgeTestService) {
+    public KnowledgeTestController(KnowledgeTestService knowledgeTestService, GradeService gradeService,
+                                   GradeStatisticsService gradeStatisticsService) {
         this.knowledgeTestService = knowledgeTestService;
+        this.gradeService = gradeService;
+        this.gradeStatisticsService = gradeStatisticsService;
     }
 
     @GetMapping
     @Operation(summary = "Get all knowledge tests for all subjects",
             description = "Get a list of all knowledge tests from the database")
     public ResponseEntity<?> getAllKnowledgeTests() {
-        List<KnowledgeTest> knowledgeTests = knowledgeTestService.findAllKnowledgeTests();
+        List<KnowledgeTestResponseDto> knowledgeTests = knowledgeTestService.findAllKnowledgeTests();
         return new ResponseEntity<>(knowledgeTests, HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get a single knowledge test",
             description = "Get a single knowledge test with given ID",
-            responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = KnowledgeTest.class)))})
+            responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = KnowledgeTestResponseDto.class)))})
     @Parameter(in = ParameterIn.PATH, name = "id", description = "Knowledge test ID")
     public ResponseEntity<?> getKnowledgeTestById(@PathVariable Long id) {
-        KnowledgeTest knowledgeTest = knowledgeTestService.findKnowledgeTestById(id);
+        KnowledgeTestResponseDto knowledgeTest = knowledgeTestService.findKnowledgeTestById(id);
         return new ResponseEntity<>(knowledgeTest, HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/sheet")
+    @Operation(summary = "Get a grade sheet of the single knowledge test",
+            description = "Get every student of the tested class with their grade for the knowledge test (null if not graded)")
+    @Parameter(in = ParameterIn.PATH, name = "id", description = "Knowledge test ID")
+    public ResponseEntity<?> getGradeSheet(@PathVariable Long id) {
+        List<GradeSheetEntryResponseDto> sheet = knowledgeTestService.findGradeSheet(id);
+        return new ResponseEntity<>(sheet, HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}/stats")
+    @Operation(summary = "Get grade statistics of the single knowledge test",
+            description = "Get count, mean, median, standard deviation and histogram of grades for the knowledge test",
+            responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = GradeStatsResponseDto.class)))})
+    @Parameter(in = ParameterIn.PATH, name = "id", description = "Knowledge test ID")
+    public ResponseEntity<?> getTestStats(@PathVariable Long id) {
+        GradeStatsResponseDto stats = gradeStatisticsService.findTestStats(id);
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
     @PostMapping
     @Operation(summary = "Create a new knowledge test",
             description = "Create a new knowledge test in database")
@@ -56,6 +86,17 @@ public class KnowledgeTestController {
         return new ResponseEntity<>("Knowledge test created successfully", HttpStatus.CREATED);
     }
 
+    @PostMapping("/{id}/grades/batch")
+    @Operation(summary = "Create grades for many students of the knowledge test",
+            description = "Create grades for students of the tested class in one request. Invalid rows are skipped " +
+                    "and returned with the reason, the remaining ones are saved",
+            responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = GradeBatchResponseDto.class)))})
+    @Parameter(in = ParameterIn.PATH, name = "id", description = "Knowledge test ID")
+    public ResponseEntity<?> createGradesBatch(@PathVariable Long id, @RequestBody List<GradeBatchEntryDto> grades) {
+        GradeBatchResponseDto result = gradeService.addGradesBatch(id, grades);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     @PatchMapping("/{id}")
     @Operation(summary = "Update attributes of the single knowledge test",
             description = "Update attributes of the single knowledge test with given ID")
@@ -8,8 +8,11 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.example.onlinegradebookapp.entity.SchoolClass;
 import org.example.onlinegradebookapp.payload.request.SchoolClassDto;
+import org.example.onlinegradebookapp.payload.response.GradeStatsResponseDto;
+import org.example.onlinegradebookapp.payload.response.SchoolClassResponseDto;
+import org.example.onlinegradebookapp.payload.response.WeightedAverageResponseDto;
+import org.example.onlinegradebookapp.service.GradeStatisticsService;
 import org.example.onlinegradebookapp.service.SchoolClassService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,29 +26,51 @@ import java.util.List;
 @Tag(name = "School classes", description = "Operations for school classes")
 public class SchoolClassController {
     private final SchoolClassService schoolClassService;
+    private final GradeStatisticsService gradeStatisticsService;
 
-    public SchoolClassController(SchoolClassService schoolClassService) {
+    public SchoolClassController(SchoolClassService schoolClassService, GradeStatisticsService gradeStatisticsService) {
         this.schoolClassService = schoolClassService;
+        this.gradeStatisticsService = gradeStatisticsService;
     }
 
     @GetMapping
     @Operation(summary = "Get all school classes",
             description = "Get a list of all school classes from the database")
     public ResponseEntity<?> getAllSchoolClasses() {
-        List<SchoolClass> schoolClasses = schoolClassService.findAllSchoolClasses();
+        List<SchoolClassResponseDto> schoolClasses = schoolClassService.findAllSchoolClasses();
         return new ResponseEntity<>(schoolClasses, HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get a single school class",
             description = "Get a single school class with given ID",
-            responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = SchoolClass.class)))})
+            responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = SchoolClassResponseDto.class)))})
     @Parameter(in = ParameterIn.PATH, name = "id", description = "School class ID")
     public ResponseEntity<?> getSchoolClassById(@PathVariable Long id) {
-        SchoolClass schoolClass = schoolClassService.findSchoolClassById(id);
+        SchoolClassResponseDto schoolClass = schoolClassService.findSchoolClassById(id);
         return new ResponseEntity<>(schoolClass, HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/averages")
+    @Operation(summary = "Get weighted averages of a single school class",
+            description = "Get weighted grade averages of every student of the class in every subject, " +
+                    "using configured weights of test categories")
+    @Parameter(in = ParameterIn.PATH, name = "id", description = "School class ID")
+    public ResponseEntity<?> getWeightedAverages(@PathVariable Long id) {
+        List<WeightedAverageResponseDto> averages = gradeStatisticsService.findWeightedAverages(id);
+        return new ResponseEntity<>(averages, HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}/stats")
+    @Operation(summary = "Get grade statistics of a single school class",
+            description = "Get count, mean, median, standard deviation and histogram of grades from all knowledge tests of the class",
+            responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = GradeStatsResponseDto.class)))})
+    @Parameter(in = ParameterIn.PATH, name = "id", description = "School class ID")
+    public ResponseEntity<?> getClassStats(@PathVariable Long id) {
+        GradeStatsResponseDto stats = gradeStatisticsService.findClassStats(id);
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
     @PostMapping
     @PreAuthorize(value = "hasRole('ADMIN')")
     @Operation(summary = "Create a new school class",
@@ -8,9 +8,10 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.example.onlinegradebookapp.entity.Student;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.payload.request.StudentUpdateDto;
+import org.example.onlinegradebookapp.payload.response.StudentResponseDto;
+import org.example.onlinegradebookapp.payload.response.SubjectGradesResponseDto;
 import org.example.onlinegradebookapp.service.StudentService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -35,7 +36,7 @@ public class StudentController {
     @Operation(summary = "Get all students",
             description = "Get a list of all students from the database")
     public ResponseEntity<?> getAllStudents() {
-        List<Student> students = studentService.findAllStudents();
+        List<StudentResponseDto> students = studentService.findAllStudents();
         return new ResponseEntity<>(students, HttpStatus.OK);
     }
 
@@ -43,13 +44,23 @@ public class StudentController {
     @PreAuthorize(value = "hasAnyRole('ADMIN', 'TEACHER') or #id == authentication.principal.id")
     @Operation(summary = "Get a single student",
             description = "Get a single student with given ID",
-            responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = Student.class)))})
+            responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = StudentResponseDto.class)))})
     @Parameter(in = ParameterIn.PATH, name = "id", description = "Student ID")
     public ResponseEntity<?> getStudentById(@PathVariable long id) {
-        Student student = studentService.findStudentById(id);
+        StudentResponseDto student = studentService.findStudentById(id);
         return new ResponseEntity<>(student, HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/grades")
+    @PreAuthorize(value = "hasAnyRole('ADMIN', 'TEACHER') or #id == authentication.principal.id")
+    @Operation(summary = "Get grades of a single student",
+            description = "Get grades of a student with given ID grouped by subject, with test name, category and date")
+    @Parameter(in = ParameterIn.PATH, name = "id", description = "Student ID")
+    public ResponseEntity<?> getStudentGrades(@PathVariable Long id) {
+        List<SubjectGradesResponseDto> grades = studentService.findStudentGrades(id);
+        return new ResponseEntity<>(grades, HttpStatus.OK);
+    }
+
     @PatchMapping("/{id}")
     @PreAuthorize(value = "hasAnyRole('ADMIN', 'TEACHER') or #id == authentication.principal.id")
     @Operation(summary = "Update attributes of the single student",
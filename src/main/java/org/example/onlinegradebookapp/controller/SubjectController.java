@@ -8,8 +8,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.example.onlinegradebookapp.entity.Subject;
 import org.example.onlinegradebookapp.payload.request.SubjectDto;
+import org.example.onlinegradebookapp.payload.response.SubjectResponseDto;
 import org.example.onlinegradebookapp.service.SubjectService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -32,17 +32,17 @@ public class SubjectController {
     @Operation(summary = "Get all subjects",
             description = "Get a list of all subjects from the database")
     public ResponseEntity<?> getAllSubjects() {
-        List<Subject> subjects = subjectService.findAllSubjects();
+        List<SubjectResponseDto> subjects = subjectService.findAllSubjects();
         return new ResponseEntity<>(subjects, HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get a single subject",
             description = "Get a single subject with given ID",
-            responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = Subject.class)))})
+            responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = SubjectResponseDto.class)))})
     @Parameter(in = ParameterIn.PATH, name = "id", description = "Subject ID")
     public ResponseEntity<?> getSubjectById(@PathVariable Long id) {
-        Subject subject = subjectService.findSubjectById(id);
+        SubjectResponseDto subject = subjectService.findSubjectById(id);
         return new ResponseEntity<>(subject, HttpStatus.OK);
     }
 
@@ -8,9 +8,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.example.onlinegradebookapp.entity.User;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.payload.request.UserUpdateDto;
+import org.example.onlinegradebookapp.payload.response.UserResponseDto;
 import org.example.onlinegradebookapp.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -34,7 +34,7 @@ public class UserController {
     @Operation(summary = "Get all users (teachers)",
             description = "Get a list of all users (teachers) from the database")
     public ResponseEntity<?> getAllUsers() {
-        List<User> users = userService.findAllUsers();
+        List<UserResponseDto> users = userService.findAllUsers();
         return new ResponseEntity<>(users, HttpStatus.OK);
     }
 
@@ -42,10 +42,10 @@ public class UserController {
     @PreAuthorize(value = "hasRole('ADMIN') or #id == authentication.principal.id")
     @Operation(summary = "Get a single user (teacher)",
             description = "Get a single user (teacher) with given ID",
-            responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = User.class)))})
+            responses = {@ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = UserResponseDto.class)))})
     @Parameter(in = ParameterIn.PATH, name = "id", description = "User ID")
     public ResponseEntity<?> getUserById(@PathVariable long id) {
-        User user = userService.findUserById(id);
+        UserResponseDto user = userService.findUserById(id);
         return new ResponseEntity<>(user, HttpStatus.OK);
     }
 
@@ -0,0 +1,39 @@
+package org.example.onlinegradebookapp.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
+
+// Login email of a user or student, unique across both tables, pointing to the account it belongs to
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "credentials",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uc_credentials_email", columnNames = {"email"}),
+                @UniqueConstraint(name = "uc_credentials_principal", columnNames = {"principal_type", "principal_id"})
+        })
+public class Credential {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "principal_type", nullable = false)
+    private PrincipalType principalType;
+
+    @Column(name = "principal_id", nullable = false)
+    private Long principalId;
+
+    public Credential(String email, PrincipalType principalType, Long principalId) {
+        this.email = email;
+        this.principalType = principalType;
+        this.principalId = principalId;
+    }
+}
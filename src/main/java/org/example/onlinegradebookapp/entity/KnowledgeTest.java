@@ -24,7 +24,8 @@ import java.util.List;
 @Table(name = "knowledge_tests")
 public class KnowledgeTest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "knowledge_tests_seq")
+    @SequenceGenerator(name = "knowledge_tests_seq", sequenceName = "knowledge_tests_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -50,17 +51,17 @@ public class KnowledgeTest {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference
     @JoinColumn(name = "class_id", nullable = false)
     private SchoolClass schoolClass;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference
     @JoinColumn(name = "subject_id", nullable = false)
     private Subject subject;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference
     @JoinColumn(name = "teacher_id", nullable = false)
     private User teacher;
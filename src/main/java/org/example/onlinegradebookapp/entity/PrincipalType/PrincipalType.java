@@ -0,0 +1,7 @@
+package org.example.onlinegradebookapp.entity.PrincipalType;
+
+// Table holding the account that logs in with a credential
+public enum PrincipalType {
+    USER,
+    STUDENT
+}
@@ -0,0 +1,59 @@
+package org.example.onlinegradebookapp.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+// Refresh token issued to a user or student; only the SHA-256 hash of the token is stored. Tokens rotated from
+// one login share a family, so reuse of an already rotated token revokes the whole family
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "refresh_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uc_refresh_tokens_token_hash", columnNames = {"token_hash"}),
+        indexes = {
+                @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id"),
+                @Index(name = "idx_refresh_tokens_principal", columnList = "principal_type, principal_id")
+        })
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "principal_type", nullable = false)
+    private PrincipalType principalType;
+
+    @Column(name = "principal_id", nullable = false)
+    private Long principalId;
+
+    // Credential version of the principal when the token was issued; changed credentials invalidate the token
+    @Column(name = "credential_version", nullable = false)
+    private int credentialVersion;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Set when the token has been exchanged for a new one
+    @Column(name = "used_at")
+    private Instant usedAt;
+
+    @Column(nullable = false)
+    private boolean revoked;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private Instant createdAt;
+}
@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -17,9 +19,12 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @Table(name = "classes")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "classes")
 public class SchoolClass {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "classes_seq")
+    @SequenceGenerator(name = "classes_seq", sequenceName = "classes_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
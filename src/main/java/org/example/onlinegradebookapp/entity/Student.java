@@ -20,7 +20,8 @@ import java.util.List;
 @Table(name = "students")
 public class Student {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "students_seq")
+    @SequenceGenerator(name = "students_seq", sequenceName = "students_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -35,6 +36,10 @@ public class Student {
     @Column(name = "lastname", nullable = false)
     private String lastName;
 
+    // Incremented whenever email, password or role change; tokens carrying an older version are rejected
+    @Column(name = "credential_version", nullable = false)
+    private int credentialVersion;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private Instant createdAt;
@@ -43,7 +48,7 @@ public class Student {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference
     @JoinColumn(name = "class_id")
     private SchoolClass schoolClass;
@@ -26,7 +26,8 @@ import java.util.List;
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -45,6 +46,10 @@ public class User {
     @Column(nullable = false)
     private UserRole role;
 
+    // Incremented whenever email, password or role change; tokens carrying an older version are rejected
+    @Column(name = "credential_version", nullable = false)
+    private int credentialVersion;
+
     @Transient
     @JsonIgnore
     private RoleName roleName;
@@ -57,7 +62,7 @@ public class User {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
-    @OneToOne(cascade = CascadeType.PERSIST)
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
     @JoinColumn(name = "class_id")
     @JsonBackReference
     private SchoolClass schoolClass;
@@ -0,0 +1,14 @@
+package org.example.onlinegradebookapp.exception;
+
+import lombok.Getter;
+
+// Thrown when the server is overloaded and the client should retry later (HTTP 503 with Retry-After)
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.onlinegradebookapp.exception;
+
+import lombok.Getter;
+
+// Thrown when a client exceeds a rate limit and should retry later (HTTP 429 with Retry-After)
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
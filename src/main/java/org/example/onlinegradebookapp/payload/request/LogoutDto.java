@@ -0,0 +1,9 @@
+package org.example.onlinegradebookapp.payload.request;
+
+import lombok.Data;
+
+@Data
+public class LogoutDto {
+    // Optional refresh token revoked together with the JWT token
+    private String refreshToken;
+}
@@ -0,0 +1,10 @@
+package org.example.onlinegradebookapp.payload.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshTokenDto {
+    @NotBlank(message = "Refresh token cannot be empty")
+    private String refreshToken;
+}
@@ -0,0 +1,13 @@
+package org.example.onlinegradebookapp.payload.request;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+// Access token to revoke, given either as the whole token or by its ID (jti), e.g. taken from an access log
+@Data
+public class TokenRevocationDto {
+    private String token;
+
+    @Size(max = 36, message = "Token ID is at most 36 characters long")
+    private String jti;
+}
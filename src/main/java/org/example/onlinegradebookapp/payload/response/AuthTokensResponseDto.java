@@ -0,0 +1,15 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Access token (JWT) and refresh token issued at login or refresh
+@Getter
+@AllArgsConstructor
+public class AuthTokensResponseDto {
+    private String email;
+
+    private String token;
+
+    private String refreshToken;
+}
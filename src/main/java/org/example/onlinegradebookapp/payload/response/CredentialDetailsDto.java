@@ -0,0 +1,24 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
+import org.example.onlinegradebookapp.entity.UserRole.UserRole;
+
+// Login data of a user or student resolved from the credentials table in one query
+@Getter
+@AllArgsConstructor
+public class CredentialDetailsDto {
+    private PrincipalType principalType;
+
+    private Long principalId;
+
+    private String email;
+
+    private String password;
+
+    // Role of a user, null for students
+    private UserRole role;
+
+    private Integer credentialVersion;
+}
@@ -0,0 +1,42 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.onlinegradebookapp.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+// Single page of a keyset-paginated list with an opaque cursor pointing at the next page (null on the last page)
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+
+    private String nextCursor;
+
+    // Encode the last returned ID as an opaque, URL-safe cursor
+    public static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decode a cursor back to the last returned ID; a missing cursor starts from the beginning
+    public static long decodeCursor(String cursor) throws BadRequestException {
+        if(cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            long lastId = Long.parseLong(decoded);
+            if(lastId < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return lastId;
+        } catch(IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Rejected row of a grade batch: its position in the request, student ID and the reason
+@Getter
+@AllArgsConstructor
+public class GradeBatchErrorResponseDto {
+    private int index;
+
+    private Long studentId;
+
+    private String message;
+}
@@ -0,0 +1,15 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Result of a grade batch: number of created grades and rows that were rejected
+@Getter
+@AllArgsConstructor
+public class GradeBatchResponseDto {
+    private int created;
+
+    private List<GradeBatchErrorResponseDto> errors;
+}
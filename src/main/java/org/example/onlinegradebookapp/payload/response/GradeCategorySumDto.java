@@ -0,0 +1,22 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.onlinegradebookapp.entity.TestCategory.TestCategory;
+
+import java.math.BigDecimal;
+
+// Sum and count of a student's grades in one subject and test category, aggregated by the database
+@Getter
+@AllArgsConstructor
+public class GradeCategorySumDto {
+    private Long studentId;
+
+    private Long subjectId;
+
+    private TestCategory category;
+
+    private BigDecimal gradeSum;
+
+    private Long gradeCount;
+}
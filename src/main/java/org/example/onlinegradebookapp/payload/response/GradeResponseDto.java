@@ -0,0 +1,26 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Flat read model of a grade, selected directly from the grades table without loading related entities
+@Getter
+@AllArgsConstructor
+public class GradeResponseDto {
+    private Long id;
+
+    private BigDecimal grade;
+
+    private String description;
+
+    private Long studentId;
+
+    private Long testId;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+}
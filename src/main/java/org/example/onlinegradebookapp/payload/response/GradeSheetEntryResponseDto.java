@@ -0,0 +1,23 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+// Student of the tested class with their grade for the test; grade fields are null when not graded yet
+@Getter
+@AllArgsConstructor
+public class GradeSheetEntryResponseDto {
+    private Long studentId;
+
+    private String firstName;
+
+    private String lastName;
+
+    private Long gradeId;
+
+    private BigDecimal grade;
+
+    private String description;
+}
@@ -0,0 +1,42 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Statistics of a set of grades; mean, median and standard deviation are null when there are no grades.
+// The histogram maps every whole grade 1-6 to the number of grades in [grade, grade + 1), e.g. 4.5 counts as 4
+@Getter
+public class GradeStatsResponseDto {
+    private final long count;
+
+    private final BigDecimal mean;
+
+    private final BigDecimal median;
+
+    private final BigDecimal standardDeviation;
+
+    private final Map<Integer, Long> histogram;
+
+    // Used by JPQL constructor expressions, which return aggregates as numbers of various types
+    public GradeStatsResponseDto(Long count, Number mean, Number median, Number standardDeviation,
+                                 Long ones, Long twos, Long threes, Long fours, Long fives, Long sixes) {
+        this.count = count;
+        this.mean = round(mean);
+        this.median = round(median);
+        this.standardDeviation = round(standardDeviation);
+
+        Long[] buckets = {ones, twos, threes, fours, fives, sixes};
+        this.histogram = new LinkedHashMap<>();
+        for(int i = 0; i < buckets.length; i++) {
+            histogram.put(i + 1, buckets[i] != null ? buckets[i] : 0L);
+        }
+    }
+
+    private static BigDecimal round(Number value) {
+        return value != null ? new BigDecimal(value.toString()).setScale(2, RoundingMode.HALF_UP) : null;
+    }
+}
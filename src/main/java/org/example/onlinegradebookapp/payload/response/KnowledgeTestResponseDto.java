@@ -0,0 +1,31 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.onlinegradebookapp.entity.TestCategory.TestCategory;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+// Flat read model of a knowledge test with IDs of its class, subject and teacher instead of grades
+@Getter
+@AllArgsConstructor
+public class KnowledgeTestResponseDto {
+    private Long id;
+
+    private String name;
+
+    private TestCategory category;
+
+    private LocalDate testDate;
+
+    private Long classId;
+
+    private Long subjectId;
+
+    private Long teacherId;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+}
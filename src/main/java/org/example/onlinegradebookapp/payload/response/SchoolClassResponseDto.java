@@ -0,0 +1,21 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+// Flat read model of a school class with its form teacher ID instead of tests and students
+@Getter
+@AllArgsConstructor
+public class SchoolClassResponseDto {
+    private Long id;
+
+    private String name;
+
+    private Long teacherId;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+}
@@ -0,0 +1,34 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.onlinegradebookapp.entity.TestCategory.TestCategory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Single grade of a student together with its knowledge test; subject fields are used only for grouping
+@Getter
+@AllArgsConstructor
+public class StudentGradeResponseDto {
+    @JsonIgnore
+    private Long subjectId;
+
+    @JsonIgnore
+    private String subjectName;
+
+    private Long id;
+
+    private BigDecimal grade;
+
+    private String description;
+
+    private Long testId;
+
+    private String testName;
+
+    private TestCategory category;
+
+    private LocalDate testDate;
+}
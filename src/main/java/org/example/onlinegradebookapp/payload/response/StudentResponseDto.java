@@ -0,0 +1,25 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+// Flat read model of a student without password and grades
+@Getter
+@AllArgsConstructor
+public class StudentResponseDto {
+    private Long id;
+
+    private String email;
+
+    private String firstName;
+
+    private String lastName;
+
+    private Long classId;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+}
@@ -0,0 +1,17 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Grades of a single student in one subject
+@Getter
+@AllArgsConstructor
+public class SubjectGradesResponseDto {
+    private Long subjectId;
+
+    private String subjectName;
+
+    private List<StudentGradeResponseDto> grades;
+}
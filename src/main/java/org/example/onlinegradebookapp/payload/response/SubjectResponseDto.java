@@ -0,0 +1,19 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+// Flat read model of a subject without teachers and tests
+@Getter
+@AllArgsConstructor
+public class SubjectResponseDto {
+    private Long id;
+
+    private String name;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+}
@@ -0,0 +1,28 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.onlinegradebookapp.entity.UserRole.UserRole;
+
+import java.time.Instant;
+
+// Flat read model of a user (teacher/admin) without password, subjects and tests
+@Getter
+@AllArgsConstructor
+public class UserResponseDto {
+    private Long id;
+
+    private String email;
+
+    private String firstName;
+
+    private String lastName;
+
+    private UserRole role;
+
+    private Long classId;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+}
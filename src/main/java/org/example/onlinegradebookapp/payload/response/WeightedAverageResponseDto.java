@@ -0,0 +1,19 @@
+package org.example.onlinegradebookapp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+// Weighted average of a student's grades in one subject (null if all grades are in categories with weight 0)
+@Getter
+@AllArgsConstructor
+public class WeightedAverageResponseDto {
+    private Long studentId;
+
+    private Long subjectId;
+
+    private BigDecimal average;
+
+    private long gradeCount;
+}
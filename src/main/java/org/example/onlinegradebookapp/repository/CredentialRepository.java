@@ -0,0 +1,60 @@
+package org.example.onlinegradebookapp.repository;
+
+import org.example.onlinegradebookapp.entity.Credential;
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
+import org.example.onlinegradebookapp.payload.response.CredentialDetailsDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CredentialRepository extends JpaRepository<Credential, Long> {
+    // Check if a user or student exists with given email
+    Boolean existsByEmail(String email);
+
+    // Find login data of the user or student with given email, joining only the table the credential points to
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.CredentialDetailsDto(
+                c.principalType, c.principalId, c.email, COALESCE(u.password, s.password), u.role,
+                COALESCE(u.credentialVersion, s.credentialVersion))
+            FROM Credential c
+            LEFT JOIN User u
+                ON c.principalType = org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType.USER
+                AND u.id = c.principalId
+            LEFT JOIN Student s
+                ON c.principalType = org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType.STUDENT
+                AND s.id = c.principalId
+            WHERE c.email = :email
+            """)
+    Optional<CredentialDetailsDto> findDetailsByEmail(@Param("email") String email);
+
+    // Find login data of given user or student
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.CredentialDetailsDto(
+                c.principalType, c.principalId, c.email, COALESCE(u.password, s.password), u.role,
+                COALESCE(u.credentialVersion, s.credentialVersion))
+            FROM Credential c
+            LEFT JOIN User u
+                ON c.principalType = org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType.USER
+                AND u.id = c.principalId
+            LEFT JOIN Student s
+                ON c.principalType = org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType.STUDENT
+                AND s.id = c.principalId
+            WHERE c.principalType = :type AND c.principalId = :id
+            """)
+    Optional<CredentialDetailsDto> findDetailsByPrincipal(@Param("type") PrincipalType type, @Param("id") Long id);
+
+    // Change the email of the credential belonging to given user or student
+    @Modifying
+    @Query("UPDATE Credential c SET c.email = :email WHERE c.principalType = :type AND c.principalId = :id")
+    int updateEmail(@Param("type") PrincipalType type, @Param("id") Long id, @Param("email") String email);
+
+    // Delete the credential belonging to given user or student
+    @Modifying
+    @Query("DELETE FROM Credential c WHERE c.principalType = :type AND c.principalId = :id")
+    int deleteByPrincipal(@Param("type") PrincipalType type, @Param("id") Long id);
+}
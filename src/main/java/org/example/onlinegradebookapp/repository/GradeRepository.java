@@ -1,19 +1,128 @@
 package org.example.onlinegradebookapp.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.onlinegradebookapp.entity.Grade;
+import org.example.onlinegradebookapp.payload.response.GradeCategorySumDto;
+import org.example.onlinegradebookapp.payload.response.GradeResponseDto;
+import org.example.onlinegradebookapp.payload.response.GradeStatsResponseDto;
+import org.example.onlinegradebookapp.payload.response.StudentGradeResponseDto;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface GradeRepository extends JpaRepository<Grade, Long> {
-    // Check if grade exists with given student ID
-    Boolean existsGradeByStudentId(Long studentId);
-
-    // Check if grade exists with given test ID
-    Boolean existsGradeByTestId(Long testId);
-
+public interface GradeRepository extends JpaRepository<Grade, Long>, GradeRepositoryCustom {
     // Find the grade with given studentId and testId
     Optional<Grade> findGradeByStudentIdAndTestId(Long studentId, Long testId);
+
+    // Find the next page of grades after given ID (keyset pagination), optionally filtered by student, test and creation date
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.GradeResponseDto(
+                g.id, g.grade, g.description, g.student.id, g.test.id, g.createdAt, g.updatedAt)
+            FROM Grade g
+            WHERE g.id > :afterId
+              AND (:studentId IS NULL OR g.student.id = :studentId)
+              AND (:testId IS NULL OR g.test.id = :testId)
+              AND (CAST(:createdFrom AS Instant) IS NULL OR g.createdAt >= :createdFrom)
+              AND (CAST(:createdTo AS Instant) IS NULL OR g.createdAt < :createdTo)
+            ORDER BY g.id
+            """)
+    List<GradeResponseDto> findGradePage(@Param("afterId") Long afterId,
+                                         @Param("studentId") Long studentId,
+                                         @Param("testId") Long testId,
+                                         @Param("createdFrom") Instant createdFrom,
+                                         @Param("createdTo") Instant createdTo,
+                                         Limit limit);
+
+    // Stream all grades ordered by ID through a server-side cursor; must be consumed inside a transaction
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.GradeResponseDto(
+                g.id, g.grade, g.description, g.student.id, g.test.id, g.createdAt, g.updatedAt)
+            FROM Grade g
+            ORDER BY g.id
+            """)
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<GradeResponseDto> streamAllGrades();
+
+    // Find the grade with given ID as a flat DTO
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.GradeResponseDto(
+                g.id, g.grade, g.description, g.student.id, g.test.id, g.createdAt, g.updatedAt)
+            FROM Grade g
+            WHERE g.id = :id
+            """)
+    Optional<GradeResponseDto> findGradeDtoById(@Param("id") Long id);
+
+    // Find all grades of given student with their tests and subjects, ordered by subject name and test date
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.StudentGradeResponseDto(
+                s.id, s.name, g.id, g.grade, g.description, t.id, t.name, t.category, t.testDate)
+            FROM Grade g
+            JOIN g.test t
+            JOIN t.subject s
+            WHERE g.student.id = :studentId
+            ORDER BY s.name, s.id, t.testDate, g.id
+            """)
+    List<StudentGradeResponseDto> findStudentGrades(@Param("studentId") Long studentId);
+
+    // Find IDs of given students who already have a grade for given test
+    @Query("SELECT g.student.id FROM Grade g WHERE g.test.id = :testId AND g.student.id IN :studentIds")
+    Set<Long> findGradedStudentIds(@Param("testId") Long testId, @Param("studentIds") Collection<Long> studentIds);
+
+    // Sum and count grades of students in the class with given ID per subject and test category
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.GradeCategorySumDto(
+                g.student.id, t.subject.id, t.category, SUM(g.grade), COUNT(g))
+            FROM Grade g
+            JOIN g.test t
+            WHERE t.schoolClass.id = :classId
+            GROUP BY g.student.id, t.subject.id, t.category
+            ORDER BY g.student.id, t.subject.id
+            """)
+    List<GradeCategorySumDto> sumGradesByCategory(@Param("classId") Long classId);
+
+    // Compute count, mean, median, population standard deviation and histogram of grades for given test
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.GradeStatsResponseDto(
+                COUNT(g), AVG(g.grade), PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY g.grade), STDDEV_POP(g.grade),
+                COUNT(g) FILTER (WHERE g.grade < 2),
+                COUNT(g) FILTER (WHERE g.grade >= 2 AND g.grade < 3),
+                COUNT(g) FILTER (WHERE g.grade >= 3 AND g.grade < 4),
+                COUNT(g) FILTER (WHERE g.grade >= 4 AND g.grade < 5),
+                COUNT(g) FILTER (WHERE g.grade >= 5 AND g.grade < 6),
+                COUNT(g) FILTER (WHERE g.grade >= 6))
+            FROM Grade g
+            WHERE g.test.id = :testId
+            """)
+    GradeStatsResponseDto findTestStats(@Param("testId") Long testId);
+
+    // Compute count, mean, median, population standard deviation and histogram of grades for all tests of given class
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.GradeStatsResponseDto(
+                COUNT(g), AVG(g.grade), PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY g.grade), STDDEV_POP(g.grade),
+                COUNT(g) FILTER (WHERE g.grade < 2),
+                COUNT(g) FILTER (WHERE g.grade >= 2 AND g.grade < 3),
+                COUNT(g) FILTER (WHERE g.grade >= 3 AND g.grade < 4),
+                COUNT(g) FILTER (WHERE g.grade >= 4 AND g.grade < 5),
+                COUNT(g) FILTER (WHERE g.grade >= 5 AND g.grade < 6),
+                COUNT(g) FILTER (WHERE g.grade >= 6))
+            FROM Grade g
+            JOIN g.test t
+            WHERE t.schoolClass.id = :classId
+            """)
+    GradeStatsResponseDto findClassStats(@Param("classId") Long classId);
 }
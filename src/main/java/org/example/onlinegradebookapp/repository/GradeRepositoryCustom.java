@@ -0,0 +1,28 @@
+package org.example.onlinegradebookapp.repository;
+
+import org.example.onlinegradebookapp.payload.request.GradeBatchEntryDto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface GradeRepositoryCustom {
+    // Insert grades for given test in a single statement; rows of students who already have a grade are skipped.
+    // Entries must have distinct student IDs. Returns the number of inserted rows for each entry
+    int[] insertGrades(Long testId, List<GradeBatchEntryDto> grades);
+
+    // Insert a grade unless the student has already one for the test. If teacherId is given, the grade is only
+    // inserted when the test belongs to that teacher. Returns the number of inserted rows
+    int insertGrade(Long studentId, Long testId, BigDecimal grade, String description, Long teacherId);
+
+    // Insert a grade or replace the existing grade of the student for the test in one statement. If teacherId is
+    // given, the grade is only saved when the test belongs to that teacher. Returns the number of saved rows
+    int upsertGrade(Long studentId, Long testId, BigDecimal grade, String description, Long teacherId);
+
+    // Update given attributes of the grade (null keeps the current value) in one statement. If teacherId is given,
+    // the grade is only updated when its test belongs to that teacher. Returns the number of updated rows
+    int updateGrade(Long id, BigDecimal grade, String description, Long studentId, Long testId, Long teacherId);
+
+    // Delete the grade in one statement. If teacherId is given, the grade is only deleted when its test belongs to
+    // that teacher. Returns the number of deleted rows
+    int deleteGrade(Long id, Long teacherId);
+}
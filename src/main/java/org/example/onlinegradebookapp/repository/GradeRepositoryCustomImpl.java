@@ -0,0 +1,161 @@
+package org.example.onlinegradebookapp.repository;
+
+import org.example.onlinegradebookapp.payload.request.GradeBatchEntryDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Plain JDBC part of GradeRepository; JPQL has no INSERT ... ON CONFLICT
+public class GradeRepositoryCustomImpl implements GradeRepositoryCustom {
+    // All rows in one statement; RETURNING tells exactly which students got a grade, whereas a batch rewritten by the
+    // driver (reWriteBatchedInserts) reports SUCCESS_NO_INFO even for rows skipped on conflict
+    private static final String INSERT_GRADES_SQL = """
+            INSERT INTO grades (grade, description, student_id, test_id, created_at, updated_at)
+            SELECT g.grade, g.description, g.student_id, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM unnest(CAST(? AS numeric[]), CAST(? AS text[]), CAST(? AS bigint[])) AS g(grade, description, student_id)
+            ON CONFLICT (student_id, test_id) DO NOTHING
+            RETURNING student_id
+            """;
+
+    // Inserts a row only if both the student and the test exist
+    private static final String INSERT_SELECT_GRADE_SQL = """
+            INSERT INTO grades (grade, description, student_id, test_id, created_at, updated_at)
+            SELECT CAST(? AS numeric), CAST(? AS text), s.id, t.id, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM students s
+            JOIN knowledge_tests t ON t.id = ?
+            WHERE s.id = ?
+            """;
+
+    // Parameters left null keep the current values; the join gives the author of the current test of the grade
+    private static final String UPDATE_GRADE_SQL = """
+            UPDATE grades g
+            SET grade = COALESCE(CAST(? AS numeric), g.grade),
+                description = COALESCE(CAST(? AS text), g.description),
+                student_id = COALESCE(CAST(? AS bigint), g.student_id),
+                test_id = COALESCE(CAST(? AS bigint), g.test_id),
+                updated_at = CURRENT_TIMESTAMP
+            FROM knowledge_tests t
+            WHERE g.id = ? AND t.id = g.test_id
+            """;
+
+    private static final String DELETE_GRADE_SQL = """
+            DELETE FROM grades g
+            USING knowledge_tests t
+            WHERE g.id = ? AND t.id = g.test_id
+            """;
+
+    private static final String TEACHER_CONDITION = "AND t.teacher_id = ?\n";
+
+    private static final String ON_CONFLICT_IGNORE = "ON CONFLICT (student_id, test_id) DO NOTHING";
+
+    private static final String ON_CONFLICT_REPLACE = """
+            ON CONFLICT (student_id, test_id) DO UPDATE
+            SET grade = EXCLUDED.grade,
+                description = EXCLUDED.description,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GradeRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] insertGrades(Long testId, List<GradeBatchEntryDto> grades) {
+        if(grades.isEmpty()) {
+            return new int[0];
+        }
+        Set<Long> inserted = new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_GRADES_SQL);
+            ps.setLong(1, testId);
+            ps.setArray(2, connection.createArrayOf("numeric",
+                    grades.stream().map(GradeBatchEntryDto::getGrade).toArray()));
+            ps.setArray(3, connection.createArrayOf("text",
+                    grades.stream().map(GradeBatchEntryDto::getDescription).toArray()));
+            ps.setArray(4, connection.createArrayOf("bigint",
+                    grades.stream().map(GradeBatchEntryDto::getStudentId).toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1)));
+        return grades.stream()
+                .mapToInt(grade -> inserted.contains(grade.getStudentId()) ? 1 : 0)
+                .toArray();
+    }
+
+    @Override
+    public int insertGrade(Long studentId, Long testId, BigDecimal grade, String description, Long teacherId) {
+        return saveGrade(ON_CONFLICT_IGNORE, studentId, testId, grade, description, teacherId);
+    }
+
+    @Override
+    public int upsertGrade(Long studentId, Long testId, BigDecimal grade, String description, Long teacherId) {
+        return saveGrade(ON_CONFLICT_REPLACE, studentId, testId, grade, description, teacherId);
+    }
+
+    private int saveGrade(String onConflict, Long studentId, Long testId, BigDecimal grade, String description,
+                          Long teacherId) {
+        String sql = INSERT_SELECT_GRADE_SQL + (teacherId != null ? TEACHER_CONDITION : "") + onConflict;
+        return jdbcTemplate.update(sql, ps -> {
+            ps.setBigDecimal(1, grade);
+            setDescription(ps, 2, description);
+            ps.setLong(3, testId);
+            ps.setLong(4, studentId);
+            if(teacherId != null) {
+                ps.setLong(5, teacherId);
+            }
+        });
+    }
+
+    @Override
+    public int updateGrade(Long id, BigDecimal grade, String description, Long studentId, Long testId,
+                           Long teacherId) {
+        String sql = UPDATE_GRADE_SQL + (teacherId != null ? TEACHER_CONDITION : "");
+        return jdbcTemplate.update(sql, ps -> {
+            if(grade != null) {
+                ps.setBigDecimal(1, grade);
+            } else {
+                ps.setNull(1, Types.NUMERIC);
+            }
+            setDescription(ps, 2, description);
+            setId(ps, 3, studentId);
+            setId(ps, 4, testId);
+            ps.setLong(5, id);
+            if(teacherId != null) {
+                ps.setLong(6, teacherId);
+            }
+        });
+    }
+
+    @Override
+    public int deleteGrade(Long id, Long teacherId) {
+        String sql = DELETE_GRADE_SQL + (teacherId != null ? TEACHER_CONDITION : "");
+        return jdbcTemplate.update(sql, ps -> {
+            ps.setLong(1, id);
+            if(teacherId != null) {
+                ps.setLong(2, teacherId);
+            }
+        });
+    }
+
+    private static void setId(PreparedStatement ps, int index, Long id) throws SQLException {
+        if(id != null) {
+            ps.setLong(index, id);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+
+    private static void setDescription(PreparedStatement ps, int index, String description) throws SQLException {
+        if(description != null) {
+            ps.setString(index, description);
+        } else {
+            ps.setNull(index, Types.VARCHAR);
+        }
+    }
+}
@@ -1,16 +1,53 @@
 package org.example.onlinegradebookapp.repository;
 
 import org.example.onlinegradebookapp.entity.KnowledgeTest;
+import org.example.onlinegradebookapp.payload.response.GradeSheetEntryResponseDto;
+import org.example.onlinegradebookapp.payload.response.KnowledgeTestResponseDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface KnowledgeTestRepository extends JpaRepository<KnowledgeTest, Long> {
+public interface KnowledgeTestRepository extends JpaRepository<KnowledgeTest, Long>, KnowledgeTestRepositoryCustom {
     // Check if knowledge test exists with given name
     Boolean existsByName(String name);
 
     // Find the knowledge test with given name
     Optional<KnowledgeTest> findByName(String name);
+
+    // Find all knowledge tests as flat DTOs
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.KnowledgeTestResponseDto(
+                t.id, t.name, t.category, t.testDate, t.schoolClass.id, t.subject.id, t.teacher.id,
+                t.createdAt, t.updatedAt)
+            FROM KnowledgeTest t
+            ORDER BY t.id
+            """)
+    List<KnowledgeTestResponseDto> findAllKnowledgeTestDtos();
+
+    // Find the knowledge test with given ID as a flat DTO
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.KnowledgeTestResponseDto(
+                t.id, t.name, t.category, t.testDate, t.schoolClass.id, t.subject.id, t.teacher.id,
+                t.createdAt, t.updatedAt)
+            FROM KnowledgeTest t
+            WHERE t.id = :id
+            """)
+    Optional<KnowledgeTestResponseDto> findKnowledgeTestDtoById(@Param("id") Long id);
+
+    // Find all students of the class that wrote given test, with their grade for the test (or nulls if not graded)
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.GradeSheetEntryResponseDto(
+                s.id, s.firstName, s.lastName, g.id, g.grade, g.description)
+            FROM KnowledgeTest t
+            JOIN Student s ON s.schoolClass.id = t.schoolClass.id
+            LEFT JOIN Grade g ON g.student.id = s.id AND g.test.id = t.id
+            WHERE t.id = :testId
+            ORDER BY s.lastName, s.firstName, s.id
+            """)
+    List<GradeSheetEntryResponseDto> findGradeSheet(@Param("testId") Long testId);
 }
@@ -0,0 +1,16 @@
+package org.example.onlinegradebookapp.repository;
+
+import org.example.onlinegradebookapp.entity.TestCategory.TestCategory;
+
+import java.time.LocalDate;
+
+public interface KnowledgeTestRepositoryCustom {
+    // Update given attributes of the knowledge test (null keeps the current value) in one statement. If teacherId is
+    // given, the test is only updated when it belongs to that teacher. Returns the number of updated rows
+    int updateKnowledgeTest(Long id, String name, TestCategory category, LocalDate testDate, Long classId,
+                            Long subjectId, Long teacherId);
+
+    // Delete the knowledge test with its grades in one statement. If teacherId is given, the test is only deleted
+    // when it belongs to that teacher. Returns the number of deleted tests
+    int deleteKnowledgeTest(Long id, Long teacherId);
+}
@@ -0,0 +1,95 @@
+package org.example.onlinegradebookapp.repository;
+
+import org.example.onlinegradebookapp.entity.TestCategory.TestCategory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+
+// Plain JDBC part of KnowledgeTestRepository; the ownership check and the change are one conditional statement,
+// so the test and its teacher don't have to be loaded first
+public class KnowledgeTestRepositoryCustomImpl implements KnowledgeTestRepositoryCustom {
+    // Parameters left null keep the current values
+    private static final String UPDATE_TEST_SQL = """
+            UPDATE knowledge_tests
+            SET name = COALESCE(CAST(? AS varchar), name),
+                category = COALESCE(CAST(? AS varchar), category),
+                test_date = COALESCE(CAST(? AS date), test_date),
+                class_id = COALESCE(CAST(? AS bigint), class_id),
+                subject_id = COALESCE(CAST(? AS bigint), subject_id),
+                updated_at = CURRENT_TIMESTAMP
+            WHERE id = ?
+            """;
+
+    // Grades of the test are removed by the same statement; foreign keys are checked at its end
+    private static final String DELETE_TEST_SQL = """
+            WITH deleted_grades AS (
+                DELETE FROM grades
+                WHERE test_id IN (SELECT id FROM knowledge_tests WHERE id = ? %1$s)
+            )
+            DELETE FROM knowledge_tests
+            WHERE id = ? %1$s
+            """;
+
+    private static final String TEACHER_CONDITION = "AND teacher_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public KnowledgeTestRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int updateKnowledgeTest(Long id, String name, TestCategory category, LocalDate testDate, Long classId,
+                                   Long subjectId, Long teacherId) {
+        String sql = UPDATE_TEST_SQL + (teacherId != null ? TEACHER_CONDITION : "");
+        return jdbcTemplate.update(sql, ps -> {
+            setString(ps, 1, name);
+            setString(ps, 2, category != null ? category.name() : null);
+            if(testDate != null) {
+                ps.setDate(3, Date.valueOf(testDate));
+            } else {
+                ps.setNull(3, Types.DATE);
+            }
+            setId(ps, 4, classId);
+            setId(ps, 5, subjectId);
+            ps.setLong(6, id);
+            if(teacherId != null) {
+                ps.setLong(7, teacherId);
+            }
+        });
+    }
+
+    @Override
+    public int deleteKnowledgeTest(Long id, Long teacherId) {
+        String sql = DELETE_TEST_SQL.formatted(teacherId != null ? TEACHER_CONDITION : "");
+        return jdbcTemplate.update(sql, ps -> {
+            int index = 1;
+            for(int i = 0; i < 2; i++) {
+                ps.setLong(index++, id);
+                if(teacherId != null) {
+                    ps.setLong(index++, teacherId);
+                }
+            }
+        });
+    }
+
+    private static void setString(PreparedStatement ps, int index, String value) throws SQLException {
+        if(value != null) {
+            ps.setString(index, value);
+        } else {
+            ps.setNull(index, Types.VARCHAR);
+        }
+    }
+
+    private static void setId(PreparedStatement ps, int index, Long id) throws SQLException {
+        if(id != null) {
+            ps.setLong(index, id);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+}
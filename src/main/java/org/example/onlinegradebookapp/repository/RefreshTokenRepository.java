@@ -0,0 +1,44 @@
+package org.example.onlinegradebookapp.repository;
+
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
+import org.example.onlinegradebookapp.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    // Find the refresh token with given hash
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Mark the token as used if nobody has used or revoked it yet; returns 0 when the token was already used
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.usedAt = :now WHERE r.id = :id AND r.usedAt IS NULL AND r.revoked = false")
+    int markUsed(@Param("id") Long id, @Param("now") Instant now);
+
+    // Revoke all tokens of the family with given ID
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    // Revoke all tokens of given user or student
+    @Modifying
+    @Query("""
+            UPDATE RefreshToken r SET r.revoked = true
+            WHERE r.principalType = :type AND r.principalId = :id AND r.revoked = false
+            """)
+    int revokeAll(@Param("type") PrincipalType type, @Param("id") Long id);
+
+    // Delete expired tokens of given user or student
+    @Modifying
+    @Query("""
+            DELETE FROM RefreshToken r
+            WHERE r.principalType = :type AND r.principalId = :id AND r.expiresAt < :now
+            """)
+    int deleteExpired(@Param("type") PrincipalType type, @Param("id") Long id, @Param("now") Instant now);
+}
@@ -0,0 +1,22 @@
+package org.example.onlinegradebookapp.repository;
+
+import org.example.onlinegradebookapp.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    // Find revoked tokens which haven't expired yet
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    // Delete revoked tokens which have already expired
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,9 +1,17 @@
 package org.example.onlinegradebookapp.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.onlinegradebookapp.entity.SchoolClass;
+import org.example.onlinegradebookapp.payload.response.SchoolClassResponseDto;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +21,29 @@ public interface SchoolClassRepository extends JpaRepository<SchoolClass, Long>
 
     // Find the school class with given name
     Optional<SchoolClass> findByName(String name);
+
+    // Find the school class with given ID together with its teacher in one query
+    @EntityGraph(attributePaths = "teacher")
+    Optional<SchoolClass> findWithTeacherById(Long id);
+
+    // Find all school classes as flat DTOs; the result is kept in the query cache until the tables change
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.SchoolClassResponseDto(
+                c.id, c.name, t.id, c.createdAt, c.updatedAt)
+            FROM SchoolClass c
+            LEFT JOIN c.teacher t
+            ORDER BY c.id
+            """)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<SchoolClassResponseDto> findAllSchoolClassDtos();
+
+    // Find the school class with given ID as a flat DTO
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.SchoolClassResponseDto(
+                c.id, c.name, t.id, c.createdAt, c.updatedAt)
+            FROM SchoolClass c
+            LEFT JOIN c.teacher t
+            WHERE c.id = :id
+            """)
+    Optional<SchoolClassResponseDto> findSchoolClassDtoById(@Param("id") Long id);
 }
@@ -1,16 +1,45 @@
 package org.example.onlinegradebookapp.repository;
 
 import org.example.onlinegradebookapp.entity.Student;
+import org.example.onlinegradebookapp.payload.response.StudentResponseDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long> {
     // Find the student with given email
     Optional<Student> findByEmail(String email);
 
-    // Check if the student exists with given email
-    Boolean existsByEmail(String email);
+    // Find all students as flat DTOs
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.StudentResponseDto(
+                s.id, s.email, s.firstName, s.lastName, s.schoolClass.id, s.createdAt, s.updatedAt)
+            FROM Student s
+            ORDER BY s.id
+            """)
+    List<StudentResponseDto> findAllStudentDtos();
+
+    // Find the student with given ID as a flat DTO
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.StudentResponseDto(
+                s.id, s.email, s.firstName, s.lastName, s.schoolClass.id, s.createdAt, s.updatedAt)
+            FROM Student s
+            WHERE s.id = :id
+            """)
+    Optional<StudentResponseDto> findStudentDtoById(@Param("id") Long id);
+
+    // Find IDs of given students who belong to the class with given ID
+    @Query("SELECT s.id FROM Student s WHERE s.schoolClass.id = :classId AND s.id IN :ids")
+    Set<Long> findIdsInClass(@Param("classId") Long classId, @Param("ids") Collection<Long> ids);
+
+    // Find the credential version of the student with given ID
+    @Query("SELECT s.credentialVersion FROM Student s WHERE s.id = :id")
+    Optional<Integer> findCredentialVersionById(@Param("id") Long id);
 }
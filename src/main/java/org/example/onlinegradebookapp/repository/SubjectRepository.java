@@ -1,13 +1,44 @@
 package org.example.onlinegradebookapp.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.onlinegradebookapp.entity.Subject;
+import org.example.onlinegradebookapp.payload.response.SubjectResponseDto;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SubjectRepository extends JpaRepository<Subject, Long> {
     Boolean existsByName(String name);
+
     Optional<Subject> findByName(String name);
+
+    // Find subjects with given names in one query
+    List<Subject> findByNameIn(Collection<String> names);
+
+    // Find all subjects as flat DTOs; the result is kept in the query cache until the table changes
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.SubjectResponseDto(
+                s.id, s.name, s.createdAt, s.updatedAt)
+            FROM Subject s
+            ORDER BY s.id
+            """)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<SubjectResponseDto> findAllSubjectDtos();
+
+    // Find the subject with given ID as a flat DTO
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.SubjectResponseDto(
+                s.id, s.name, s.createdAt, s.updatedAt)
+            FROM Subject s
+            WHERE s.id = :id
+            """)
+    Optional<SubjectResponseDto> findSubjectDtoById(@Param("id") Long id);
 }
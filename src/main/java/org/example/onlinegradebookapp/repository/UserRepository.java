@@ -1,10 +1,14 @@
 package org.example.onlinegradebookapp.repository;
 
 import org.example.onlinegradebookapp.entity.UserRole.UserRole;
+import org.example.onlinegradebookapp.payload.response.UserResponseDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.example.onlinegradebookapp.entity.User;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,9 +16,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Find the user with given email
     Optional<User> findByEmail(String email);
 
-    // Check if the user exists with given email
-    Boolean existsByEmail(String email);
-
     // Count number of users with given ROLE
     Long countByRole(UserRole role);
+
+    // Find all users as flat DTOs
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.UserResponseDto(
+                u.id, u.email, u.firstName, u.lastName, u.role, u.schoolClass.id, u.createdAt, u.updatedAt)
+            FROM User u
+            ORDER BY u.id
+            """)
+    List<UserResponseDto> findAllUserDtos();
+
+    // Find the user with given ID as a flat DTO
+    @Query("""
+            SELECT new org.example.onlinegradebookapp.payload.response.UserResponseDto(
+                u.id, u.email, u.firstName, u.lastName, u.role, u.schoolClass.id, u.createdAt, u.updatedAt)
+            FROM User u
+            WHERE u.id = :id
+            """)
+    Optional<UserResponseDto> findUserDtoById(@Param("id") Long id);
+
+    // Find the credential version of the user with given ID
+    @Query("SELECT u.credentialVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findCredentialVersionById(@Param("id") Long id);
 }
@@ -12,12 +12,25 @@ public class CustomUserDetails implements UserDetails {
     private final String email;
     private final String password;
     private final Collection<? extends GrantedAuthority> authorities;
+    @Getter
+    private final int credentialVersion;
 
     public CustomUserDetails(Long id, String email, String password, Collection<? extends GrantedAuthority> authorities) {
+        this(id, email, password, authorities, 0);
+    }
+
+    public CustomUserDetails(Long id, String email, String password, Collection<? extends GrantedAuthority> authorities,
+                             int credentialVersion) {
         this.id = id;
         this.email = email;
         this.password = password;
         this.authorities = authorities;
+        this.credentialVersion = credentialVersion;
+    }
+
+    // Check if the principal is a student (students and users are kept in separate tables)
+    public boolean isStudent() {
+        return authorities.stream().anyMatch(authority -> "ROLE_STUDENT".equals(authority.getAuthority()));
     }
 
     @Override
@@ -1,15 +1,19 @@
 package org.example.onlinegradebookapp.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.example.onlinegradebookapp.exception.ApiError;
 import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
+import org.example.onlinegradebookapp.service.CredentialVersionService;
 import org.example.onlinegradebookapp.service.CustomUserDetailsService;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.CredentialsExpiredException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -23,10 +27,15 @@ import java.io.IOException;
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final CredentialVersionService credentialVersionService;
+    private final TokenDenylist tokenDenylist;
 
-    public JwtAuthFilter(JwtService jwtService, CustomUserDetailsService userDetailsService) {
+    public JwtAuthFilter(JwtService jwtService, CustomUserDetailsService userDetailsService,
+                         CredentialVersionService credentialVersionService, TokenDenylist tokenDenylist) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.credentialVersionService = credentialVersionService;
+        this.tokenDenylist = tokenDenylist;
     }
 
     // Filter used once per HTTP request
@@ -49,16 +58,27 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            // Extract email from token
-            userEmail = jwtService.extractUsername(jwt);
+            // Verify token once and extract email from it
+            Claims claims = jwtService.verifyToken(jwt);
+            userEmail = claims.getSubject();
+
+            // Reject tokens revoked by logout or an admin (in-memory check, no database query)
+            if(tokenDenylist.isRevoked(claims.getId())) {
+                throw new CredentialsExpiredException("The token has been revoked. Log in again to get a new token.");
+            }
 
             // Check if user/student hasn't authenticated yet
             if(SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Load user/student data
-                CustomUserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+                // Take user/student data from the token; tokens issued without principal claims load it from database
+                CustomUserDetails userDetails = jwtService.extractPrincipal(claims);
+                if(userDetails == null) {
+                    userDetails = userDetailsService.loadUserByUsername(userEmail);
+                } else if(!credentialVersionService.isCurrent(userDetails)) {
+                    throw new CredentialsExpiredException("The credentials have been updated. Log in again to get a new token.");
+                }
 
                 // Token validation
-                if(jwtService.isTokenValid(jwt, userDetails)) {
+                if(jwtService.isTokenValid(claims, userDetails)) {
                     // Create authorization token in Spring Security
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
@@ -71,8 +91,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
             // Pass the request further in the filter chain
             filterChain.doFilter(request, response);
-        } catch(ExpiredJwtException | UsernameNotFoundException ex) {
-            // Return 401 error if token expired or email has changed
+        } catch(ExpiredJwtException | SignatureException | UsernameNotFoundException | CredentialsExpiredException ex) {
+            // Return 401 error if token expired, its signing key was retired or credentials have changed
             ObjectMapper mapper = new ObjectMapper();
             ApiError error = new ApiError(HttpStatus.UNAUTHORIZED.value(), ex.getMessage());
             response.setStatus(HttpStatus.UNAUTHORIZED.value()); // Set status code
@@ -0,0 +1,196 @@
+package org.example.onlinegradebookapp.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SigningKeyResolver;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.onlinegradebookapp.config.JwtKeyProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Signing keys of JWT tokens indexed by key id (the 'kid' header). New tokens are signed with the active key; a token
+// is verified with the key named in its header, so keys can be rotated without logging everyone out:
+// - keys still present in the configuration keep verifying tokens (overlap of the old and the new key)
+// - a key removed from the configuration is accepted for the grace period, then tokens signed with it are rejected
+// Keys are built once per reload and swapped atomically, so resolving a key on a request is a map lookup.
+// Rotation with several instances takes two steps, each visible to all of them after one reload interval: first the
+// new key is added to the keystore (every instance accepts it), then the active key file is switched to its id
+@Component
+public class JwtKeyRing implements SigningKeyResolver {
+    private final JwtKeyProperties properties;
+    private final Clock clock;
+    private volatile KeySet keySet;
+
+    @Autowired
+    public JwtKeyRing(JwtKeyProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    // Clock is replaceable for tests
+    JwtKeyRing(JwtKeyProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        reload();
+    }
+
+    // Key signing new tokens
+    public SigningKey activeKey() {
+        return keySet.active;
+    }
+
+    // Check if tokens signed with the key are still accepted. Tokens without key id were issued before key ids
+    // were introduced and are verified with the active key
+    public boolean accepts(String keyId) {
+        return keyId == null || keySet.find(keyId, clock.instant()) != null;
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        return resolve(header.getKeyId());
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, String plaintext) {
+        return resolve(header.getKeyId());
+    }
+
+    // Read the keys and the active key id again. A keystore and the active key file are re-read from disk, so keys
+    // added to or removed from the keystore and a new active key id take effect here. gradebook.jwt.keys and
+    // gradebook.jwt.active-key-id are bound once at startup. If loading fails, the current keys stay in use
+    @Scheduled(fixedDelayString = "${gradebook.jwt.reload-interval:PT1M}",
+            initialDelayString = "${gradebook.jwt.reload-interval:PT1M}")
+    public synchronized void reload() {
+        Map<String, byte[]> secrets = new LinkedHashMap<>();
+        if(properties.getKeystore().getPath() == null) {
+            loadFromProperties(secrets);
+        } else {
+            loadFromKeystore(secrets);
+        }
+        String activeKeyId = loadActiveKeyId();
+        if(activeKeyId == null || !secrets.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Active JWT signing key '" + activeKeyId + "' is not configured");
+        }
+
+        Instant now = clock.instant();
+        KeySet previous = keySet;
+        Map<String, Key> current = new HashMap<>();
+        secrets.forEach((id, secret) -> {
+            Key known = previous == null ? null : previous.current.get(id);
+            boolean unchanged = known != null && MessageDigest.isEqual(known.getEncoded(), secret);
+            current.put(id, unchanged ? known : Keys.hmacShaKeyFor(secret));
+        });
+
+        Map<String, RetiredKey> retired = new HashMap<>();
+        if(previous != null) {
+            previous.retired.forEach((id, key) -> {
+                if(!current.containsKey(id) && key.acceptedUntil.isAfter(now)) {
+                    retired.put(id, key);
+                }
+            });
+            Instant acceptedUntil = now.plus(properties.getGracePeriod());
+            previous.current.forEach((id, key) -> {
+                if(!current.containsKey(id)) {
+                    retired.put(id, new RetiredKey(key, acceptedUntil));
+                }
+            });
+        }
+
+        keySet = new KeySet(new SigningKey(activeKeyId, current.get(activeKeyId)), current, retired);
+    }
+
+    private Key resolve(String keyId) {
+        KeySet current = keySet;
+        if(keyId == null) {
+            return current.active.key;
+        }
+        Key key = current.find(keyId, clock.instant());
+        if(key == null) {
+            throw new SignatureException("The token was signed with a key that is no longer accepted. " +
+                    "Log in again to get a new token.");
+        }
+        return key;
+    }
+
+    private void loadFromProperties(Map<String, byte[]> secrets) {
+        properties.getKeys().forEach((id, secret) -> secrets.put(id, Decoders.BASE64.decode(secret)));
+    }
+
+    // Secret key entries of the keystore, by alias
+    private void loadFromKeystore(Map<String, byte[]> secrets) {
+        JwtKeyProperties.Keystore keystore = properties.getKeystore();
+        char[] password = keystore.getPassword().toCharArray();
+        try(InputStream in = Files.newInputStream(Path.of(keystore.getPath()))) {
+            KeyStore keyStore = KeyStore.getInstance(keystore.getType());
+            keyStore.load(in, password);
+            for(String alias : Collections.list(keyStore.aliases())) {
+                if(keyStore.entryInstanceOf(alias, KeyStore.SecretKeyEntry.class)) {
+                    secrets.put(alias, keyStore.getKey(alias, password).getEncoded());
+                }
+            }
+        } catch(IOException | GeneralSecurityException ex) {
+            throw new IllegalStateException("Cannot load JWT signing keys from " + keystore.getPath(), ex);
+        }
+    }
+
+    // Id of the key signing new tokens: the content of the active key file if one is set, else the configured id
+    private String loadActiveKeyId() {
+        String activeKeyFile = properties.getActiveKeyFile();
+        if(activeKeyFile == null) {
+            return properties.getActiveKeyId();
+        }
+        try {
+            return Files.readString(Path.of(activeKeyFile)).strip();
+        } catch(IOException ex) {
+            throw new IllegalStateException("Cannot read the active JWT key id from " + activeKeyFile, ex);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SigningKey {
+        private final String id;
+        private final Key key;
+    }
+
+    @AllArgsConstructor
+    private static class RetiredKey {
+        private final Key key;
+        private final Instant acceptedUntil;
+    }
+
+    @AllArgsConstructor
+    private static class KeySet {
+        private final SigningKey active;
+        private final Map<String, Key> current;
+        private final Map<String, RetiredKey> retired;
+
+        private Key find(String keyId, Instant now) {
+            Key key = current.get(keyId);
+            if(key != null) {
+                return key;
+            }
+            RetiredKey retiredKey = retired.get(keyId);
+            return retiredKey != null && retiredKey.acceptedUntil.isAfter(now) ? retiredKey.key : null;
+        }
+    }
+}
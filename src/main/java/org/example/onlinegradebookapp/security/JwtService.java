@@ -1,45 +1,131 @@
 package org.example.onlinegradebookapp.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.*;
+import lombok.AllArgsConstructor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.io.Decoders;
 
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
-    // Secret key in Base64 format
-    private static final String JWT_SECRET = "d6tKZMHgcGE9M6g9sJER8JBXaimddV3R5dXn6nSBvQU3E5Amm7BWm9iNjnhKmAgR";
+    // Names of claims describing the principal, so requests can be authenticated without loading it
+    private static final String ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+    private static final String CREDENTIAL_VERSION_CLAIM = "ver";
+
+    // Lifetime of an access token
+    public static final Duration ACCESS_TOKEN_TTL = Duration.ofMinutes(10);
+
+    // Upper bound of verified tokens kept in memory
+    private static final int VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+
+    private final JwtKeyRing keyRing;
+
+    // Parser is immutable and thread-safe, so it is built once; it takes the key by the 'kid' header from the key ring
+    private final JwtParser jwtParser;
+
+    // Claims of already verified tokens keyed by SHA-256 of the token; an entry lives until the token expires
+    private final Cache<String, VerifiedToken> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_TOKEN_CACHE_SIZE)
+            .expireAfter(new Expiry<String, VerifiedToken>() {
+                @Override
+                public long expireAfterCreate(String hash, VerifiedToken token, long currentTime) {
+                    long millisLeft = token.claims.getExpiration().getTime() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millisLeft));
+                }
+
+                @Override
+                public long expireAfterUpdate(String hash, VerifiedToken token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String hash, VerifiedToken token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    public JwtService(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+        this.jwtParser = Jwts.parserBuilder().setSigningKeyResolver(keyRing).build();
+    }
 
     // Generate token JWT for user/student
     public String generateToken(CustomUserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(ID_CLAIM, userDetails.getId());
+        userDetails.getAuthorities().stream()
+                .findFirst()
+                .ifPresent(authority -> claims.put(ROLE_CLAIM, authority.getAuthority().replaceFirst("^ROLE_", "")));
+        claims.put(CREDENTIAL_VERSION_CLAIM, userDetails.getCredentialVersion());
         return createToken(claims, userDetails);
     }
 
     // Create token with additional data(claims) and UserDetails
     private String createToken(Map<String, Object> extraClaims, CustomUserDetails userDetails) {
+        JwtKeyRing.SigningKey signingKey = keyRing.activeKey();
         return Jwts
                 .builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.getId()) // id of the key verifying the token
                 .setClaims(extraClaims) // Additional data
                 .setSubject(userDetails.getUsername()) // email as subject
+                .setId(UUID.randomUUID().toString()) // token ID (jti) used for revocation
                 .setIssuedAt(new Date(System.currentTimeMillis())) // generation timestamp
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 10)) // expiration time: 10min
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256) // signed with key
+                .setExpiration(new Date(System.currentTimeMillis() + ACCESS_TOKEN_TTL.toMillis())) // expiration time
+                .signWith(signingKey.getKey(), SignatureAlgorithm.HS256) // signed with the active key
                 .compact();
     }
 
-    // Return signing key from encoded secret value
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(JWT_SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Parse and verify token once and return its claims (read-only). Tokens verified before are served from
+    // the cache until they expire or their signing key is retired; invalid or expired tokens throw JwtException
+    // (e.g. ExpiredJwtException)
+    public Claims verifyToken(String token) {
+        String tokenHash = hash(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(tokenHash);
+        if(verified != null && keyRing.accepts(verified.keyId)) {
+            return verified.claims;
+        }
+
+        Jws<Claims> jws = jwtParser.parseClaimsJws(token);
+        Claims claims = jws.getBody();
+        // Tokens without expiration are not cached, as they could stay in memory forever
+        if(claims.getExpiration() != null) {
+            verifiedTokens.put(tokenHash, new VerifiedToken(claims, jws.getHeader().getKeyId()));
+        }
+        return claims;
+    }
+
+    // Build the principal from claims of a verified token; returns null for tokens issued without principal claims
+    public CustomUserDetails extractPrincipal(Claims claims) {
+        Number id = claims.get(ID_CLAIM, Number.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        Number credentialVersion = claims.get(CREDENTIAL_VERSION_CLAIM, Number.class);
+        if(id == null || role == null || credentialVersion == null) {
+            return null;
+        }
+        return new CustomUserDetails(id.longValue(), claims.getSubject(), null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + role)), credentialVersion.intValue());
     }
 
     // Extract username from token
@@ -54,29 +140,33 @@ public class JwtService {
 
     // Extract any data from token with function
     public <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verifyToken(token);
         return resolver.apply(claims);
     }
 
-    // Parse token and return all data(claims)
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Check if token is valid and assigned to given user/student
+    public boolean isTokenValid(String token, CustomUserDetails userDetails) {
+        return isTokenValid(verifyToken(token), userDetails);
     }
 
-    // Check if token is expired
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Check if claims of a verified token are not expired and assigned to given user/student
+    public boolean isTokenValid(Claims claims, CustomUserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && claims.getExpiration().after(new Date());
     }
 
-    // Check if token is valid and assigned to given user/student
-    public boolean isTokenValid(String token, CustomUserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch(NoSuchAlgorithmException ex) {
+            // Every JVM has to provide SHA-256
+            throw new IllegalStateException(ex);
+        }
     }
 
+    @AllArgsConstructor
+    private static class VerifiedToken {
+        private final Claims claims;
+        private final String keyId;
+    }
 }
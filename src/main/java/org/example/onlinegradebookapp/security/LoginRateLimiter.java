@@ -0,0 +1,114 @@
+package org.example.onlinegradebookapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.onlinegradebookapp.config.LoginThrottleProperties;
+import org.example.onlinegradebookapp.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Throttles login attempts per email and per client IP before any database lookup or BCrypt work is done.
+// Each key has a lock-free token bucket kept as a single timestamp (GCRA): tokens refill continuously, so the
+// limit applies to any sliding window rather than fixed intervals. Idle buckets are evicted
+@Component
+public class LoginRateLimiter implements MeterBinder {
+    private final long emailCapacity;
+    private final long emailRefillNanos;
+    private final long ipCapacity;
+    private final long ipRefillNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, Bucket> buckets;
+    private volatile Counter emailThrottledCounter;
+    private volatile Counter ipThrottledCounter;
+
+    @Autowired
+    public LoginRateLimiter(LoginThrottleProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    // Clock in nanoseconds is replaceable for tests
+    LoginRateLimiter(LoginThrottleProperties properties, LongSupplier nanoClock) {
+        this.emailCapacity = properties.getEmailCapacity();
+        this.emailRefillNanos = properties.getEmailRefillPeriod().toNanos();
+        this.ipCapacity = properties.getIpCapacity();
+        this.ipRefillNanos = properties.getIpRefillPeriod().toNanos();
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+    // Take a token from the buckets of the client IP and the email; throws TooManyRequestsException if either is empty
+    public void acquire(String email, String clientIp) throws TooManyRequestsException {
+        long now = nanoClock.getAsLong();
+
+        long ipWait = bucket("ip:" + clientIp, now).tryAcquire(now, ipCapacity, ipRefillNanos);
+        if(ipWait > 0) {
+            increment(ipThrottledCounter);
+            throw tooManyRequests(ipWait);
+        }
+        String normalizedEmail = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        long emailWait = bucket("email:" + normalizedEmail, now).tryAcquire(now, emailCapacity, emailRefillNanos);
+        if(emailWait > 0) {
+            increment(emailThrottledCounter);
+            throw tooManyRequests(emailWait);
+        }
+    }
+
+    // Publishes throttled attempts as 'login.throttled{limit="email"|"ip"}'
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        emailThrottledCounter = Counter.builder("login.throttled").tag("limit", "email").register(registry);
+        ipThrottledCounter = Counter.builder("login.throttled").tag("limit", "ip").register(registry);
+    }
+
+    private Bucket bucket(String key, long now) {
+        return buckets.get(key, k -> new Bucket(now));
+    }
+
+    private static void increment(Counter counter) {
+        if(counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static TooManyRequestsException tooManyRequests(long waitNanos) {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return new TooManyRequestsException("Too many login attempts. Please try again later.", seconds);
+    }
+
+    // Token bucket stored as the time at which it would be completely full again
+    private static class Bucket {
+        private final AtomicLong fullAt;
+
+        Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        // Returns 0 if a token was taken, otherwise nanoseconds until the next token is available
+        long tryAcquire(long now, long capacity, long refillNanos) {
+            while(true) {
+                long current = fullAt.get();
+                long base = Math.max(current, now);
+                long next = base + refillNanos;
+                // Taking a token moves the 'full' time one refill period later; at most 'capacity' periods ahead
+                long waitNanos = next - now - capacity * refillNanos;
+                if(waitNanos > 0) {
+                    return waitNanos;
+                }
+                if(fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.onlinegradebookapp.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,7 +11,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -30,10 +30,14 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
-    // Creates a password encoder bean using the BCrypt algorithm
+    // Creates a password encoder bean using the BCrypt algorithm, run on a bounded hashing pool
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${gradebook.password-hashing.threads:0}") int threads,
+            @Value("${gradebook.password-hashing.queue-capacity:64}") int queueCapacity) {
+        // By default one hashing thread per CPU core
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity);
     }
 
     // Configures the Spring Security filter chain
@@ -51,6 +55,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/subjects/**").hasAnyRole("ADMIN", "TEACHER")
                         .requestMatchers("/api/knowledge_tests/**").hasAnyRole("ADMIN", "TEACHER")
                         .requestMatchers("/api/grades/**").hasAnyRole("ADMIN", "TEACHER")
+                        .requestMatchers("/actuator/health").permitAll() // Allows public access to health check
+                        .requestMatchers("/actuator/**").hasRole("ADMIN") // Metrics are available only for admin
                         .anyRequest().authenticated() // Requires authentication for all other endpoints
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // Stateless session (required for JWT)
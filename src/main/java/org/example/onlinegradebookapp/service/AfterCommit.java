@@ -0,0 +1,25 @@
+package org.example.onlinegradebookapp.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Runs an action once the current transaction has committed, or right away outside a transaction. Caches of rows
+// changed in a transaction are evicted this way: a request evicting them before the commit could let a concurrent
+// request load the old rows and cache them again
+final class AfterCommit {
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.onlinegradebookapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.onlinegradebookapp.repository.StudentRepository;
+import org.example.onlinegradebookapp.repository.UserRepository;
+import org.example.onlinegradebookapp.security.CustomUserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+// Keeps current credential versions of users and students in memory, so tokens carrying the principal can be
+// checked without a query per request. Entries are evicted when credentials change; the short TTL bounds
+// staleness when another application instance made the change
+@Service
+public class CredentialVersionService {
+    private static final int CACHE_SIZE = 10_000;
+    private static final Duration CACHE_TTL = Duration.ofMinutes(1);
+
+    // Version cached for principals that no longer exist
+    private static final int DELETED = -1;
+
+    private final UserRepository userRepository;
+    private final StudentRepository studentRepository;
+    private final Cache<String, Integer> versions = Caffeine.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .expireAfterWrite(CACHE_TTL)
+            .build();
+
+    public CredentialVersionService(UserRepository userRepository, StudentRepository studentRepository) {
+        this.userRepository = userRepository;
+        this.studentRepository = studentRepository;
+    }
+
+    // Check if the principal exists and its credential version is the current one
+    public boolean isCurrent(CustomUserDetails principal) {
+        Long id = principal.getId();
+        int currentVersion = principal.isStudent()
+                ? versions.get(studentKey(id), key -> studentRepository.findCredentialVersionById(id).orElse(DELETED))
+                : versions.get(userKey(id), key -> userRepository.findCredentialVersionById(id).orElse(DELETED));
+        return currentVersion != DELETED && currentVersion == principal.getCredentialVersion();
+    }
+
+    // Forget the cached version of the user with given ID
+    public void evictUser(Long id) {
+        versions.invalidate(userKey(id));
+    }
+
+    // Forget the cached version of the student with given ID
+    public void evictStudent(Long id) {
+        versions.invalidate(studentKey(id));
+    }
+
+    private static String userKey(Long id) {
+        return "user:" + id;
+    }
+
+    private static String studentKey(Long id) {
+        return "student:" + id;
+    }
+}
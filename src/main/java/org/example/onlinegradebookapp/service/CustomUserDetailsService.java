@@ -1,52 +1,88 @@
 package org.example.onlinegradebookapp.service;
 
-import org.example.onlinegradebookapp.entity.Student;
-import org.example.onlinegradebookapp.entity.User;
-import org.example.onlinegradebookapp.repository.StudentRepository;
-import org.example.onlinegradebookapp.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
+import org.example.onlinegradebookapp.payload.response.CredentialDetailsDto;
+import org.example.onlinegradebookapp.repository.CredentialRepository;
 import org.example.onlinegradebookapp.security.CustomUserDetails;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
-import java.util.Optional;
 
+// Loaded user details are cached by email, so tokens without principal claims and repeated logins don't query
+// the database on every request. Entries are evicted when credentials change or the account is deleted; the TTL
+// bounds staleness when another application instance made the change
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
-    private final UserRepository userRepository;
-    private final StudentRepository studentRepository;
+public class CustomUserDetailsService implements UserDetailsService, MeterBinder {
+    private static final int CACHE_SIZE = 10_000;
+    private static final Duration CACHE_TTL = Duration.ofMinutes(5);
 
-    public CustomUserDetailsService(UserRepository userRepository, StudentRepository studentRepository) {
-        this.userRepository = userRepository;
-        this.studentRepository = studentRepository;
+    private final CredentialRepository credentialRepository;
+    private final Cache<String, CustomUserDetails> userDetailsCache = Caffeine.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .expireAfterWrite(CACHE_TTL)
+            .recordStats()
+            .build();
+
+    public CustomUserDetailsService(CredentialRepository credentialRepository) {
+        this.credentialRepository = credentialRepository;
     }
 
-    // Loads a user by email from either the user or student repository
+    // Loads a user by email from the cache, or from the database if not cached yet
     @Override
     public CustomUserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Optional<User> user = userRepository.findByEmail(email);
-
-        // Returns user details for a regular user with assigned role
-        if (user.isPresent()) {
-            return new CustomUserDetails(
-                    user.get().getId(),
-                    user.get().getEmail(),
-                    user.get().getPassword(),
-                    List.of(new SimpleGrantedAuthority("ROLE_" + user.get().getRole()))
-            );
-        } else {
-            Student student = studentRepository.findByEmail(email)
-                    .orElseThrow(() -> new UsernameNotFoundException("The email has been updated. Log in again to get a new token."));
-
-            // Returns user details for a student with a hardcoded "STUDENT" role
-            return new CustomUserDetails(
-                    student.getId(),
-                    student.getEmail(),
-                    student.getPassword(),
-                    List.of(new SimpleGrantedAuthority("ROLE_" + "STUDENT"))
-            );
-        }
+        return userDetailsCache.get(email, this::findUserDetails);
+    }
+
+    // Forget cached details of the user with given ID (the email may have been changed, so entries are matched by ID)
+    public void evictUser(Long id) {
+        userDetailsCache.asMap().values().removeIf(details -> !details.isStudent() && details.getId().equals(id));
+    }
+
+    // Forget cached details of the student with given ID
+    public void evictStudent(Long id) {
+        userDetailsCache.asMap().values().removeIf(details -> details.isStudent() && details.getId().equals(id));
+    }
+
+    // Publishes hit/miss/eviction metrics of the cache as 'cache.*{cache="userDetails"}'
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, userDetailsCache, "userDetails");
+    }
+
+    // Loads a user or student by ID, bypassing the cache
+    public CustomUserDetails loadPrincipal(PrincipalType type, Long id) throws UsernameNotFoundException {
+        return credentialRepository.findDetailsByPrincipal(type, id)
+                .filter(details -> details.getPassword() != null)
+                .map(CustomUserDetailsService::toUserDetails)
+                .orElseThrow(() -> new UsernameNotFoundException("The account no longer exists."));
+    }
+
+    // Loads a user or student by email with a single lookup in the credentials table
+    private CustomUserDetails findUserDetails(String email) throws UsernameNotFoundException {
+        return credentialRepository.findDetailsByEmail(email)
+                .filter(details -> details.getPassword() != null)
+                .map(CustomUserDetailsService::toUserDetails)
+                .orElseThrow(() -> new UsernameNotFoundException("The email has been updated. Log in again to get a new token."));
+    }
+
+    private static CustomUserDetails toUserDetails(CredentialDetailsDto credential) {
+        // Students get a hardcoded "STUDENT" role, users their assigned role
+        String role = credential.getPrincipalType() == PrincipalType.STUDENT ? "STUDENT" : credential.getRole().name();
+        return new CustomUserDetails(
+                credential.getPrincipalId(),
+                credential.getEmail(),
+                credential.getPassword(),
+                List.of(new SimpleGrantedAuthority("ROLE_" + role)),
+                credential.getCredentialVersion()
+        );
     }
 }
@@ -1,157 +1,328 @@
 package org.example.onlinegradebookapp.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.example.onlinegradebookapp.entity.Grade;
 import org.example.onlinegradebookapp.entity.KnowledgeTest;
-import org.example.onlinegradebookapp.entity.Student;
 import org.example.onlinegradebookapp.entity.UserRole.UserRole;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
 import org.example.onlinegradebookapp.exception.UnauthorizedException;
+import org.example.onlinegradebookapp.payload.request.GradeBatchEntryDto;
 import org.example.onlinegradebookapp.payload.request.GradeDto;
 import org.example.onlinegradebookapp.payload.request.GradeUpdateDto;
+import org.example.onlinegradebookapp.payload.response.CursorPage;
+import org.example.onlinegradebookapp.payload.response.GradeBatchErrorResponseDto;
+import org.example.onlinegradebookapp.payload.response.GradeBatchResponseDto;
+import org.example.onlinegradebookapp.payload.response.GradeResponseDto;
 import org.example.onlinegradebookapp.repository.GradeRepository;
 import org.example.onlinegradebookapp.repository.KnowledgeTestRepository;
 import org.example.onlinegradebookapp.repository.StudentRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class GradeService {
+    // Page size used when the client does not specify one
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    // Upper bound of grades returned in a single page
+    public static final int MAX_PAGE_SIZE = 500;
+
+    // Number of exported rows written before the output is flushed to the client
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+
+    // Upper bound of grades accepted in a single batch
+    public static final int MAX_BATCH_SIZE = 200;
+
+    // Checked one by one, in this order, so that a row reports its first invalid field
+    private static final List<String> BATCH_ENTRY_FIELDS = List.of("studentId", "grade");
+
     private final GradeRepository gradeRepository;
     private final StudentRepository studentRepository;
     private final KnowledgeTestRepository knowledgeTestRepository;
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     public GradeService(GradeRepository gradeRepository,
                         StudentRepository studentRepository,
-                        KnowledgeTestRepository knowledgeTestRepository, UserService userService) {
+                        KnowledgeTestRepository knowledgeTestRepository, UserService userService,
+                        ObjectMapper objectMapper, Validator validator) {
         this.gradeRepository = gradeRepository;
         this.studentRepository = studentRepository;
         this.knowledgeTestRepository = knowledgeTestRepository;
         this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
-    // Finds all students' grades
-    public List<Grade> findAllGrades() {
-        return gradeRepository.findAll();
+    // Finds a page of students' grades after given cursor, optionally filtered by student, test and creation date range
+    public CursorPage<GradeResponseDto> findGrades(String cursor, Integer size, Long studentId, Long testId,
+                                                   LocalDate from, LocalDate to) throws BadRequestException {
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if(pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if(from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("Date 'from' must not be after date 'to'");
+        }
+
+        long afterId = CursorPage.decodeCursor(cursor);
+        Instant createdFrom = from != null ? from.atStartOfDay().toInstant(ZoneOffset.UTC) : null;
+        Instant createdTo = to != null ? to.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC) : null;
+
+        // Fetch one extra row to find out whether there is a next page
+        List<GradeResponseDto> grades = gradeRepository.findGradePage(
+                afterId, studentId, testId, createdFrom, createdTo, Limit.of(pageSize + 1));
+
+        if(grades.size() <= pageSize) {
+            return new CursorPage<>(grades, null);
+        }
+
+        List<GradeResponseDto> page = grades.subList(0, pageSize);
+        String nextCursor = CursorPage.encodeCursor(page.get(pageSize - 1).getId());
+        return new CursorPage<>(List.copyOf(page), nextCursor);
+    }
+
+    // Writes all grades to given stream as newline-delimited JSON and returns the number of exported grades.
+    // Rows are read as DTO projections through a database cursor, so nothing is kept in the persistence context
+    @Transactional(readOnly = true)
+    public long exportGrades(OutputStream out) throws IOException {
+        long count = 0;
+        try(Stream<GradeResponseDto> grades = gradeRepository.streamAllGrades();
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            Iterator<GradeResponseDto> iterator = grades.iterator();
+            while(iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+                count++;
+                if(count % EXPORT_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+            // Terminate the last record
+            if(count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return count;
     }
 
     // Finds a grade with given ID
-    public Grade findGradeById(Long id) {
+    public GradeResponseDto findGradeById(Long id) {
         return gradeRepository
-                .findById(id)
+                .findGradeDtoById(id)
                 .orElseThrow(() -> new BadRequestException("Grade with id=" + id + " not found"));
     }
 
-    // Add a new grade with request DTO
+    // Add a new grade with request DTO. The insert is a single statement that checks the student, the test and its
+    // author, and relies on the unique (student_id, test_id) constraint instead of a prior lookup
     public void addGrade(GradeDto dto) {
-        // Check if a student has already a grade for given test
-        if(gradeRepository.existsGradeByStudentId(dto.getStudentId()) &&
-        gradeRepository.existsGradeByTestId(dto.getTestId())) {
-            throw new BadRequestException("Student with id=" + dto.getStudentId() + " has already a grade for test with id=" + dto.getTestId());
+        requireStudentAndTest(dto);
+        Long teacherId = userService.hasRole(UserRole.ADMIN) ? null : userService.getCurrentUserId();
+
+        int inserted = gradeRepository.insertGrade(
+                dto.getStudentId(), dto.getTestId(), dto.getGrade(), dto.getDescription(), teacherId);
+        if(inserted == 0) {
+            throw rejectedGradeException(dto, teacherId);
         }
+    }
 
-        Grade grade = new Grade();
-        grade.setGrade(dto.getGrade());
+    // Create a grade or replace the existing grade of the student for the test in one round trip
+    public void saveGrade(GradeDto dto) {
+        requireStudentAndTest(dto);
+        Long teacherId = userService.hasRole(UserRole.ADMIN) ? null : userService.getCurrentUserId();
 
-        // If description is provided then add it to entity
-        if(dto.getDescription() != null) {
-            grade.setDescription(dto.getDescription());
+        int saved = gradeRepository.upsertGrade(
+                dto.getStudentId(), dto.getTestId(), dto.getGrade(), dto.getDescription(), teacherId);
+        if(saved == 0) {
+            throw rejectedGradeException(dto, teacherId);
         }
+    }
 
-        // If student exists, then add it to entity; otherwise throw error 400
-        Student student = studentRepository
-                .findById(dto.getStudentId())
-                .orElseThrow(() -> new BadRequestException("Student with id=" + dto.getStudentId() + " not found"));
-        grade.setStudent(student);
+    private void requireStudentAndTest(GradeDto dto) {
+        if(dto.getStudentId() == null) {
+            throw new BadRequestException("Student ID cannot be empty");
+        }
+        if(dto.getTestId() == null) {
+            throw new BadRequestException("Test ID cannot be empty");
+        }
+    }
+
+    // Find out why a grade was not saved; only runs on the error path
+    private RuntimeException rejectedGradeException(GradeDto dto, Long teacherId) {
+        if(!studentRepository.existsById(dto.getStudentId())) {
+            return new BadRequestException("Student with id=" + dto.getStudentId() + " not found");
+        }
+        Optional<KnowledgeTest> test = knowledgeTestRepository.findById(dto.getTestId());
+        if(test.isEmpty()) {
+            return new BadRequestException("Test with id=" + dto.getTestId() + " not found");
+        }
+        if(teacherId != null && !test.get().getTeacher().getId().equals(teacherId)) {
+            return new UnauthorizedException("You are not authorized to add grade to test that you did not create");
+        }
+        return new BadRequestException("Student with id=" + dto.getStudentId() + " has already a grade for test with id=" + dto.getTestId());
+    }
+
+    // Add grades for many students of the knowledge test with given ID at once.
+    // Rows that fail validation are reported back, the remaining ones are inserted with a single statement
+    @Transactional
+    public GradeBatchResponseDto addGradesBatch(Long testId, List<GradeBatchEntryDto> entries) {
+        if(entries == null || entries.isEmpty()) {
+            throw new BadRequestException("Grade list cannot be empty");
+        }
+        if(entries.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Cannot add more than " + MAX_BATCH_SIZE + " grades at once");
+        }
 
-        // If test exists, then add it to entity; otherwise throw error 400
         KnowledgeTest test = knowledgeTestRepository
-                .findById(dto.getTestId())
-                .orElseThrow(() -> new BadRequestException("Test with id=" + dto.getTestId() + " not found"));
+                .findById(testId)
+                .orElseThrow(() -> new ResourceNotFoundException("Knowledge test with id=" + testId + " not found"));
 
-        // Get current user ID
+        // Only ADMIN or user who created a test can add grades to it
         Long currentUserId = userService.getCurrentUserId();
-
-        // Check if current user has ADMIN role
         boolean isAdmin = userService.hasRole(UserRole.ADMIN);
-
-        if(test.getTeacher().getId().equals(currentUserId) || isAdmin) {
-            grade.setTest(test);
-        } else {
+        if(!test.getTeacher().getId().equals(currentUserId) && !isAdmin) {
             throw new UnauthorizedException("You are not authorized to add grade to test that you did not create");
         }
 
-        gradeRepository.save(grade);
-    }
-
-    // Update attributes of grade with given ID
-    public void updateGradeAttributes(GradeUpdateDto dto, Long id) throws ResourceNotFoundException {
-        // Find a grade if exists in database
-        Optional<Grade> optionalGrade = gradeRepository.findById(id);
-
-        // Checks if grade exists
-        if(optionalGrade.isPresent()) {
-            Grade grade = optionalGrade.get();
+        Set<Long> studentIds = new HashSet<>();
+        for(GradeBatchEntryDto entry : entries) {
+            if(entry != null && entry.getStudentId() != null) {
+                studentIds.add(entry.getStudentId());
+            }
+        }
 
-            // Get current user ID
-            Long currentUserId = userService.getCurrentUserId();
+        // Look up class membership and existing grades of all students in two queries
+        Set<Long> classMembers = studentIds.isEmpty()
+                ? Set.of()
+                : studentRepository.findIdsInClass(test.getSchoolClass().getId(), studentIds);
+        Set<Long> gradedStudents = classMembers.isEmpty()
+                ? Set.of()
+                : gradeRepository.findGradedStudentIds(testId, classMembers);
 
-            // Check if current user has ADMIN role
-            boolean isAdmin = userService.hasRole(UserRole.ADMIN);
+        List<GradeBatchEntryDto> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<GradeBatchErrorResponseDto> errors = new ArrayList<>();
+        Set<Long> seenStudents = new HashSet<>();
+        for(int i = 0; i < entries.size(); i++) {
+            GradeBatchEntryDto entry = entries.get(i);
+            String error = validateBatchEntry(entry, testId, classMembers, gradedStudents, seenStudents);
+            if(error != null) {
+                errors.add(new GradeBatchErrorResponseDto(i, entry != null ? entry.getStudentId() : null, error));
+            } else {
+                accepted.add(entry);
+                acceptedIndexes.add(i);
+            }
+        }
 
-            // Only ADMIN or user who created a test can update the grade assigned to it
-            if(grade.getTest().getTeacher().getId().equals(currentUserId) || isAdmin) {
-                // Check if 'grade' is given
-                if(dto.getGrade() != null) {
-                    grade.setGrade(dto.getGrade());
-                }
-                // Check if 'description' is given
-                if(dto.getDescription() != null) {
-                    grade.setDescription(dto.getDescription());
-                }
-                // Check if 'studentId' is given
-                if(dto.getStudentId() != null) {
-                    Student updatedStudent = studentRepository
-                            .findById(dto.getStudentId())
-                            .orElseThrow(() -> new BadRequestException("Student with id=" + dto.getStudentId() + " not found"));
-                    grade.setStudent(updatedStudent);
-                }
-                // Check if 'testId' is given
-                if(dto.getTestId() != null) {
-                    KnowledgeTest updatedTest = knowledgeTestRepository
-                            .findById(dto.getTestId())
-                            .orElseThrow(() -> new BadRequestException("Knowledge test with id=" + dto.getTestId() + " not found"));
-                    grade.setTest(updatedTest);
-                }
-                gradeRepository.save(grade);
+        // Rows that lost a race with a concurrent insert are skipped by the database and reported here
+        int[] inserted = gradeRepository.insertGrades(testId, accepted);
+        int created = 0;
+        for(int i = 0; i < inserted.length; i++) {
+            if(inserted[i] > 0) {
+                created++;
             } else {
-                throw new UnauthorizedException("You are not authorized update the grade assigned to test that you did not create");
+                GradeBatchEntryDto entry = accepted.get(i);
+                errors.add(new GradeBatchErrorResponseDto(acceptedIndexes.get(i), entry.getStudentId(),
+                        "Student with id=" + entry.getStudentId() + " has already a grade for test with id=" + testId));
             }
-        } else {
-            throw new ResourceNotFoundException("Grade with id=" + id + " not found");
         }
+        errors.sort(Comparator.comparingInt(GradeBatchErrorResponseDto::getIndex));
+        return new GradeBatchResponseDto(created, errors);
     }
 
-    // Delete a grade with given ID
-    public void deleteGrade(Long id) {
-        // Check if test exists with given ID
-        Grade grade = gradeRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Grade with id=" + id + " not found"));
+    // Returns the reason why given batch row cannot be inserted, or null if it is valid. Field constraints come
+    // from GradeBatchEntryDto; they are checked here, row by row, so that one bad row does not reject the batch
+    private String validateBatchEntry(GradeBatchEntryDto entry, Long testId, Set<Long> classMembers,
+                                      Set<Long> gradedStudents, Set<Long> seenStudents) {
+        if(entry == null) {
+            return "Student ID cannot be empty";
+        }
+        for(String field : BATCH_ENTRY_FIELDS) {
+            Set<ConstraintViolation<GradeBatchEntryDto>> violations = validator.validateProperty(entry, field);
+            if(!violations.isEmpty()) {
+                return violations.iterator().next().getMessage();
+            }
+        }
+        Long studentId = entry.getStudentId();
+        if(!classMembers.contains(studentId)) {
+            return "Student with id=" + studentId + " not found in the class of test with id=" + testId;
+        }
+        if(gradedStudents.contains(studentId)) {
+            return "Student with id=" + studentId + " has already a grade for test with id=" + testId;
+        }
+        if(!seenStudents.add(studentId)) {
+            return "Student with id=" + studentId + " appears more than once in the batch";
+        }
+        return null;
+    }
 
-        // Get current user ID
-        Long currentUserId = userService.getCurrentUserId();
+    // Update attributes of grade with given ID. The ownership check and the update are a single statement;
+    // only when nothing was updated the grade is looked up to tell 'not found' from 'not authorized'
+    public void updateGradeAttributes(GradeUpdateDto dto, Long id) throws ResourceNotFoundException {
+        // Check if the new student and test exist, only when they are changed
+        if(dto.getStudentId() != null && !studentRepository.existsById(dto.getStudentId())) {
+            throw new BadRequestException("Student with id=" + dto.getStudentId() + " not found");
+        }
+        if(dto.getTestId() != null && !knowledgeTestRepository.existsById(dto.getTestId())) {
+            throw new BadRequestException("Knowledge test with id=" + dto.getTestId() + " not found");
+        }
 
-        // Check if user has ADMIN role
-        boolean isAdmin = userService.hasRole(UserRole.ADMIN);
+        // Only ADMIN or user who created a test can update the grade assigned to it
+        Long teacherId = userService.hasRole(UserRole.ADMIN) ? null : userService.getCurrentUserId();
+        int updated;
+        try {
+            updated = gradeRepository.updateGrade(id, dto.getGrade(), dto.getDescription(),
+                    dto.getStudentId(), dto.getTestId(), teacherId);
+        } catch(DuplicateKeyException e) {
+            // The new student and test pair has already a grade; the pair is completed from the stored grade
+            Grade grade = gradeRepository.findById(id).orElseThrow(() -> e);
+            Long studentId = dto.getStudentId() != null ? dto.getStudentId() : grade.getStudent().getId();
+            Long testId = dto.getTestId() != null ? dto.getTestId() : grade.getTest().getId();
+            throw new BadRequestException("Student with id=" + studentId + " has already a grade for test with id=" + testId);
+        }
+        if(updated == 0) {
+            throw gradeNotChangedException(id, "You are not authorized update the grade assigned to test that you did not create");
+        }
+    }
 
+    // Delete a grade with given ID in a single statement that also checks the author of its test
+    public void deleteGrade(Long id) {
         // Only ADMIN or user who created grade can delete it
-        if(!grade.getTest().getTeacher().getId().equals(currentUserId) && !isAdmin) {
-            throw new UnauthorizedException("You are not authorized to delete this knowledge test");
+        Long teacherId = userService.hasRole(UserRole.ADMIN) ? null : userService.getCurrentUserId();
+        if(gradeRepository.deleteGrade(id, teacherId) == 0) {
+            throw gradeNotChangedException(id, "You are not authorized to delete this knowledge test");
         }
+    }
 
-        gradeRepository.deleteById(id);
+    // Find out why a grade was not changed; only runs on the error path
+    private RuntimeException gradeNotChangedException(Long id, String unauthorizedMessage) {
+        if(!gradeRepository.existsById(id)) {
+            return new ResourceNotFoundException("Grade with id=" + id + " not found");
+        }
+        return new UnauthorizedException(unauthorizedMessage);
     }
 }
@@ -0,0 +1,86 @@
+package org.example.onlinegradebookapp.service;
+
+import org.example.onlinegradebookapp.config.GradeWeightProperties;
+import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
+import org.example.onlinegradebookapp.payload.response.GradeCategorySumDto;
+import org.example.onlinegradebookapp.payload.response.GradeStatsResponseDto;
+import org.example.onlinegradebookapp.payload.response.WeightedAverageResponseDto;
+import org.example.onlinegradebookapp.repository.GradeRepository;
+import org.example.onlinegradebookapp.repository.KnowledgeTestRepository;
+import org.example.onlinegradebookapp.repository.SchoolClassRepository;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class GradeStatisticsService {
+    private final GradeRepository gradeRepository;
+    private final SchoolClassRepository schoolClassRepository;
+    private final KnowledgeTestRepository knowledgeTestRepository;
+    private final GradeWeightProperties gradeWeightProperties;
+
+    public GradeStatisticsService(GradeRepository gradeRepository, SchoolClassRepository schoolClassRepository,
+                                  KnowledgeTestRepository knowledgeTestRepository,
+                                  GradeWeightProperties gradeWeightProperties) {
+        this.gradeRepository = gradeRepository;
+        this.schoolClassRepository = schoolClassRepository;
+        this.knowledgeTestRepository = knowledgeTestRepository;
+        this.gradeWeightProperties = gradeWeightProperties;
+    }
+
+    // Finds statistics of grades for the knowledge test with given ID, computed by the database
+    public GradeStatsResponseDto findTestStats(Long testId) {
+        GradeStatsResponseDto stats = gradeRepository.findTestStats(testId);
+        if(stats.getCount() == 0 && !knowledgeTestRepository.existsById(testId)) {
+            throw new ResourceNotFoundException("Knowledge test with id=" + testId + " not found");
+        }
+        return stats;
+    }
+
+    // Finds statistics of grades for all knowledge tests of the class with given ID, computed by the database
+    public GradeStatsResponseDto findClassStats(Long classId) {
+        GradeStatsResponseDto stats = gradeRepository.findClassStats(classId);
+        if(stats.getCount() == 0 && !schoolClassRepository.existsById(classId)) {
+            throw new ResourceNotFoundException("School class with id=" + classId + " not found");
+        }
+        return stats;
+    }
+
+    // Finds weighted averages of every student of the class with given ID in every subject.
+    // The database sums grades per student, subject and test category; the weights are applied in one pass
+    // over these sums, which are ordered by student and subject
+    public List<WeightedAverageResponseDto> findWeightedAverages(Long classId) {
+        List<GradeCategorySumDto> sums = gradeRepository.sumGradesByCategory(classId);
+        if(sums.isEmpty() && !schoolClassRepository.existsById(classId)) {
+            throw new ResourceNotFoundException("School class with id=" + classId + " not found");
+        }
+
+        List<WeightedAverageResponseDto> averages = new ArrayList<>();
+        int i = 0;
+        while(i < sums.size()) {
+            Long studentId = sums.get(i).getStudentId();
+            Long subjectId = sums.get(i).getSubjectId();
+            double weightedSum = 0;
+            double weightTotal = 0;
+            long gradeCount = 0;
+
+            for(; i < sums.size() && sums.get(i).getStudentId().equals(studentId)
+                    && sums.get(i).getSubjectId().equals(subjectId); i++) {
+                GradeCategorySumDto sum = sums.get(i);
+                double weight = gradeWeightProperties.weightOf(sum.getCategory());
+                weightedSum += weight * sum.getGradeSum().doubleValue();
+                weightTotal += weight * sum.getGradeCount();
+                gradeCount += sum.getGradeCount();
+            }
+
+            BigDecimal average = weightTotal > 0
+                    ? BigDecimal.valueOf(weightedSum / weightTotal).setScale(2, RoundingMode.HALF_UP)
+                    : null;
+            averages.add(new WeightedAverageResponseDto(studentId, subjectId, average, gradeCount));
+        }
+        return averages;
+    }
+}
@@ -10,6 +10,8 @@ import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
 import org.example.onlinegradebookapp.exception.UnauthorizedException;
 import org.example.onlinegradebookapp.payload.request.KnowledgeTestDto;
 import org.example.onlinegradebookapp.payload.request.KnowledgeTestUpdateDto;
+import org.example.onlinegradebookapp.payload.response.GradeSheetEntryResponseDto;
+import org.example.onlinegradebookapp.payload.response.KnowledgeTestResponseDto;
 import org.example.onlinegradebookapp.repository.KnowledgeTestRepository;
 import org.example.onlinegradebookapp.repository.SchoolClassRepository;
 import org.example.onlinegradebookapp.repository.SubjectRepository;
@@ -17,7 +19,6 @@ import org.example.onlinegradebookapp.repository.UserRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Optional;
 
 @Service
 public class KnowledgeTestService {
@@ -39,17 +40,28 @@ public class KnowledgeTestService {
     }
 
     // Find all knowledge tests
-    public List<KnowledgeTest> findAllKnowledgeTests() {
-        return knowledgeTestRepository.findAll();
+    public List<KnowledgeTestResponseDto> findAllKnowledgeTests() {
+        return knowledgeTestRepository.findAllKnowledgeTestDtos();
     }
 
     // Find knowledge test with given ID
-    public KnowledgeTest findKnowledgeTestById(Long id) {
+    public KnowledgeTestResponseDto findKnowledgeTestById(Long id) {
         return knowledgeTestRepository
-                .findById(id)
+                .findKnowledgeTestDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Knowledge test with id = "+id+" not found"));
     }
 
+    // Find grade sheet of knowledge test with given ID: every student of the tested class with their grade or null
+    public List<GradeSheetEntryResponseDto> findGradeSheet(Long id) throws ResourceNotFoundException {
+        List<GradeSheetEntryResponseDto> sheet = knowledgeTestRepository.findGradeSheet(id);
+
+        // Empty sheet may also mean that the test does not exist
+        if(sheet.isEmpty() && !knowledgeTestRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Knowledge test with id = "+id+" not found");
+        }
+        return sheet;
+    }
+
     // Add new knowledge test with request DTO
     public void addKnowledgeTest(KnowledgeTestDto dto) {
         if(knowledgeTestRepository.existsByName(dto.getName())) {
@@ -85,75 +97,40 @@ public class KnowledgeTestService {
         knowledgeTestRepository.save(knowledgeTest);
     }
 
-    // Update attributes of knowledge test with given ID
+    // Update attributes of knowledge test with given ID. The ownership check and the update are a single
+    // statement; only when nothing was updated the test is looked up to tell 'not found' from 'not authorized'
     public void updateKnowledgeTestAttributes(KnowledgeTestUpdateDto dto, Long id) throws ResourceNotFoundException {
-        // Find a knowledge test if exists in database
-        Optional<KnowledgeTest> optionalTest = knowledgeTestRepository.findById(id);
-
-        // If the knowledge test exists, update it
-        if(optionalTest.isPresent()) {
-            KnowledgeTest test = optionalTest.get();
-
-            // Get current user ID
-            Long currentUserId = userService.getCurrentUserId();
-
-            // Check if current user has ADMIN role
-            boolean isAdmin = userService.hasRole(UserRole.ADMIN);
-
-            // Only ADMIN or user who created a test can update it
-            if(test.getTeacher().getId().equals(currentUserId) || isAdmin) {
-                // Check if 'name' is given
-                if(dto.getName() != null) {
-                    test.setName(dto.getName());
-                }
-                // Check if 'category' is given
-                if(dto.getCategory() != null) {
-                    test.setCategoryName(dto.getCategory());
-                }
-                // Check if 'testDate' is given
-                if(dto.getTestDate() != null) {
-                    test.setTestDate(dto.getTestDate());
-                }
-                // Check if 'classId' is given
-                if(dto.getClassId() != null) {
-                    SchoolClass updatedClass = classRepository
-                            .findById(dto.getClassId())
-                            .orElseThrow(() -> new BadRequestException("School class with id=" + dto.getClassId() + " not found"));
-                    test.setSchoolClass(updatedClass);
-                }
-                // Check if 'subjectId' is given
-                if(dto.getSubjectId() != null) {
-                    Subject updatedSubject = subjectRepository
-                            .findById(dto.getSubjectId())
-                            .orElseThrow(() -> new BadRequestException("Subject with id=" + dto.getSubjectId() + " not found"));
-                    test.setSubject(updatedSubject);
-                }
-                knowledgeTestRepository.save(test);
-            } else {
-                throw new UnauthorizedException("You are not authorized to update knowledge test that you did not create");
-            }
-        } else {
-            throw new ResourceNotFoundException("Knowledge test with id=" + id + " not found");
+        // Check if the new class and subject exist, only when they are changed
+        if(dto.getClassId() != null && !classRepository.existsById(dto.getClassId())) {
+            throw new BadRequestException("School class with id=" + dto.getClassId() + " not found");
+        }
+        if(dto.getSubjectId() != null && !subjectRepository.existsById(dto.getSubjectId())) {
+            throw new BadRequestException("Subject with id=" + dto.getSubjectId() + " not found");
+        }
+
+        // Only ADMIN or user who created a test can update it
+        Long teacherId = userService.hasRole(UserRole.ADMIN) ? null : userService.getCurrentUserId();
+        int updated = knowledgeTestRepository.updateKnowledgeTest(id, dto.getName(), dto.getCategory(),
+                dto.getTestDate(), dto.getClassId(), dto.getSubjectId(), teacherId);
+        if(updated == 0) {
+            throw testNotChangedException(id, "You are not authorized to update knowledge test that you did not create");
         }
     }
 
-    // Delete a knowledge test with given ID
+    // Delete a knowledge test with given ID and its grades in a single statement that also checks the author
     public void deleteKnowledgeTest(Long id) {
-        // Check if test exists with given ID
-        KnowledgeTest test = knowledgeTestRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Knowledge test with id=" + id + " not found"));
-
-        // Get current user ID
-        Long currentUserId = userService.getCurrentUserId();
-
-        // Check if user has ADMIN role
-        boolean isAdmin = userService.hasRole(UserRole.ADMIN);
-
         // Only ADMIN or user who created test can delete it
-        if(!test.getTeacher().getId().equals(currentUserId) && !isAdmin) {
-            throw new UnauthorizedException("You are not authorized to delete this knowledge test");
+        Long teacherId = userService.hasRole(UserRole.ADMIN) ? null : userService.getCurrentUserId();
+        if(knowledgeTestRepository.deleteKnowledgeTest(id, teacherId) == 0) {
+            throw testNotChangedException(id, "You are not authorized to delete this knowledge test");
         }
+    }
 
-        knowledgeTestRepository.deleteById(id);
+    // Find out why a knowledge test was not changed; only runs on the error path
+    private RuntimeException testNotChangedException(Long id, String unauthorizedMessage) {
+        if(!knowledgeTestRepository.existsById(id)) {
+            return new ResourceNotFoundException("Knowledge test with id=" + id + " not found");
+        }
+        return new UnauthorizedException(unauthorizedMessage);
     }
 }
@@ -0,0 +1,122 @@
+package org.example.onlinegradebookapp.service;
+
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
+import org.example.onlinegradebookapp.entity.RefreshToken;
+import org.example.onlinegradebookapp.exception.UnauthorizedException;
+import org.example.onlinegradebookapp.payload.response.AuthTokensResponseDto;
+import org.example.onlinegradebookapp.repository.RefreshTokenRepository;
+import org.example.onlinegradebookapp.security.CustomUserDetails;
+import org.example.onlinegradebookapp.security.JwtService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+// Issues access tokens together with long-lived refresh tokens and exchanges refresh tokens for new ones,
+// so clients stay logged in without sending the password (and paying for BCrypt) every few minutes
+@Service
+public class RefreshTokenService {
+    private static final Duration REFRESH_TOKEN_TTL = Duration.ofDays(14);
+    private static final int REFRESH_TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final JwtService jwtService;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, CustomUserDetailsService userDetailsService,
+                               JwtService jwtService) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userDetailsService = userDetailsService;
+        this.jwtService = jwtService;
+    }
+
+    // Issue an access token and the first refresh token of a new family for a logged-in user/student
+    @Transactional
+    public AuthTokensResponseDto issueTokens(CustomUserDetails principal) {
+        PrincipalType type = principalType(principal);
+        refreshTokenRepository.deleteExpired(type, principal.getId(), Instant.now());
+        String refreshToken = createRefreshToken(principal, UUID.randomUUID().toString());
+        return new AuthTokensResponseDto(principal.getUsername(), jwtService.generateToken(principal), refreshToken);
+    }
+
+    // Exchange a refresh token for a new access token and refresh token. A token can be used only once;
+    // presenting an already used token revokes every token of its family
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public AuthTokensResponseDto refresh(String refreshToken) throws UnauthorizedException {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+
+        if(stored.isRevoked() || stored.getExpiresAt().isBefore(Instant.now())) {
+            throw new UnauthorizedException("Refresh token has expired or has been revoked. Log in again.");
+        }
+        // Conditional update, so two concurrent requests with the same token can't both succeed
+        if(stored.getUsedAt() != null || refreshTokenRepository.markUsed(stored.getId(), Instant.now()) == 0) {
+            refreshTokenRepository.revokeFamily(stored.getFamilyId());
+            throw new UnauthorizedException("Refresh token has already been used. Log in again.");
+        }
+
+        CustomUserDetails principal;
+        try {
+            principal = userDetailsService.loadPrincipal(stored.getPrincipalType(), stored.getPrincipalId());
+        } catch(UsernameNotFoundException ex) {
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        // Changed email, password or role invalidate refresh tokens issued before
+        if(principal.getCredentialVersion() != stored.getCredentialVersion()) {
+            refreshTokenRepository.revokeFamily(stored.getFamilyId());
+            throw new UnauthorizedException("The credentials have been updated. Log in again.");
+        }
+
+        String newRefreshToken = createRefreshToken(principal, stored.getFamilyId());
+        return new AuthTokensResponseDto(principal.getUsername(), jwtService.generateToken(principal), newRefreshToken);
+    }
+
+    // Revoke every token of the family of given refresh token, e.g. on logout
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .ifPresent(stored -> refreshTokenRepository.revokeFamily(stored.getFamilyId()));
+    }
+
+    // Generate a random refresh token and store its hash
+    private String createRefreshToken(CustomUserDetails principal, String familyId) {
+        byte[] bytes = new byte[REFRESH_TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setPrincipalType(principalType(principal));
+        refreshToken.setPrincipalId(principal.getId());
+        refreshToken.setCredentialVersion(principal.getCredentialVersion());
+        refreshToken.setExpiresAt(Instant.now().plus(REFRESH_TOKEN_TTL));
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    private static PrincipalType principalType(CustomUserDetails principal) {
+        return principal.isStudent() ? PrincipalType.STUDENT : PrincipalType.USER;
+    }
+
+    // Refresh tokens are random with 256 bits of entropy, so a fast hash is enough (unlike passwords)
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch(NoSuchAlgorithmException ex) {
+            // Every JVM has to provide SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import org.example.onlinegradebookapp.entity.SchoolClass;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
 import org.example.onlinegradebookapp.payload.request.SchoolClassDto;
+import org.example.onlinegradebookapp.payload.response.SchoolClassResponseDto;
 import org.example.onlinegradebookapp.repository.SchoolClassRepository;
 import org.springframework.stereotype.Service;
 
@@ -19,14 +20,14 @@ public class SchoolClassService {
     }
 
     // Finds all school classes
-    public List<SchoolClass> findAllSchoolClasses() {
-        return schoolClassRepository.findAll();
+    public List<SchoolClassResponseDto> findAllSchoolClasses() {
+        return schoolClassRepository.findAllSchoolClassDtos();
     }
 
     // Finds a school class with given ID
-    public SchoolClass findSchoolClassById(Long id) {
+    public SchoolClassResponseDto findSchoolClassById(Long id) {
         return schoolClassRepository
-                .findById(id)
+                .findSchoolClassDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("School class with id = "+id+" not found"));
     }
 
@@ -1,17 +1,28 @@
 package org.example.onlinegradebookapp.service;
 
+import org.example.onlinegradebookapp.entity.Credential;
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
 import org.example.onlinegradebookapp.entity.SchoolClass;
 import org.example.onlinegradebookapp.entity.Student;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
 import org.example.onlinegradebookapp.payload.request.StudentRegistrationDto;
 import org.example.onlinegradebookapp.payload.request.StudentUpdateDto;
+import org.example.onlinegradebookapp.payload.response.StudentGradeResponseDto;
+import org.example.onlinegradebookapp.payload.response.StudentResponseDto;
+import org.example.onlinegradebookapp.payload.response.SubjectGradesResponseDto;
+import org.example.onlinegradebookapp.repository.CredentialRepository;
+import org.example.onlinegradebookapp.repository.GradeRepository;
 import org.example.onlinegradebookapp.repository.SchoolClassRepository;
 import org.example.onlinegradebookapp.repository.StudentRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -19,17 +30,28 @@ public class StudentService {
     private final StudentRepository studentRepository;
     private final PasswordEncoder passwordEncoder;
     private final SchoolClassRepository classRepository;
+    private final GradeRepository gradeRepository;
+    private final CredentialVersionService credentialVersionService;
+    private final CustomUserDetailsService userDetailsService;
+    private final CredentialRepository credentialRepository;
 
-    public StudentService(StudentRepository studentRepository, PasswordEncoder passwordEncoder, SchoolClassRepository classRepository) {
+    public StudentService(StudentRepository studentRepository, PasswordEncoder passwordEncoder, SchoolClassRepository classRepository,
+                          GradeRepository gradeRepository, CredentialVersionService credentialVersionService,
+                          CustomUserDetailsService userDetailsService, CredentialRepository credentialRepository) {
         this.studentRepository = studentRepository;
         this.passwordEncoder = passwordEncoder;
         this.classRepository = classRepository;
+        this.gradeRepository = gradeRepository;
+        this.credentialVersionService = credentialVersionService;
+        this.userDetailsService = userDetailsService;
+        this.credentialRepository = credentialRepository;
     }
 
     // Registers a new student using data from the registration DTO
+    @Transactional
     public void register(StudentRegistrationDto dto) {
-        // Check if student with given email already exists
-        if(studentRepository.existsByEmail(dto.getEmail())) {
+        // Check if user or student with given email already exists
+        if(credentialRepository.existsByEmail(dto.getEmail())) {
             throw new BadRequestException("Email '"+dto.getEmail()+"' already exists");
         }
 
@@ -46,24 +68,46 @@ public class StudentService {
         }
 
         studentRepository.save(student);
+        credentialRepository.save(new Credential(student.getEmail(), PrincipalType.STUDENT, student.getId()));
     }
 
     // Finds all students
-    public List<Student> findAllStudents() {
-        return studentRepository.findAll();
+    public List<StudentResponseDto> findAllStudents() {
+        return studentRepository.findAllStudentDtos();
     }
 
     // Finds a student with given ID
-    public Student findStudentById(long id) {
+    public StudentResponseDto findStudentById(long id) {
         return studentRepository
-                .findById(id)
+                .findStudentDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Student with id "+id+" not found"));
     }
 
+    // Finds grades of a student with given ID grouped by subject
+    public List<SubjectGradesResponseDto> findStudentGrades(Long id) throws ResourceNotFoundException {
+        List<StudentGradeResponseDto> grades = gradeRepository.findStudentGrades(id);
+
+        // No grades may also mean that the student does not exist
+        if(grades.isEmpty() && !studentRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Student with id "+id+" not found");
+        }
+
+        // Rows are ordered by subject, so grouping keeps subjects and grades in query order
+        Map<Long, SubjectGradesResponseDto> subjects = new LinkedHashMap<>();
+        for(StudentGradeResponseDto grade : grades) {
+            subjects.computeIfAbsent(grade.getSubjectId(),
+                    subjectId -> new SubjectGradesResponseDto(subjectId, grade.getSubjectName(), new ArrayList<>()))
+                    .getGrades()
+                    .add(grade);
+        }
+        return new ArrayList<>(subjects.values());
+    }
+
     // Update attributes of student with given ID
+    @Transactional
     public void updateStudentAttributes(StudentUpdateDto dto, Long id) throws ResourceNotFoundException {
-        // Check if student with given email already exists
-        if(studentRepository.existsByEmail(dto.getEmail())) {
+        // Check if user or student with given email already exists
+        if(credentialRepository.existsByEmail(dto.getEmail())) {
             throw new BadRequestException("Email '"+dto.getEmail()+"' already exists");
         }
 
@@ -97,18 +141,40 @@ public class StudentService {
                         .orElseThrow(() -> new BadRequestException("School class with id=" + dto.getClassId() + " not found"));
                 student.setSchoolClass(updatedClass);
             }
+            // Invalidate issued tokens if login credentials have changed
+            boolean credentialsChanged = dto.getPassword() != null || dto.getEmail() != null;
+            if(credentialsChanged) {
+                student.setCredentialVersion(student.getCredentialVersion() + 1);
+            }
             studentRepository.save(student);
+            if(dto.getEmail() != null) {
+                credentialRepository.updateEmail(PrincipalType.STUDENT, id, dto.getEmail());
+            }
+            if(credentialsChanged) {
+                evictCredentialsAfterCommit(id);
+            }
         } else {
             throw new ResourceNotFoundException("Student with id=" + id + " not found");
         }
     }
 
     // Delete a student with given ID
+    @Transactional
     public void deleteStudent(Long id) {
         if(studentRepository.existsById(id)) {
             studentRepository.deleteById(id);
+            credentialRepository.deleteByPrincipal(PrincipalType.STUDENT, id);
+            evictCredentialsAfterCommit(id);
         } else {
             throw new ResourceNotFoundException("Student with id=" + id + " not found");
         }
     }
+
+    // Forget cached credentials of the student once the change is committed
+    private void evictCredentialsAfterCommit(Long id) {
+        AfterCommit.run(() -> {
+            credentialVersionService.evictStudent(id);
+            userDetailsService.evictStudent(id);
+        });
+    }
 }
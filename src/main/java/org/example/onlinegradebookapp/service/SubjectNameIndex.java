@@ -0,0 +1,50 @@
+package org.example.onlinegradebookapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.onlinegradebookapp.entity.Subject;
+import org.example.onlinegradebookapp.repository.SubjectRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Keeps IDs of subjects by name in memory, so subjects given by name can be resolved without a query per name.
+// Names missing from the index are loaded together in one query. Entries are evicted when a subject changes;
+// the TTL bounds staleness when another application instance made the change
+@Service
+public class SubjectNameIndex {
+    private static final int CACHE_SIZE = 10_000;
+    private static final Duration CACHE_TTL = Duration.ofMinutes(5);
+
+    private final SubjectRepository subjectRepository;
+    private final Cache<String, Long> idsByName = Caffeine.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .expireAfterWrite(CACHE_TTL)
+            .build();
+
+    public SubjectNameIndex(SubjectRepository subjectRepository) {
+        this.subjectRepository = subjectRepository;
+    }
+
+    // Find IDs of subjects with given names; names of subjects which don't exist are left out of the result
+    public Map<String, Long> findIds(Collection<String> names) {
+        return idsByName.getAll(names, missing -> subjectRepository
+                .findByNameIn(List.copyOf(missing))
+                .stream()
+                .collect(Collectors.toMap(Subject::getName, Subject::getId)));
+    }
+
+    // Forget the subject with given ID, e.g. after it was renamed or deleted
+    public void evictSubject(Long id) {
+        idsByName.asMap().values().removeIf(id::equals);
+    }
+
+    // Forget subjects with given names, e.g. when an indexed subject turned out to be deleted
+    public void evictNames(Collection<String> names) {
+        idsByName.invalidateAll(names);
+    }
+}
@@ -4,6 +4,7 @@ import org.example.onlinegradebookapp.entity.Subject;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
 import org.example.onlinegradebookapp.payload.request.SubjectDto;
+import org.example.onlinegradebookapp.payload.response.SubjectResponseDto;
 import org.example.onlinegradebookapp.repository.SubjectRepository;
 import org.springframework.stereotype.Service;
 
@@ -13,20 +14,22 @@ import java.util.Optional;
 @Service
 public class SubjectService {
     private final SubjectRepository subjectRepository;
+    private final SubjectNameIndex subjectNameIndex;
 
-    public SubjectService(SubjectRepository subjectRepository) {
+    public SubjectService(SubjectRepository subjectRepository, SubjectNameIndex subjectNameIndex) {
         this.subjectRepository = subjectRepository;
+        this.subjectNameIndex = subjectNameIndex;
     }
 
     // Find all subjects
-    public List<Subject> findAllSubjects() {
-        return subjectRepository.findAll();
+    public List<SubjectResponseDto> findAllSubjects() {
+        return subjectRepository.findAllSubjectDtos();
     }
 
     // Find a subject with given ID
-    public Subject findSubjectById(Long id) {
+    public SubjectResponseDto findSubjectById(Long id) {
         return subjectRepository
-                .findById(id)
+                .findSubjectDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Subject with id = "+id+" not found"));
     }
 
@@ -54,6 +57,7 @@ public class SubjectService {
             subject.setCreatedAt(optionalSubject.get().getCreatedAt());
             subject.setName(dto.getName());
             subjectRepository.save(subject);
+            subjectNameIndex.evictSubject(id);
         } else {
             throw new ResourceNotFoundException("Subject with id=" + id + " not found");
         }
@@ -63,6 +67,7 @@ public class SubjectService {
     public void deleteSubject(Long id) {
         if(subjectRepository.existsById(id)) {
             subjectRepository.deleteById(id);
+            subjectNameIndex.evictSubject(id);
         } else {
             throw new ResourceNotFoundException("Subject with id=" + id + " not found");
         }
@@ -0,0 +1,122 @@
+package org.example.onlinegradebookapp.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
+import org.example.onlinegradebookapp.entity.RevokedToken;
+import org.example.onlinegradebookapp.entity.User;
+import org.example.onlinegradebookapp.exception.BadRequestException;
+import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
+import org.example.onlinegradebookapp.repository.RefreshTokenRepository;
+import org.example.onlinegradebookapp.repository.RevokedTokenRepository;
+import org.example.onlinegradebookapp.repository.UserRepository;
+import org.example.onlinegradebookapp.security.JwtService;
+import org.example.onlinegradebookapp.security.TokenDenylist;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Revokes access tokens by their ID (jti). Revoked IDs are stored in the database and mirrored in the in-memory
+// denylist checked by JwtAuthFilter; the denylist is reloaded periodically, which prunes expired IDs and picks
+// up revocations made by other application instances. All tokens of a user are revoked through the credential
+// version carried by access tokens and by revoking the user's refresh tokens
+@Service
+public class TokenRevocationService {
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TokenDenylist tokenDenylist;
+    private final JwtService jwtService;
+    private final UserRepository userRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final CredentialVersionService credentialVersionService;
+    private final CustomUserDetailsService userDetailsService;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository, TokenDenylist tokenDenylist,
+                                  JwtService jwtService, UserRepository userRepository,
+                                  RefreshTokenRepository refreshTokenRepository,
+                                  CredentialVersionService credentialVersionService,
+                                  CustomUserDetailsService userDetailsService) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.tokenDenylist = tokenDenylist;
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.credentialVersionService = credentialVersionService;
+        this.userDetailsService = userDetailsService;
+    }
+
+    // Revoke the token described by given verified claims
+    @Transactional
+    public void revoke(Claims claims) {
+        String jti = claims.getId();
+        // Tokens issued before token IDs were added can't be revoked individually
+        if(jti == null || claims.getExpiration() == null) {
+            throw new BadRequestException("Token can't be revoked, as it has no ID. It expires on its own in a few minutes.");
+        }
+        deny(jti, claims.getExpiration().toInstant());
+    }
+
+    // Revoke the token with given ID (e.g. on request of an admin who found it in a log). The expiration of the
+    // token is unknown, so the ID is kept for the whole lifetime of an access token
+    @Transactional
+    public void revokeById(String jti) {
+        deny(jti, Instant.now().plus(JwtService.ACCESS_TOKEN_TTL));
+    }
+
+    // Revoke all access and refresh tokens of the user with given ID, e.g. after a device was lost
+    @Transactional
+    public void revokeUserTokens(Long userId) throws ResourceNotFoundException {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User with id=" + userId + " not found"));
+        user.setCredentialVersion(user.getCredentialVersion() + 1);
+        userRepository.save(user);
+        refreshTokenRepository.revokeAll(PrincipalType.USER, userId);
+        // Evicted only after commit, so a concurrent request can't cache the old version again
+        AfterCommit.run(() -> {
+            credentialVersionService.evictUser(userId);
+            userDetailsService.evictUser(userId);
+        });
+    }
+
+    // Revoke given token (e.g. on request of an admin)
+    @Transactional
+    public void revoke(String token) {
+        Claims claims;
+        try {
+            claims = jwtService.verifyToken(token);
+        } catch(JwtException | IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid or expired token");
+        }
+        revoke(claims);
+    }
+
+    private void deny(String jti, Instant expiresAt) {
+        if(!revokedTokenRepository.existsById(jti)) {
+            revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+        }
+        tokenDenylist.add(jti, expiresAt);
+    }
+
+    // Load revoked tokens which haven't expired yet into the denylist
+    @PostConstruct
+    public void loadDenylist() {
+        Instant now = Instant.now();
+        Map<String, Instant> revoked = revokedTokenRepository.findByExpiresAtAfter(now)
+                .stream()
+                .collect(Collectors.toMap(RevokedToken::getJti, RevokedToken::getExpiresAt, (first, second) -> first));
+        tokenDenylist.replaceAll(revoked, now);
+    }
+
+    // Delete expired revocations and reload the denylist
+    @Scheduled(fixedDelayString = "${gradebook.token-revocation.sync-interval:PT1M}",
+            initialDelayString = "${gradebook.token-revocation.sync-interval:PT1M}")
+    @Transactional
+    public void pruneAndReload() {
+        revokedTokenRepository.deleteExpired(Instant.now());
+        loadDenylist();
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.onlinegradebookapp.service;
 
+import org.example.onlinegradebookapp.entity.Credential;
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
 import org.example.onlinegradebookapp.entity.SchoolClass;
 import org.example.onlinegradebookapp.entity.Subject;
 import org.example.onlinegradebookapp.entity.User;
@@ -9,37 +11,58 @@ import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
 import org.example.onlinegradebookapp.payload.request.SubjectDto;
 import org.example.onlinegradebookapp.payload.request.UserRegistrationDto;
 import org.example.onlinegradebookapp.payload.request.UserUpdateDto;
+import org.example.onlinegradebookapp.payload.response.UserResponseDto;
+import org.example.onlinegradebookapp.repository.CredentialRepository;
 import org.example.onlinegradebookapp.repository.SchoolClassRepository;
 import org.example.onlinegradebookapp.repository.SubjectRepository;
 import org.example.onlinegradebookapp.repository.UserRepository;
 import org.example.onlinegradebookapp.security.CustomUserDetails;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService {
+    // Foreign key of teachers_subjects.subject_id
+    private static final String SUBJECT_FOREIGN_KEY = "fk_teasub_on_subject";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final SchoolClassRepository classRepository;
     private final SubjectRepository subjectRepository;
+    private final CredentialVersionService credentialVersionService;
+    private final CustomUserDetailsService userDetailsService;
+    private final CredentialRepository credentialRepository;
+    private final SubjectNameIndex subjectNameIndex;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, SchoolClassRepository classRepository, SubjectRepository subjectRepository) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, SchoolClassRepository classRepository, SubjectRepository subjectRepository,
+                       CredentialVersionService credentialVersionService, CustomUserDetailsService userDetailsService,
+                       CredentialRepository credentialRepository, SubjectNameIndex subjectNameIndex) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.classRepository = classRepository;
         this.subjectRepository = subjectRepository;
+        this.credentialVersionService = credentialVersionService;
+        this.userDetailsService = userDetailsService;
+        this.credentialRepository = credentialRepository;
+        this.subjectNameIndex = subjectNameIndex;
     }
 
     // Registers a new user using data from the registration DTO
+    @Transactional
     public void register(UserRegistrationDto dto) {
-        // Check if user with given email already exists in DB
-        if(userRepository.existsByEmail(dto.getEmail())) {
+        // Check if user or student with given email already exists in DB
+        if(credentialRepository.existsByEmail(dto.getEmail())) {
             throw new BadRequestException("Email '" + dto.getEmail() + "' already exists");
         }
         // Check if ADMIN role can be assigned
@@ -71,24 +94,29 @@ public class UserService {
             user.setSubjects(subjects);
         }
         userRepository.save(user);
+        if(dto.getSubjects() != null) {
+            flushSubjectLinks(dto.getSubjects());
+        }
+        credentialRepository.save(new Credential(user.getEmail(), PrincipalType.USER, user.getId()));
     }
 
     // Finds all users
-    public List<User> findAllUsers() {
-        return userRepository.findAll();
+    public List<UserResponseDto> findAllUsers() {
+        return userRepository.findAllUserDtos();
     }
 
     // Find a user with given ID
-    public User findUserById(Long id) {
+    public UserResponseDto findUserById(Long id) {
         return userRepository
-                .findById(id)
+                .findUserDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User with id = " + id +" not found"));
     }
 
     // Update attributes of user with given ID
+    @Transactional
     public void updateUserAttributes(UserUpdateDto dto, Long id) throws ResourceNotFoundException {
-        // Check if user with given email already exists
-        if(userRepository.existsByEmail(dto.getEmail())) {
+        // Check if user or student with given email already exists
+        if(credentialRepository.existsByEmail(dto.getEmail())) {
             throw new BadRequestException("Email '"+dto.getEmail()+"' already exists");
         }
 
@@ -130,7 +158,7 @@ public class UserService {
             if(dto.getClassId() != null) {
                 // Check if class exists
                 SchoolClass updatedClass = classRepository
-                        .findById(dto.getClassId())
+                        .findWithTeacherById(dto.getClassId())
                         .orElseThrow(() -> new BadRequestException("School class with id=" + dto.getClassId() + " not found"));
 
                 // Detach old user if assigned
@@ -148,30 +176,89 @@ public class UserService {
                 List<Subject> updatedSubjects = findSubjectList(dto.getSubjects());
                 updatedUser.setSubjects(updatedSubjects);
             }
+            // Invalidate issued tokens if login credentials or role have changed
+            boolean credentialsChanged = dto.getPassword() != null || dto.getEmail() != null || dto.getRole() != null;
+            if(credentialsChanged) {
+                updatedUser.setCredentialVersion(updatedUser.getCredentialVersion() + 1);
+            }
             userRepository.save(updatedUser);
+            if(dto.getSubjects() != null) {
+                flushSubjectLinks(dto.getSubjects());
+            }
+            if(dto.getEmail() != null) {
+                credentialRepository.updateEmail(PrincipalType.USER, id, dto.getEmail());
+            }
+            if(credentialsChanged) {
+                evictCredentialsAfterCommit(id);
+            }
         } else {
             throw new ResourceNotFoundException("User with id=" + id + " not found");
         }
     }
 
     // Delete a user with given ID
+    @Transactional
     public void deleteUser(Long id) {
         if(userRepository.existsById(id)) {
             userRepository.deleteById(id);
+            credentialRepository.deleteByPrincipal(PrincipalType.USER, id);
+            evictCredentialsAfterCommit(id);
         } else {
             throw new ResourceNotFoundException("User with id=" + id + " not found");
         }
     }
 
-    // Find list of subjects
+    // Find list of subjects with given names. Names are resolved to IDs by the in-memory index (at most one query
+    // for names not indexed yet) and subjects are linked by reference, so no subject rows are read
     private List<Subject> findSubjectList(List<SubjectDto> subjectsList) throws BadRequestException {
+        List<String> names = subjectNames(subjectsList);
+        Map<String, Long> ids = subjectNameIndex.findIds(names.stream().filter(Objects::nonNull).toList());
+
+        // Report all unknown names at once
+        List<String> unknown = names.stream().filter(name -> !ids.containsKey(name)).toList();
+        if(unknown.size() == 1) {
+            throw new BadRequestException("Subject '" + unknown.get(0) + "' not found");
+        }
+        if(!unknown.isEmpty()) {
+            throw new BadRequestException("Subjects " + quoted(unknown) + " not found");
+        }
+
+        return names.stream()
+                .map(name -> subjectRepository.getReferenceById(ids.get(name)))
+                .collect(Collectors.toList());
+    }
+
+    // Write the subject links of the user now. A subject deleted on another instance can stay in the name index
+    // until its entry expires; linking it breaks the foreign key, so the names are dropped from the index and the
+    // request is rejected like one with an unknown subject
+    private void flushSubjectLinks(List<SubjectDto> subjectsList) throws BadRequestException {
+        try {
+            userRepository.flush();
+        } catch(DataIntegrityViolationException e) {
+            if(!(e.getCause() instanceof ConstraintViolationException violation)
+                    || !SUBJECT_FOREIGN_KEY.equalsIgnoreCase(violation.getConstraintName())) {
+                throw e;
+            }
+            List<String> names = subjectNames(subjectsList);
+            subjectNameIndex.evictNames(names);
+            throw new BadRequestException(names.size() == 1
+                    ? "Subject '" + names.get(0) + "' not found"
+                    : "One of subjects " + quoted(names) + " not found");
+        }
+    }
+
+    private static List<String> subjectNames(List<SubjectDto> subjectsList) {
         return subjectsList
                 .stream()
-                .map(subjectDto -> subjectRepository
-                        .findByName(subjectDto.getName())
-                        .orElseThrow(() -> new BadRequestException("Subject '" + subjectDto.getName() + "' not found"))
-                )
-                .collect(Collectors.toList());
+                .map(SubjectDto::getName)
+                .distinct()
+                .toList();
+    }
+
+    private static String quoted(List<String> names) {
+        return names.stream()
+                .map(name -> "'" + name + "'")
+                .collect(Collectors.joining(", "));
     }
 
     // Get logged user ID
@@ -187,4 +274,11 @@ public class UserService {
                 .anyMatch(auth -> auth.getAuthority().equals("ROLE_" + role));
     }
 
+    // Forget cached credentials of the user once the change is committed
+    private void evictCredentialsAfterCommit(Long id) {
+        AfterCommit.run(() -> {
+            credentialVersionService.evictUser(id);
+            userDetailsService.evictUser(id);
+        });
+    }
 }
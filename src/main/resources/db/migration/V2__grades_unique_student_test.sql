@@ -0,0 +1,19 @@
+-- Keep only the most recent grade of a student for a test before enforcing uniqueness. The older duplicates are
+-- copied to grades_duplicates_v2 first, so they can be reviewed (or restored) and the table dropped afterwards
+CREATE TABLE grades_duplicates_v2 AS
+SELECT g.*
+FROM grades g
+WHERE EXISTS (SELECT 1
+              FROM grades newer
+              WHERE newer.student_id = g.student_id
+                AND newer.test_id = g.test_id
+                AND newer.id > g.id);
+
+DELETE
+FROM grades g
+    USING grades_duplicates_v2 d
+WHERE d.id = g.id;
+
+-- A unique index rather than a constraint, so databases baselined from a Hibernate generated schema
+-- (which may already have it) can be migrated too
+CREATE UNIQUE INDEX IF NOT EXISTS uc_grades_student_test ON grades (student_id, test_id);
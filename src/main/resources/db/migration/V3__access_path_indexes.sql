@@ -0,0 +1,20 @@
+-- Indexes for foreign keys and the access paths used by repository queries.
+-- grades(student_id, test_id) is covered by uc_grades_student_test, users(class_id) by uc_users_class.
+
+-- Grades of a test: GET /api/grades?testId=, batch grade entry, deleting a test
+CREATE INDEX IF NOT EXISTS idx_grades_test_id ON grades (test_id);
+
+-- Tests of a class in date order, grade sheets and class statistics
+CREATE INDEX IF NOT EXISTS idx_knowledge_tests_class_id_test_date ON knowledge_tests (class_id, test_date);
+
+CREATE INDEX IF NOT EXISTS idx_knowledge_tests_subject_id ON knowledge_tests (subject_id);
+
+CREATE INDEX IF NOT EXISTS idx_knowledge_tests_teacher_id ON knowledge_tests (teacher_id);
+
+-- Students of a class: grade sheets, class membership checks
+CREATE INDEX IF NOT EXISTS idx_students_class_id ON students (class_id);
+
+-- Both directions of the teacher <-> subject association
+CREATE INDEX IF NOT EXISTS idx_teachers_subjects_teacher_id ON teachers_subjects (teacher_id, subject_id);
+
+CREATE INDEX IF NOT EXISTS idx_teachers_subjects_subject_id ON teachers_subjects (subject_id);
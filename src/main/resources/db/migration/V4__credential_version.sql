@@ -0,0 +1,6 @@
+-- Version of login credentials embedded in JWTs; bumped when email, password or role change
+ALTER TABLE users
+    ADD COLUMN credential_version INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE students
+    ADD COLUMN credential_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,21 @@
+-- Login emails of users and students in one table, so authentication and email uniqueness checks take one lookup
+CREATE TABLE credentials
+(
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    email          VARCHAR(255)                            NOT NULL,
+    principal_type VARCHAR(255)                            NOT NULL,
+    principal_id   BIGINT                                  NOT NULL,
+    CONSTRAINT pk_credentials PRIMARY KEY (id),
+    CONSTRAINT uc_credentials_email UNIQUE (email),
+    CONSTRAINT uc_credentials_principal UNIQUE (principal_type, principal_id)
+);
+
+INSERT INTO credentials (email, principal_type, principal_id)
+SELECT email, 'USER', id
+FROM users;
+
+-- A student sharing an email with a user could never log in (users were looked up first), so it keeps no credential
+INSERT INTO credentials (email, principal_type, principal_id)
+SELECT email, 'STUDENT', id
+FROM students
+ON CONFLICT (email) DO NOTHING;
@@ -0,0 +1,20 @@
+-- Hashed, rotated refresh tokens; tokens of one login share a family revoked as a whole on reuse
+CREATE TABLE refresh_tokens
+(
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    token_hash         VARCHAR(64)                             NOT NULL,
+    family_id          VARCHAR(36)                             NOT NULL,
+    principal_type     VARCHAR(255)                            NOT NULL,
+    principal_id       BIGINT                                  NOT NULL,
+    credential_version INTEGER                                 NOT NULL,
+    expires_at         TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    used_at            TIMESTAMP WITHOUT TIME ZONE,
+    revoked            BOOLEAN                                 NOT NULL,
+    created_at         TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_refresh_tokens PRIMARY KEY (id),
+    CONSTRAINT uc_refresh_tokens_token_hash UNIQUE (token_hash)
+);
+
+CREATE INDEX idx_refresh_tokens_family_id ON refresh_tokens (family_id);
+
+CREATE INDEX idx_refresh_tokens_principal ON refresh_tokens (principal_type, principal_id);
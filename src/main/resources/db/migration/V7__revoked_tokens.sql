@@ -0,0 +1,10 @@
+-- IDs (jti) of revoked access tokens, deleted once the tokens expire
+CREATE TABLE revoked_tokens
+(
+    jti        VARCHAR(36)                 NOT NULL,
+    expires_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_revoked_tokens PRIMARY KEY (jti)
+);
+
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
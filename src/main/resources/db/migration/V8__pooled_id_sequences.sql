@@ -0,0 +1,32 @@
+-- Sequences replace IDENTITY keys, so Hibernate allocates IDs in blocks of 50 (pooled optimizer) and can batch
+-- inserts. Hibernate treats a sequence value as the upper end of a block, so each sequence continues 50 past the
+-- highest existing ID. Columns keep a nextval default for rows inserted with plain SQL
+ALTER TABLE classes ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE classes_seq INCREMENT BY 50 OWNED BY classes.id;
+SELECT setval('classes_seq', COALESCE(MAX(id), 0) + 50, false) FROM classes;
+ALTER TABLE classes ALTER COLUMN id SET DEFAULT nextval('classes_seq');
+
+ALTER TABLE subjects ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE subjects_seq INCREMENT BY 50 OWNED BY subjects.id;
+SELECT setval('subjects_seq', COALESCE(MAX(id), 0) + 50, false) FROM subjects;
+ALTER TABLE subjects ALTER COLUMN id SET DEFAULT nextval('subjects_seq');
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE users_seq INCREMENT BY 50 OWNED BY users.id;
+SELECT setval('users_seq', COALESCE(MAX(id), 0) + 50, false) FROM users;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+
+ALTER TABLE students ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE students_seq INCREMENT BY 50 OWNED BY students.id;
+SELECT setval('students_seq', COALESCE(MAX(id), 0) + 50, false) FROM students;
+ALTER TABLE students ALTER COLUMN id SET DEFAULT nextval('students_seq');
+
+ALTER TABLE knowledge_tests ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE knowledge_tests_seq INCREMENT BY 50 OWNED BY knowledge_tests.id;
+SELECT setval('knowledge_tests_seq', COALESCE(MAX(id), 0) + 50, false) FROM knowledge_tests;
+ALTER TABLE knowledge_tests ALTER COLUMN id SET DEFAULT nextval('knowledge_tests_seq');
+
+ALTER TABLE grades ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE grades_seq INCREMENT BY 50 OWNED BY grades.id;
+SELECT setval('grades_seq', COALESCE(MAX(id), 0) + 50, false) FROM grades;
+ALTER TABLE grades ALTER COLUMN id SET DEFAULT nextval('grades_seq');
@@ -0,0 +1,202 @@
+package org.example.onlinegradebookapp.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of bulk student and grade inserts with the statements the application sends to PostgreSQL:
+// - students: IDENTITY keys (one INSERT ... RETURNING per row, as Hibernate must do) against IDs allocated from a
+//   pooled sequence and inserts sent as JDBC batches of 50 rewritten into multi-row INSERTs (reWriteBatchedInserts)
+// - grades: the former JDBC batch of single-row INSERTs against one INSERT ... SELECT FROM unnest(...)
+// Uses a Testcontainers database by default; pass -Dbenchmark.db.url (and .user/.password) to use another one.
+// Run with: mvn test-compile, then start main() from the IDE (or java with the test classpath)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+    private static final int ROWS = 500;
+    private static final int BATCH_SIZE = 50;
+
+    private Connection connection;
+    private Connection rewritingConnection;
+    private long nextTestId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty("benchmark.db.url", "jdbc:tc:postgresql:17:///benchmark");
+        Properties properties = new Properties();
+        properties.setProperty("user", System.getProperty("benchmark.db.user", "test"));
+        properties.setProperty("password", System.getProperty("benchmark.db.password", "test"));
+        connection = DriverManager.getConnection(url, properties);
+        properties.setProperty("reWriteBatchedInserts", "true");
+        rewritingConnection = DriverManager.getConnection(url, properties);
+
+        try(Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    DROP TABLE IF EXISTS bench_students_identity, bench_students_sequence, bench_grades;
+                    DROP SEQUENCE IF EXISTS bench_students_seq, bench_grades_seq;
+                    CREATE TABLE bench_students_identity (
+                        id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                        email VARCHAR(255) NOT NULL,
+                        firstname VARCHAR(255) NOT NULL,
+                        lastname VARCHAR(255) NOT NULL);
+                    CREATE SEQUENCE bench_students_seq INCREMENT BY 50;
+                    CREATE TABLE bench_students_sequence (
+                        id BIGINT PRIMARY KEY,
+                        email VARCHAR(255) NOT NULL,
+                        firstname VARCHAR(255) NOT NULL,
+                        lastname VARCHAR(255) NOT NULL);
+                    CREATE SEQUENCE bench_grades_seq INCREMENT BY 50;
+                    CREATE TABLE bench_grades (
+                        id BIGINT DEFAULT nextval('bench_grades_seq') PRIMARY KEY,
+                        grade NUMERIC(2, 1) NOT NULL,
+                        description TEXT,
+                        student_id BIGINT NOT NULL,
+                        test_id BIGINT NOT NULL,
+                        CONSTRAINT uc_bench_grades_student_test UNIQUE (student_id, test_id));
+                    """);
+        }
+        connection.setAutoCommit(false);
+        rewritingConnection.setAutoCommit(false);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        rewritingConnection.close();
+    }
+
+    // Before: every INSERT runs on its own to return the generated key
+    @Benchmark
+    public long studentsWithIdentity() throws SQLException {
+        long lastId = 0;
+        try(PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO bench_students_identity (email, firstname, lastname) VALUES (?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for(int i = 0; i < ROWS; i++) {
+                ps.setString(1, "student" + i + "@gmail.com");
+                ps.setString(2, "Anna");
+                ps.setString(3, "Nowak");
+                ps.executeUpdate();
+                try(ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                    lastId = keys.getLong(1);
+                }
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    // After: one nextval per 50 rows (pooled optimizer) and one rewritten batch per 50 rows
+    @Benchmark
+    public long studentsWithPooledSequence() throws SQLException {
+        long id = 0;
+        try(PreparedStatement nextval = rewritingConnection.prepareStatement("SELECT nextval('bench_students_seq')");
+            PreparedStatement ps = rewritingConnection.prepareStatement(
+                    "INSERT INTO bench_students_sequence (id, email, firstname, lastname) VALUES (?, ?, ?, ?)")) {
+            for(int i = 0; i < ROWS; i++) {
+                if(i % BATCH_SIZE == 0) {
+                    try(ResultSet rs = nextval.executeQuery()) {
+                        rs.next();
+                        id = rs.getLong(1) - BATCH_SIZE;
+                    }
+                }
+                ps.setLong(1, ++id);
+                ps.setString(2, "student" + id + "@gmail.com");
+                ps.setString(3, "Anna");
+                ps.setString(4, "Nowak");
+                ps.addBatch();
+                if((i + 1) % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        rewritingConnection.commit();
+        return id;
+    }
+
+    // Before: GradeRepositoryCustomImpl.insertGrades as a JDBC batch of single-row INSERTs
+    @Benchmark
+    public int gradesAsJdbcBatch() throws SQLException {
+        long testId = ++nextTestId;
+        int inserted = 0;
+        try(PreparedStatement ps = connection.prepareStatement("""
+                INSERT INTO bench_grades (grade, description, student_id, test_id)
+                VALUES (?, ?, ?, ?)
+                ON CONFLICT (student_id, test_id) DO NOTHING
+                """)) {
+            for(int i = 0; i < ROWS; i++) {
+                ps.setBigDecimal(1, BigDecimal.valueOf(4.5));
+                ps.setString(2, "Sprawdzian");
+                ps.setLong(3, i);
+                ps.setLong(4, testId);
+                ps.addBatch();
+            }
+            for(int count : ps.executeBatch()) {
+                inserted += count;
+            }
+        }
+        connection.commit();
+        return inserted;
+    }
+
+    // After: one INSERT ... SELECT FROM unnest(...) returning the students who got a grade
+    @Benchmark
+    public int gradesWithUnnest() throws SQLException {
+        long testId = ++nextTestId;
+        BigDecimal[] grades = new BigDecimal[ROWS];
+        String[] descriptions = new String[ROWS];
+        Long[] studentIds = new Long[ROWS];
+        for(int i = 0; i < ROWS; i++) {
+            grades[i] = BigDecimal.valueOf(4.5);
+            descriptions[i] = "Sprawdzian";
+            studentIds[i] = (long) i;
+        }
+
+        int inserted = 0;
+        try(PreparedStatement ps = rewritingConnection.prepareStatement("""
+                INSERT INTO bench_grades (grade, description, student_id, test_id)
+                SELECT g.grade, g.description, g.student_id, ?
+                FROM unnest(CAST(? AS numeric[]), CAST(? AS text[]), CAST(? AS bigint[])) AS g(grade, description, student_id)
+                ON CONFLICT (student_id, test_id) DO NOTHING
+                RETURNING student_id
+                """)) {
+            ps.setLong(1, testId);
+            ps.setArray(2, array("numeric", grades));
+            ps.setArray(3, array("text", descriptions));
+            ps.setArray(4, array("bigint", studentIds));
+            try(ResultSet rs = ps.executeQuery()) {
+                while(rs.next()) {
+                    inserted++;
+                }
+            }
+        }
+        rewritingConnection.commit();
+        return inserted;
+    }
+
+    private Array array(String type, Object[] elements) throws SQLException {
+        return rewritingConnection.createArrayOf(type, elements);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BulkInsertBenchmark.class.getSimpleName()).build()).run();
+    }
+}
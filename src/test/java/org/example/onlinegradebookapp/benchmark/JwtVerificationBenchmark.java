@@ -0,0 +1,82 @@
+package org.example.onlinegradebookapp.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.example.onlinegradebookapp.config.JwtKeyProperties;
+import org.example.onlinegradebookapp.security.CustomUserDetails;
+import org.example.onlinegradebookapp.security.JwtKeyRing;
+import org.example.onlinegradebookapp.security.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cost of token verification done by JwtAuthFilter per request.
+// Run with: mvn test-compile, then start main() from the IDE (or java with the test classpath)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+    private JwtService jwtService;
+    private CustomUserDetails userDetails;
+    private String secret;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        secret = "C4URJAVnncZ0Ctas54+xCmF7yRuMyYX7JKHotXQY0uKGKp+fBl/q2B2s0ib30nnz";
+        JwtKeyProperties properties = new JwtKeyProperties();
+        properties.setActiveKeyId("default");
+        properties.getKeys().put("default", secret);
+        jwtService = new JwtService(new JwtKeyRing(properties));
+        userDetails = new CustomUserDetails(1L, "teacher@gmail.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_TEACHER")));
+        parser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret))).build();
+        token = jwtService.generateToken(userDetails);
+    }
+
+    // Previous filter: extractUsername, then isTokenValid parsing the token twice more,
+    // each parse decoding the secret and building a new key and parser
+    @Benchmark
+    public boolean threeParsesWithNewKey() {
+        String username = parseWithNewKey().getSubject();
+        boolean sameUser = parseWithNewKey().getSubject().equals(username);
+        return sameUser && parseWithNewKey().getExpiration().after(new Date());
+    }
+
+    // One parse and HMAC verification with a prebuilt key and parser (cache miss)
+    @Benchmark
+    public boolean singleParse() {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        return jwtService.isTokenValid(claims, userDetails);
+    }
+
+    // Current filter with the token already in the verified-token cache
+    @Benchmark
+    public boolean cachedVerification() {
+        Claims claims = jwtService.verifyToken(token);
+        return jwtService.isTokenValid(claims, userDetails);
+    }
+
+    private Claims parseWithNewKey() {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.onlinegradebookapp.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.onlinegradebookapp.OnlineGradebookAppApplication;
+import org.example.onlinegradebookapp.payload.request.SubjectDto;
+import org.example.onlinegradebookapp.repository.SubjectRepository;
+import org.example.onlinegradebookapp.service.SubjectService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Reads of reference entities are served from the second-level cache, and changes made through services are visible
+@SpringBootTest(classes = OnlineGradebookAppApplication.class)
+@AutoConfigureMockMvc
+public class EntityCacheIntegrationTest {
+
+    @Autowired
+    private SubjectService subjectService;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void subjects_shouldBeReadFromCache_andReflectUpdatesAndDeletes() {
+        subjectService.addSubject(subject("fizyka"));
+        Long id = subjectRepository.findByName("fizyka").orElseThrow().getId();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long statements = statistics.getPrepareStatementCount();
+
+        // Each call runs in its own session, so only the second-level cache can save the query
+        assertEquals("fizyka", subjectRepository.findById(id).orElseThrow().getName());
+        assertEquals("fizyka", subjectRepository.findById(id).orElseThrow().getName());
+        assertEquals(hits + 2, statistics.getSecondLevelCacheHitCount());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+
+        // Repeated listing of subjects comes from the query cache
+        long queryHits = statistics.getQueryCacheHitCount();
+        subjectService.findAllSubjects();
+        subjectService.findAllSubjects();
+        assertTrue(statistics.getQueryCacheHitCount() > queryHits);
+
+        subjectService.updateSubject(subject("fizyka doświadczalna"), id);
+        assertEquals("fizyka doświadczalna", subjectRepository.findById(id).orElseThrow().getName());
+        assertTrue(subjectRepository.findByName("fizyka").isEmpty());
+
+        subjectService.deleteSubject(id);
+        assertTrue(subjectRepository.findById(id).isEmpty());
+
+        // Cache statistics are published as metrics
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").tag("region", "subjects").meter());
+    }
+
+    private static SubjectDto subject(String name) {
+        SubjectDto dto = new SubjectDto();
+        dto.setName(name);
+        return dto;
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.onlinegradebookapp.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.onlinegradebookapp.OnlineGradebookAppApplication;
+import org.example.onlinegradebookapp.entity.Grade;
+import org.example.onlinegradebookapp.entity.KnowledgeTest;
+import org.example.onlinegradebookapp.entity.SchoolClass;
+import org.example.onlinegradebookapp.entity.Student;
+import org.example.onlinegradebookapp.entity.Subject;
+import org.example.onlinegradebookapp.entity.TestCategory.TestCategory;
+import org.example.onlinegradebookapp.entity.User;
+import org.example.onlinegradebookapp.entity.UserRole.UserRole;
+import org.example.onlinegradebookapp.repository.GradeRepository;
+import org.example.onlinegradebookapp.repository.KnowledgeTestRepository;
+import org.example.onlinegradebookapp.repository.SchoolClassRepository;
+import org.example.onlinegradebookapp.repository.StudentRepository;
+import org.example.onlinegradebookapp.repository.SubjectRepository;
+import org.example.onlinegradebookapp.repository.UserRepository;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Associations are loaded only when a use case asks for them
+@SpringBootTest(classes = OnlineGradebookAppApplication.class)
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class FetchPlanIntegrationTest {
+
+    @Autowired
+    private SchoolClassRepository classRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private KnowledgeTestRepository testRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private Long classId;
+    private Long testId;
+    private Long gradeId;
+
+    @BeforeAll
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // One transaction, so the entities stay managed while they are linked
+        transactionTemplate.executeWithoutResult(status -> {
+            SchoolClass schoolClass = new SchoolClass();
+            schoolClass.setName("fetch-plan-class");
+            classRepository.save(schoolClass);
+            classId = schoolClass.getId();
+
+            Subject subject = new Subject();
+            subject.setName("fetch-plan-subject");
+            subjectRepository.save(subject);
+
+            User teacher = new User();
+            teacher.setEmail("fetch-plan-teacher@gmail.com");
+            teacher.setPassword("password");
+            teacher.setFirstName("Jan");
+            teacher.setLastName("Kowalski");
+            teacher.setUserRole(UserRole.TEACHER);
+            teacher.setSchoolClass(schoolClass);
+            userRepository.save(teacher);
+
+            Student student = new Student();
+            student.setEmail("fetch-plan-student@gmail.com");
+            student.setPassword("password");
+            student.setFirstName("Anna");
+            student.setLastName("Nowak");
+            student.setSchoolClass(schoolClass);
+            studentRepository.save(student);
+
+            KnowledgeTest test = new KnowledgeTest();
+            test.setName("fetch-plan-test");
+            test.setCategoryName(TestCategory.QUIZ);
+            test.setTestDate(LocalDate.now().plusDays(7));
+            test.setSchoolClass(schoolClass);
+            test.setSubject(subject);
+            test.setTeacher(teacher);
+            testRepository.save(test);
+            testId = test.getId();
+
+            Grade grade = new Grade();
+            grade.setGrade(new BigDecimal("4.5"));
+            grade.setStudent(student);
+            grade.setTest(test);
+            gradeRepository.save(grade);
+            gradeId = grade.getId();
+        });
+    }
+
+    @Test
+    void grade_shouldBeLoadedWithoutStudentAndTest() {
+        transactionTemplate.executeWithoutResult(status -> {
+            long statements = statistics.getPrepareStatementCount();
+
+            Grade grade = gradeRepository.findById(gradeId).orElseThrow();
+
+            assertEquals(statements + 1, statistics.getPrepareStatementCount());
+            assertFalse(Hibernate.isInitialized(grade.getStudent()));
+            assertFalse(Hibernate.isInitialized(grade.getTest()));
+            // Reading the ID of an association does not load it
+            assertNotNull(grade.getTest().getId());
+            assertEquals(statements + 1, statistics.getPrepareStatementCount());
+        });
+    }
+
+    @Test
+    void knowledgeTest_shouldBeLoadedWithoutClassSubjectAndTeacher() {
+        transactionTemplate.executeWithoutResult(status -> {
+            long statements = statistics.getPrepareStatementCount();
+
+            KnowledgeTest test = testRepository.findById(testId).orElseThrow();
+
+            assertEquals(statements + 1, statistics.getPrepareStatementCount());
+            assertFalse(Hibernate.isInitialized(test.getSchoolClass()));
+            assertFalse(Hibernate.isInitialized(test.getSubject()));
+            assertFalse(Hibernate.isInitialized(test.getTeacher()));
+        });
+    }
+
+    @Test
+    void findWithTeacherById_shouldLoadClassAndTeacherInOneQuery() {
+        transactionTemplate.executeWithoutResult(status -> {
+            long statements = statistics.getPrepareStatementCount();
+
+            SchoolClass schoolClass = classRepository.findWithTeacherById(classId).orElseThrow();
+
+            assertEquals("fetch-plan-teacher@gmail.com", schoolClass.getTeacher().getEmail());
+            assertEquals(statements + 1, statistics.getPrepareStatementCount());
+        });
+    }
+}
@@ -20,10 +20,13 @@ import org.springframework.test.web.servlet.ResultActions;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -125,6 +128,10 @@ public class FullApplicationFlowIntegrationTest {
         // Get student2 ID
         student2Id = studentRepository.findByEmail("student2@gmail.com").orElseThrow().getId();
 
+        // Emails are unique across users and students
+        registerStudent("teacher1@gmail.com", "student123", "Jan", "Kowalski")
+                .andExpect(status().isBadRequest());
+
         // 4. Creating school classes
         createClass("1A");
         // Get class1A ID
@@ -179,6 +186,45 @@ public class FullApplicationFlowIntegrationTest {
         createGrade(teacher1Token, BigDecimal.valueOf(5.0), "Dobra robota", student1Id, test1Id);
         grade1Id = gradeRepository.findGradeByStudentIdAndTestId(student1Id, test1Id).orElseThrow().getId();
 
+        // Teacher1 opens a grade sheet of the test
+        getWithToken("/api/knowledge_tests/" + test1Id + "/sheet", teacher1Token).andExpect(status().isOk());
+
+        // Admin assigns student2 to class 1A; Teacher1 grades the class in one batch
+        // (student1 has already a grade for the test, so the row is reported back)
+        patchWithToken("/api/students/" + student2Id, adminToken, Map.of("classId", class1AId))
+                .andExpect(status().isOk());
+        List<Map<String, Object>> gradeBatch = List.of(
+                Map.of("studentId", student1Id, "grade", 4.0),
+                Map.of("studentId", student2Id, "grade", 3.5));
+        postWithToken("/api/knowledge_tests/" + test1Id + "/grades/batch", teacher1Token, gradeBatch)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.errors[0].studentId").value(student1Id.intValue()));
+
+        // Teacher1 corrects the grade of student2 in place; a second POST of the same pair is rejected
+        Map<String, Object> correctedGrade = Map.of("studentId", student2Id, "testId", test1Id, "grade", 4.0);
+        putWithToken("/api/grades", teacher1Token, correctedGrade).andExpect(status().isOk());
+        postWithToken("/api/grades", teacher1Token, correctedGrade).andExpect(status().isBadRequest());
+
+        // Teacher1 checks weighted averages of class 1A (student1: 5.0, student2: 4.0 in math)
+        getWithToken("/api/classes/" + class1AId + "/averages", teacher1Token)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[?(@.studentId == " + student2Id + ")].average").value(4.0));
+
+        // Teacher1 opens grade statistics of the test and the class (grades 5.0 and 4.0)
+        getWithToken("/api/knowledge_tests/" + test1Id + "/stats", teacher1Token)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.mean").value(4.5))
+                .andExpect(jsonPath("$.median").value(4.5))
+                .andExpect(jsonPath("$.standardDeviation").value(0.5))
+                .andExpect(jsonPath("$.histogram.4").value(1))
+                .andExpect(jsonPath("$.histogram.5").value(1));
+        getWithToken("/api/classes/" + class1AId + "/stats", teacher1Token)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2));
+
         // 11. Teacher2 create test
         createTest(teacher2Token, "II wojna światowa", TestCategory.QUIZ, LocalDate.now().plusDays(5), class1BId, historyId);
         test2Id = testRepository.findByName("II wojna światowa").orElseThrow().getId();
@@ -198,11 +244,37 @@ public class FullApplicationFlowIntegrationTest {
         gradeUpdate.setGrade(BigDecimal.valueOf(3.0));
         patchWithToken("/api/grades/" + grade1Id, teacher2Token, gradeUpdate)
             .andExpect(status().isUnauthorized());
+        deleteWithToken("/api/grades/" + grade1Id, teacher2Token).andExpect(status().isUnauthorized());
+        deleteWithToken("/api/knowledge_tests/" + test1Id, teacher2Token).andExpect(status().isUnauthorized());
+        patchWithToken("/api/grades/" + Long.MAX_VALUE, teacher2Token, gradeUpdate).andExpect(status().isNotFound());
+        patchWithToken("/api/knowledge_tests/" + Long.MAX_VALUE, teacher2Token, updateTest)
+            .andExpect(status().isNotFound());
+
+        // Teacher1 edits its own grade and test; attributes not given stay unchanged
+        gradeUpdate.setDescription("Corrected");
+        patchWithToken("/api/grades/" + grade1Id, teacher1Token, gradeUpdate).andExpect(status().isOk());
+        getWithToken("/api/grades/" + grade1Id, teacher1Token)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.grade").value(3.0))
+            .andExpect(jsonPath("$.description").value("Corrected"))
+            .andExpect(jsonPath("$.studentId").value(student1Id.intValue()));
+        patchWithToken("/api/knowledge_tests/" + test1Id, teacher1Token, updateTest).andExpect(status().isOk());
+        getWithToken("/api/knowledge_tests/" + test1Id, teacher1Token)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.category").value("HOMEWORK"))
+            .andExpect(jsonPath("$.subjectId").value(mathId.intValue()));
 
         // 15-17. Student1 i Student2 - checking access
         getWithToken("/api/students/" + student1Id, student1Token).andExpect(status().isOk());
         getWithToken("/api/students", student1Token).andExpect(status().isForbidden());
         getWithToken("/api/students/" + student2Id, student2Token).andExpect(status().isOk());
+
+        // Student2 changes its password: the old token is rejected, a new login works
+        patchWithToken("/api/students/" + student2Id, student2Token, Map.of("password", "student456"))
+                .andExpect(status().isOk());
+        getWithToken("/api/students/" + student2Id, student2Token).andExpect(status().isUnauthorized());
+        student2Token = login("student2@gmail.com", "student456");
+        getWithToken("/api/students/" + student2Id, student2Token).andExpect(status().isOk());
         deleteWithToken("/api/students/" + student1Id, student2Token).andExpect(status().isForbidden());
 
         // 18. Teacher1 fetches list of students
@@ -216,6 +288,62 @@ public class FullApplicationFlowIntegrationTest {
         getWithToken("/api/users/" + teacher2Id, teacher2Token).andExpect(status().isOk());
         deleteWithToken("/api/users/" + teacher1Id, teacher2Token).andExpect(status().isForbidden());
 
+        // Teacher2 gets a new token with a refresh token; reusing the old refresh token revokes the whole family
+        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"teacher2@gmail.com\", \"password\": \"teacher321\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty())
+                .andReturn();
+        String refreshToken = objectMapper.readTree(loginResult.getResponse().getContentAsString()).get("refreshToken").asText();
+        JsonNode refreshed = objectMapper.readTree(refresh(refreshToken)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        getWithToken("/api/users/" + teacher2Id, refreshed.get("token").asText()).andExpect(status().isOk());
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+        refresh(refreshed.get("refreshToken").asText()).andExpect(status().isUnauthorized());
+
+        // Logging out revokes the access token before it expires
+        String refreshedToken = refreshed.get("token").asText();
+        postWithToken("/api/auth/logout", refreshedToken, Map.of()).andExpect(status().isOk());
+        getWithToken("/api/users/" + teacher2Id, refreshedToken).andExpect(status().isUnauthorized());
+
+        // Repeated attempts for one email are throttled before the password is checked
+        for(int i = 0; i < 5; i++) {
+            loginAttempt("unknown@gmail.com", "guess" + i).andExpect(status().isUnauthorized());
+        }
+        loginAttempt("unknown@gmail.com", "guess5")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        // User details cache metrics are available only for admin
+        getWithToken("/actuator/metrics/cache.gets?tag=cache:userDetails", teacher2Token).andExpect(status().isForbidden());
+        getWithToken("/actuator/metrics/cache.gets?tag=cache:userDetails", adminToken)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("cache.gets"));
+
+        // Admin revokes a token of another user
+        postWithToken("/api/auth/revoke", teacher2Token, Map.of("token", teacher2Token)).andExpect(status().isForbidden());
+        postWithToken("/api/auth/revoke", adminToken, Map.of("token", teacher2Token)).andExpect(status().isOk());
+        getWithToken("/api/users/" + teacher2Id, teacher2Token).andExpect(status().isUnauthorized());
+
+        // Admin revokes a token by its ID (jti), e.g. found in an access log; other tokens of the user still work
+        JsonNode teacher1Login = objectMapper.readTree(mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"teacher1@gmail.com\", \"password\": \"teacher123\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        String teacher1SecondToken = teacher1Login.get("token").asText();
+        postWithToken("/api/auth/revoke", adminToken, Map.of("jti", tokenId(teacher1SecondToken)))
+                .andExpect(status().isOk());
+        getWithToken("/api/users/" + teacher1Id, teacher1SecondToken).andExpect(status().isUnauthorized());
+        getWithToken("/api/users/" + teacher1Id, teacher1Token).andExpect(status().isOk());
+
+        // Admin revokes all tokens of teacher1, e.g. after a device was lost
+        postWithToken("/api/auth/revoke/users/" + teacher1Id, adminToken, Map.of()).andExpect(status().isOk());
+        getWithToken("/api/users/" + teacher1Id, teacher1Token).andExpect(status().isUnauthorized());
+        refresh(teacher1Login.get("refreshToken").asText()).andExpect(status().isUnauthorized());
+
         // 22-25. Admin cleanup
         getWithToken("/api/users", adminToken).andExpect(status().isOk());
         deleteWithToken("/api/grades/" + grade2Id, adminToken).andExpect(status().isOk());
@@ -241,6 +369,11 @@ public class FullApplicationFlowIntegrationTest {
         deleteWithToken("/api/subjects/" + historyId, adminToken).andExpect(status().isOk());
     }
 
+    // ID (jti) of the token, read from its payload
+    private String tokenId(String token) throws Exception {
+        return objectMapper.readTree(Base64.getUrlDecoder().decode(token.split("\\.")[1])).get("jti").asText();
+    }
+
     private String login(String email, String password) throws Exception {
         MvcResult result = mockMvc.perform(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -252,6 +385,18 @@ public class FullApplicationFlowIntegrationTest {
         return node.get("token").asText();
     }
 
+    private ResultActions loginAttempt(String email, String password) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\": \"" + email + "\", \"password\": \"" + password + "\"}"));
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\": \"" + refreshToken + "\"}"));
+    }
+
     private ResultActions postWithToken(String url, String token, Object body) throws Exception {
         return mockMvc.perform(post(url)
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
@@ -266,6 +411,13 @@ public class FullApplicationFlowIntegrationTest {
                 .content(objectMapper.writeValueAsString(body)));
     }
 
+    private ResultActions putWithToken(String url, String token, Object body) throws Exception {
+        return mockMvc.perform(put(url)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body)));
+    }
+
     private ResultActions getWithToken(String url, String token) throws Exception {
         return mockMvc.perform(get(url)
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
@@ -0,0 +1,92 @@
+package org.example.onlinegradebookapp.integration;
+
+import org.example.onlinegradebookapp.OnlineGradebookAppApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Builds the schema with Flyway migrations (as in production) in a separate schema, lets Hibernate validate
+// the entities against it and checks with EXPLAIN that repository access paths are served by indexes
+@SpringBootTest(classes = OnlineGradebookAppApplication.class, properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.schemas=migrated",
+        "spring.datasource.hikari.connection-init-sql=SET search_path TO migrated",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+public class SchemaIndexIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void gradeOfStudentForTest_shouldUseUniqueIndex() {
+        assertUsesIndex("SELECT * FROM grades WHERE student_id = 1 AND test_id = 1", "uc_grades_student_test");
+    }
+
+    @Test
+    void gradesOfStudent_shouldUseUniqueIndexPrefix() {
+        assertUsesIndex("SELECT * FROM grades WHERE student_id = 1", "uc_grades_student_test");
+    }
+
+    @Test
+    void gradesOfTest_shouldUseTestIndex() {
+        assertUsesIndex("SELECT * FROM grades WHERE test_id = 1 ORDER BY id", "idx_grades_test_id");
+    }
+
+    @Test
+    void testsOfClassByDate_shouldUseClassDateIndex() {
+        assertUsesIndex("SELECT * FROM knowledge_tests WHERE class_id = 1 ORDER BY test_date",
+                "idx_knowledge_tests_class_id_test_date");
+    }
+
+    @Test
+    void testsOfSubjectAndTeacher_shouldUseForeignKeyIndexes() {
+        assertUsesIndex("SELECT * FROM knowledge_tests WHERE subject_id = 1", "idx_knowledge_tests_subject_id");
+        assertUsesIndex("SELECT * FROM knowledge_tests WHERE teacher_id = 1", "idx_knowledge_tests_teacher_id");
+    }
+
+    @Test
+    void studentsOfClass_shouldUseClassIndex() {
+        assertUsesIndex("SELECT id FROM students WHERE class_id = 1 AND id IN (1, 2, 3)", "idx_students_class_id");
+    }
+
+    @Test
+    void teacherSubjects_shouldUseAssociationIndexes() {
+        assertUsesIndex("SELECT subject_id FROM teachers_subjects WHERE teacher_id = 1",
+                "idx_teachers_subjects_teacher_id");
+        assertUsesIndex("SELECT teacher_id FROM teachers_subjects WHERE subject_id = 1",
+                "idx_teachers_subjects_subject_id");
+    }
+
+    @Test
+    void credentialOfEmail_shouldUseUniqueEmailIndex() {
+        assertUsesIndex("SELECT * FROM credentials WHERE email = 'admin@gmail.com'", "uc_credentials_email");
+    }
+
+    // The tables are nearly empty, so sequential scans are disabled to see which index the planner would pick
+    private void assertUsesIndex(String query, String index) {
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            StringBuilder lines = new StringBuilder();
+            try(Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                try(ResultSet rs = statement.executeQuery("EXPLAIN " + query)) {
+                    while(rs.next()) {
+                        lines.append(rs.getString(1)).append('\n');
+                    }
+                } finally {
+                    statement.execute("RESET enable_seqscan");
+                }
+            }
+            return lines.toString();
+        });
+
+        assertTrue(plan != null && plan.contains(index), "Expected " + index + " in plan:\n" + plan);
+    }
+}
@@ -0,0 +1,296 @@
+package org.example.onlinegradebookapp.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.example.onlinegradebookapp.OnlineGradebookAppApplication;
+import org.example.onlinegradebookapp.entity.Credential;
+import org.example.onlinegradebookapp.entity.Grade;
+import org.example.onlinegradebookapp.entity.KnowledgeTest;
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
+import org.example.onlinegradebookapp.entity.SchoolClass;
+import org.example.onlinegradebookapp.entity.Student;
+import org.example.onlinegradebookapp.entity.Subject;
+import org.example.onlinegradebookapp.entity.TestCategory.TestCategory;
+import org.example.onlinegradebookapp.entity.User;
+import org.example.onlinegradebookapp.entity.UserRole.UserRole;
+import org.example.onlinegradebookapp.repository.CredentialRepository;
+import org.example.onlinegradebookapp.repository.GradeRepository;
+import org.example.onlinegradebookapp.repository.KnowledgeTestRepository;
+import org.example.onlinegradebookapp.repository.SchoolClassRepository;
+import org.example.onlinegradebookapp.repository.StudentRepository;
+import org.example.onlinegradebookapp.repository.SubjectRepository;
+import org.example.onlinegradebookapp.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Pins an upper bound of SQL statements per endpoint. The class has more students and grades than any bound,
+// so a query per row (N+1) fails the build instead of slowing down production as data grows. Each bound is the
+// current count plus one, which leaves room for the credential version lookup when its cache entry has expired.
+// List endpoints are also held to a response size per row, so nested entities (and password hashes) stay out
+@SpringBootTest(classes = OnlineGradebookAppApplication.class)
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class SqlStatementCountIntegrationTest {
+    private static final int STUDENTS = 25;
+    private static final String TEACHER_EMAIL = "sql-count-teacher@gmail.com";
+    private static final String TEACHER_PASSWORD = "teacher123";
+    // A flat class or student row is about 150 bytes; with nested students, tests and grades it was over 500
+    private static final int MAX_BYTES_PER_ROW = 300;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SchoolClassRepository classRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private KnowledgeTestRepository testRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private CredentialRepository credentialRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String teacherToken;
+    private Long classId;
+    private Long gradedTestId;
+    private Long emptyTestId;
+    private final List<Long> studentIds = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            SchoolClass schoolClass = new SchoolClass();
+            schoolClass.setName("sql-count-class");
+            classRepository.save(schoolClass);
+            classId = schoolClass.getId();
+
+            Subject subject = new Subject();
+            subject.setName("sql-count-subject");
+            subjectRepository.save(subject);
+
+            User teacher = new User();
+            teacher.setEmail(TEACHER_EMAIL);
+            teacher.setPassword(passwordEncoder.encode(TEACHER_PASSWORD));
+            teacher.setFirstName("Jan");
+            teacher.setLastName("Kowalski");
+            teacher.setUserRole(UserRole.TEACHER);
+            teacher.setSchoolClass(schoolClass);
+            teacher.setSubjects(new ArrayList<>(List.of(subject)));
+            userRepository.save(teacher);
+            credentialRepository.save(new Credential(TEACHER_EMAIL, PrincipalType.USER, teacher.getId()));
+
+            KnowledgeTest gradedTest = test("sql-count-graded", schoolClass, subject, teacher);
+            KnowledgeTest emptyTest = test("sql-count-empty", schoolClass, subject, teacher);
+            gradedTestId = gradedTest.getId();
+            emptyTestId = emptyTest.getId();
+
+            // Every student but the last one has a grade for the graded test
+            for(int i = 0; i < STUDENTS; i++) {
+                Student student = new Student();
+                student.setEmail("sql-count-student" + i + "@gmail.com");
+                student.setPassword("password");
+                student.setFirstName("Anna");
+                student.setLastName("Nowak" + i);
+                student.setSchoolClass(schoolClass);
+                studentRepository.save(student);
+                studentIds.add(student.getId());
+
+                if(i < STUDENTS - 1) {
+                    Grade grade = new Grade();
+                    grade.setGrade(new BigDecimal("4.0"));
+                    grade.setStudent(student);
+                    grade.setTest(gradedTest);
+                    gradeRepository.save(grade);
+                }
+            }
+        });
+
+        MvcResult result = mockMvc.perform(login())
+                .andExpect(status().isOk())
+                .andReturn();
+        teacherToken = objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    @Test
+    void login_shouldStayWithinStatementBudget() throws Exception {
+        assertStatementsAtMost(3, login(), status().isOk());
+    }
+
+    @Test
+    void getClasses_shouldStayWithinStatementBudget() throws Exception {
+        assertStatementsAtMost(2, authorized(get("/api/classes")), status().isOk());
+    }
+
+    @Test
+    void getStudents_shouldStayWithinStatementBudget() throws Exception {
+        assertStatementsAtMost(2, authorized(get("/api/students")), status().isOk());
+    }
+
+    @Test
+    void getClasses_shouldReturnFlatRows() throws Exception {
+        assertFlatRows(authorized(get("/api/classes")));
+    }
+
+    @Test
+    void getStudents_shouldReturnFlatRows() throws Exception {
+        assertFlatRows(authorized(get("/api/students")));
+    }
+
+    @Test
+    void getKnowledgeTests_shouldStayWithinStatementBudget() throws Exception {
+        assertStatementsAtMost(2, authorized(get("/api/knowledge_tests")), status().isOk());
+    }
+
+    @Test
+    void getGrades_shouldStayWithinStatementBudget() throws Exception {
+        assertStatementsAtMost(2, authorized(get("/api/grades").param("size", "100")), status().isOk());
+    }
+
+    @Test
+    void getStudentGrades_shouldStayWithinStatementBudget() throws Exception {
+        assertStatementsAtMost(2, authorized(get("/api/students/" + studentIds.get(0) + "/grades")), status().isOk());
+    }
+
+    @Test
+    void getGradeSheet_shouldStayWithinStatementBudget() throws Exception {
+        assertStatementsAtMost(2, authorized(get("/api/knowledge_tests/" + gradedTestId + "/sheet")), status().isOk());
+    }
+
+    @Test
+    void getClassAverages_shouldStayWithinStatementBudget() throws Exception {
+        assertStatementsAtMost(3, authorized(get("/api/classes/" + classId + "/averages")), status().isOk());
+    }
+
+    @Test
+    void postGrade_shouldStayWithinStatementBudget() throws Exception {
+        Map<String, Object> grade = Map.of("studentId", studentIds.get(STUDENTS - 1), "testId", gradedTestId, "grade", 3.5);
+
+        assertStatementsAtMost(2, authorized(post("/api/grades"), grade), status().isCreated());
+    }
+
+    @Test
+    void postGradesBatch_shouldStayWithinStatementBudget() throws Exception {
+        List<Map<String, Object>> grades = studentIds.stream()
+                .map(id -> Map.<String, Object>of("studentId", id, "grade", 5.0))
+                .toList();
+
+        assertStatementsAtMost(5, authorized(post("/api/knowledge_tests/" + emptyTestId + "/grades/batch"), grades),
+                status().isOk());
+    }
+
+    @Test
+    void savingStudents_shouldBeBatched() {
+        QueryCountHolder.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            for(int i = 0; i < STUDENTS; i++) {
+                Student student = new Student();
+                student.setEmail("sql-count-batched" + i + "@gmail.com");
+                student.setPassword("password");
+                student.setFirstName("Piotr");
+                student.setLastName("Wiśniewski" + i);
+                studentRepository.save(student);
+            }
+        });
+        QueryCount count = QueryCountHolder.getGrandTotal();
+
+        // IDs come from the sequence in blocks of 50 and the inserts are sent as one JDBC batch
+        assertTrue(count.getSuccess() <= 2, "Expected at most 2 SQL statements, but " + count.getSuccess() + " were sent");
+    }
+
+    // Run the request and check how many statements it sent to the database. Statements of a JDBC batch count once
+    private void assertStatementsAtMost(long budget, MockHttpServletRequestBuilder request, ResultMatcher expectedStatus)
+            throws Exception {
+        QueryCountHolder.clear();
+        mockMvc.perform(request).andExpect(expectedStatus);
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        long statements = count.getSuccess() + count.getFailure();
+        assertTrue(statements <= budget, "Expected at most " + budget + " SQL statements, but " + statements + " were sent");
+    }
+
+    // Run the request and check that the returned list has small rows without password hashes
+    private void assertFlatRows(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode rows = objectMapper.readTree(body);
+        assertTrue(rows.isArray() && !rows.isEmpty(), "Expected a non-empty list");
+        assertFalse(body.contains("password"), "Response contains a password attribute");
+        long bytesPerRow = body.getBytes(StandardCharsets.UTF_8).length / rows.size();
+        assertTrue(bytesPerRow <= MAX_BYTES_PER_ROW,
+                "Expected at most " + MAX_BYTES_PER_ROW + " bytes per row, but got " + bytesPerRow);
+    }
+
+    private MockHttpServletRequestBuilder login() {
+        return post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\": \"" + TEACHER_EMAIL + "\", \"password\": \"" + TEACHER_PASSWORD + "\"}");
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + teacherToken);
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return authorized(request)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body));
+    }
+
+    private KnowledgeTest test(String name, SchoolClass schoolClass, Subject subject, User teacher) {
+        KnowledgeTest test = new KnowledgeTest();
+        test.setName(name);
+        test.setCategoryName(TestCategory.CLASS_TEST);
+        test.setTestDate(LocalDate.now().plusDays(7));
+        test.setSchoolClass(schoolClass);
+        test.setSubject(subject);
+        test.setTeacher(teacher);
+        return testRepository.save(test);
+    }
+}
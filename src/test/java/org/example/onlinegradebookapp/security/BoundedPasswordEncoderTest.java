@@ -0,0 +1,104 @@
+package org.example.onlinegradebookapp.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.onlinegradebookapp.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+public class BoundedPasswordEncoderTest {
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    @Test
+    void encodeAndMatches_shouldDelegateOnHashingThread() {
+        encoder = new BoundedPasswordEncoder(new ThreadNameEncoder(), 1, 1);
+
+        assertThat(encoder.encode("secret")).isEqualTo("secret@password-hashing-1");
+        assertThat(encoder.matches("secret", "secret@password-hashing-1")).isTrue();
+        assertThat(encoder.matches("other", "secret@password-hashing-1")).isFalse();
+    }
+
+    @Test
+    void encode_shouldFailFast_whenQueueIsFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        encoder.bindTo(registry);
+
+        // First call occupies the only thread, second one waits in the queue
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        waitUntilQueued(registry);
+
+        assertThatThrownBy(() -> encoder.encode("third"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .extracting("retryAfterSeconds").isEqualTo(1L);
+        assertThat(registry.get("password.hashing.rejected").counter().count()).isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+    }
+
+    @Test
+    void encode_shouldRethrowDelegateException() {
+        encoder = new BoundedPasswordEncoder(new ThreadNameEncoder(), 1, 1);
+
+        assertThatThrownBy(() -> encoder.encode(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void waitUntilQueued(SimpleMeterRegistry registry) throws InterruptedException {
+        for(int i = 0; i < 500 && registry.get("executor.queued").tag("name", "passwordHashing").gauge().value() < 1; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    // Appends the name of the thread doing the work, so tests can see where it ran
+    private static class ThreadNameEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if(rawPassword == null) {
+                throw new IllegalArgumentException("rawPassword cannot be null");
+            }
+            return rawPassword + "@" + Thread.currentThread().getName();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.startsWith(rawPassword + "@");
+        }
+    }
+
+    private class BlockingEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch(InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
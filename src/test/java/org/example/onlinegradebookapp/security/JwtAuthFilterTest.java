@@ -1,11 +1,14 @@
 package org.example.onlinegradebookapp.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import org.example.onlinegradebookapp.exception.ApiError;
 import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
+import org.example.onlinegradebookapp.service.CredentialVersionService;
 import org.example.onlinegradebookapp.service.CustomUserDetailsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +21,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.Collections;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -27,6 +31,8 @@ public class JwtAuthFilterTest {
     private JwtAuthFilter jwtAuthFilter;
     private JwtService jwtService;
     private CustomUserDetailsService userDetailsService;
+    private CredentialVersionService credentialVersionService;
+    private TokenDenylist tokenDenylist;
     private FilterChain filterChain;
 
     @BeforeEach
@@ -34,7 +40,9 @@ public class JwtAuthFilterTest {
         jwtService = Mockito.mock(JwtService.class);
         userDetailsService = Mockito.mock(CustomUserDetailsService.class);
         filterChain = Mockito.mock(FilterChain.class);
-        jwtAuthFilter = new JwtAuthFilter(jwtService, userDetailsService);
+        credentialVersionService = Mockito.mock(CredentialVersionService.class);
+        tokenDenylist = new TokenDenylist();
+        jwtAuthFilter = new JwtAuthFilter(jwtService, userDetailsService, credentialVersionService, tokenDenylist);
         SecurityContextHolder.clearContext();
     }
 
@@ -65,9 +73,10 @@ public class JwtAuthFilterTest {
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
         );
 
-        when(jwtService.extractUsername(jwt)).thenReturn(email);
+        Claims claims = Jwts.claims().setSubject(email);
+        when(jwtService.verifyToken(jwt)).thenReturn(claims);
         when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
-        when(jwtService.isTokenValid(jwt, userDetails)).thenReturn(true);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(true);
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
@@ -76,6 +85,73 @@ public class JwtAuthFilterTest {
         assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo(email);
 
         verify(filterChain, times(1)).doFilter(request, response);
+        verify(jwtService, times(1)).verifyToken(jwt);
+    }
+
+    @Test
+    void shouldAuthenticateFromTokenClaims_withoutLoadingUser() throws ServletException, IOException {
+        String jwt = "valid.jwt.token";
+        String email = "teacher@gmail.com";
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwt);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        CustomUserDetails principal = new CustomUserDetails(
+                5L, email, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_TEACHER")), 2);
+        Claims claims = Jwts.claims().setSubject(email);
+        when(jwtService.verifyToken(jwt)).thenReturn(claims);
+        when(jwtService.extractPrincipal(claims)).thenReturn(principal);
+        when(credentialVersionService.isCurrent(principal)).thenReturn(true);
+        when(jwtService.isTokenValid(claims, principal)).thenReturn(true);
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(principal);
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        verify(filterChain, times(1)).doFilter(request, response);
+    }
+
+    @Test
+    void shouldReturnUnauthorized_whenCredentialVersionIsStale() throws ServletException, IOException {
+        String jwt = "stale.jwt.token";
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwt);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        CustomUserDetails principal = new CustomUserDetails(
+                5L, "teacher@gmail.com", null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_TEACHER")), 1);
+        Claims claims = Jwts.claims().setSubject("teacher@gmail.com");
+        when(jwtService.verifyToken(jwt)).thenReturn(claims);
+        when(jwtService.extractPrincipal(claims)).thenReturn(principal);
+        when(credentialVersionService.isCurrent(principal)).thenReturn(false);
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(filterChain, never()).doFilter(request, response);
+    }
+
+    @Test
+    void shouldReturnUnauthorized_whenTokenRevoked() throws ServletException, IOException {
+        String jwt = "revoked.jwt.token";
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwt);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Claims claims = Jwts.claims().setSubject("teacher@gmail.com").setId("revoked-jti");
+        tokenDenylist.add("revoked-jti", Instant.now().plusSeconds(600));
+        when(jwtService.verifyToken(jwt)).thenReturn(claims);
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(jwtService, never()).extractPrincipal(any());
+        verify(filterChain, never()).doFilter(request, response);
     }
 
     @Test
@@ -87,7 +163,7 @@ public class JwtAuthFilterTest {
         request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwt);
         MockHttpServletResponse response = new MockHttpServletResponse();
 
-        when(jwtService.extractUsername(jwt)).thenThrow(new ExpiredJwtException(null, null, message));
+        when(jwtService.verifyToken(jwt)).thenThrow(new ExpiredJwtException(null, null, message));
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
@@ -107,7 +183,7 @@ public class JwtAuthFilterTest {
         request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwt);
         MockHttpServletResponse response = new MockHttpServletResponse();
 
-        when(jwtService.extractUsername(jwt)).thenReturn("user@example.com");
+        when(jwtService.verifyToken(jwt)).thenReturn(Jwts.claims().setSubject("user@example.com"));
         when(userDetailsService.loadUserByUsername("user@example.com"))
                 .thenThrow(new ResourceNotFoundException(message));
 
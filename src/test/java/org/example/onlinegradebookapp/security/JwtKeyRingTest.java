@@ -0,0 +1,204 @@
+package org.example.onlinegradebookapp.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.example.onlinegradebookapp.config.JwtKeyProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import javax.crypto.SecretKey;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+public class JwtKeyRingTest {
+    private static final String OLD_SECRET = "C4URJAVnncZ0Ctas54+xCmF7yRuMyYX7JKHotXQY0uKGKp+fBl/q2B2s0ib30nnz";
+    private static final String NEW_SECRET = "Qm9RZ2V5c0Zvck5ld1Rva2Vuc1NpZ25lZEFmdGVyVGhlUm90YXRpb24xMjM0NTY=";
+
+    private MutableClock clock;
+    private JwtKeyProperties properties;
+    private CustomUserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+        properties = new JwtKeyProperties();
+        properties.setActiveKeyId("old");
+        properties.getKeys().put("old", OLD_SECRET);
+        properties.setGracePeriod(Duration.ofMinutes(10));
+        userDetails = new CustomUserDetails(1L, "teacher@gmail.com", "password",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_TEACHER")));
+    }
+
+    @Test
+    void generateToken_shouldPutActiveKeyIdIntoHeader() {
+        JwtService jwtService = new JwtService(new JwtKeyRing(properties, clock));
+
+        String token = jwtService.generateToken(userDetails);
+
+        assertThat(Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Base64.getDecoder().decode(OLD_SECRET)))
+                .build().parseClaimsJws(token).getHeader().getKeyId()).isEqualTo("old");
+    }
+
+    @Test
+    void reload_shouldSignWithNewKey_andKeepVerifyingTokensOfOverlappingOldKey() {
+        JwtKeyRing keyRing = new JwtKeyRing(properties, clock);
+        JwtService jwtService = new JwtService(keyRing);
+        String oldToken = jwtService.generateToken(userDetails);
+
+        properties.getKeys().put("new", NEW_SECRET);
+        properties.setActiveKeyId("new");
+        keyRing.reload();
+        String newToken = jwtService.generateToken(userDetails);
+
+        assertThat(keyRing.activeKey().getId()).isEqualTo("new");
+        assertThat(jwtService.verifyToken(newToken).getSubject()).isEqualTo("teacher@gmail.com");
+        assertThat(jwtService.verifyToken(oldToken).getSubject()).isEqualTo("teacher@gmail.com");
+    }
+
+    @Test
+    void reload_shouldAcceptRemovedKeyOnlyDuringGracePeriod() {
+        JwtKeyRing keyRing = new JwtKeyRing(properties, clock);
+        JwtService jwtService = new JwtService(keyRing);
+        String oldToken = jwtService.generateToken(userDetails);
+        jwtService.verifyToken(oldToken);
+
+        properties.getKeys().clear();
+        properties.getKeys().put("new", NEW_SECRET);
+        properties.setActiveKeyId("new");
+        keyRing.reload();
+
+        clock.advance(Duration.ofMinutes(5));
+        assertThat(jwtService.verifyToken(oldToken).getSubject()).isEqualTo("teacher@gmail.com");
+
+        clock.advance(Duration.ofMinutes(6));
+        assertThat(keyRing.accepts("old")).isFalse();
+        assertThatThrownBy(() -> jwtService.verifyToken(oldToken)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void reload_shouldReuseBuiltKey_whenSecretUnchanged() {
+        JwtKeyRing keyRing = new JwtKeyRing(properties, clock);
+        JwtKeyRing.SigningKey before = keyRing.activeKey();
+
+        keyRing.reload();
+
+        assertThat(keyRing.activeKey().getKey()).isSameAs(before.getKey());
+    }
+
+    @Test
+    void reload_shouldKeepCurrentKeys_whenActiveKeyIsMissing() {
+        JwtKeyRing keyRing = new JwtKeyRing(properties, clock);
+
+        properties.setActiveKeyId("missing");
+
+        assertThatThrownBy(keyRing::reload).isInstanceOf(IllegalStateException.class);
+        assertThat(keyRing.activeKey().getId()).isEqualTo("old");
+    }
+
+    @Test
+    void resolveSigningKey_shouldRejectUnknownKeyId() {
+        JwtService jwtService = new JwtService(new JwtKeyRing(properties, clock));
+        String token = Jwts.builder()
+                .setHeaderParam("kid", "unknown")
+                .setSubject("teacher@gmail.com")
+                .setExpiration(Date.from(clock.instant().plusSeconds(600)))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(OLD_SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThatThrownBy(() -> jwtService.verifyToken(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void reload_shouldRotateKeystoreKeyInTwoSteps(@TempDir Path dir) throws Exception {
+        Path keystorePath = dir.resolve("jwt-keys.p12");
+        Path activeKeyFile = dir.resolve("active-key-id");
+        writeKeystore(keystorePath, "old", OLD_SECRET);
+        Files.writeString(activeKeyFile, "old\n");
+        properties.setActiveKeyId(null);
+        properties.setActiveKeyFile(activeKeyFile.toString());
+        properties.getKeys().clear();
+        properties.getKeystore().setPath(keystorePath.toString());
+        properties.getKeystore().setPassword("changeit");
+        JwtKeyRing keyRing = new JwtKeyRing(properties, clock);
+        JwtService jwtService = new JwtService(keyRing);
+        String oldToken = jwtService.generateToken(userDetails);
+
+        // Step 1: the new key is published and accepted, but the old one still signs
+        writeKeystore(keystorePath, "new", NEW_SECRET, "old", OLD_SECRET);
+        keyRing.reload();
+        assertThat(keyRing.activeKey().getId()).isEqualTo("old");
+        assertThat(keyRing.accepts("new")).isTrue();
+
+        // Step 2: the new key is activated; tokens of the old key stay valid while it is in the keystore
+        Files.writeString(activeKeyFile, "new\n");
+        keyRing.reload();
+        assertThat(keyRing.activeKey().getId()).isEqualTo("new");
+        assertThat(jwtService.verifyToken(oldToken).getSubject()).isEqualTo("teacher@gmail.com");
+    }
+
+    // Entries are given as alias, secret, alias, secret...; aliases already in the keystore are kept
+    private static void writeKeystore(Path path, String... aliasesAndSecrets) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        char[] password = "changeit".toCharArray();
+        if(Files.exists(path)) {
+            try(var in = Files.newInputStream(path)) {
+                keyStore.load(in, password);
+            }
+        }
+        for(int i = 0; i < aliasesAndSecrets.length; i += 2) {
+            if(keyStore.containsAlias(aliasesAndSecrets[i])) {
+                continue;
+            }
+            SecretKey key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(aliasesAndSecrets[i + 1]));
+            keyStore.setEntry(aliasesAndSecrets[i], new KeyStore.SecretKeyEntry(key),
+                    new KeyStore.PasswordProtection(password));
+        }
+        try(OutputStream out = Files.newOutputStream(path)) {
+            keyStore.store(out, password);
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public java.time.ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package org.example.onlinegradebookapp.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.example.onlinegradebookapp.config.JwtKeyProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -9,6 +12,7 @@ import java.util.Collections;
 import java.util.Date;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
 public class JwtServiceTest {
     private JwtService jwtService;
@@ -16,7 +20,10 @@ public class JwtServiceTest {
 
     @BeforeEach
     public void setUp() {
-        jwtService = new JwtService();
+        JwtKeyProperties properties = new JwtKeyProperties();
+        properties.setActiveKeyId("default");
+        properties.getKeys().put("default", "C4URJAVnncZ0Ctas54+xCmF7yRuMyYX7JKHotXQY0uKGKp+fBl/q2B2s0ib30nnz");
+        jwtService = new JwtService(new JwtKeyRing(properties));
         userDetails = new CustomUserDetails(
                 1L,
                 "student@gmail.com",
@@ -31,6 +38,15 @@ public class JwtServiceTest {
         assertThat(token).isNotBlank();
     }
 
+    @Test
+    void generateToken_shouldAssignUniqueTokenId() {
+        Claims first = jwtService.verifyToken(jwtService.generateToken(userDetails));
+        Claims second = jwtService.verifyToken(jwtService.generateToken(userDetails));
+
+        assertThat(first.getId()).isNotBlank();
+        assertThat(first.getId()).isNotEqualTo(second.getId());
+    }
+
     @Test
     void extractUsername_shouldReturnCorrectEmail() {
         String token = jwtService.generateToken(userDetails);
@@ -73,4 +89,52 @@ public class JwtServiceTest {
         String subject = jwtService.extractClaim(token, Claims::getSubject);
         assertThat(subject).isEqualTo(userDetails.getUsername());
     }
+
+    @Test
+    void verifyToken_shouldReturnClaimsAndServeRepeatedCallsFromCache() {
+        String token = jwtService.generateToken(userDetails);
+
+        Claims first = jwtService.verifyToken(token);
+        Claims second = jwtService.verifyToken(token);
+
+        assertThat(first.getSubject()).isEqualTo(userDetails.getUsername());
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void verifyToken_shouldRejectTamperedToken() {
+        String token = jwtService.generateToken(userDetails);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtService.verifyToken(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void isTokenValid_shouldCheckClaimsOfVerifiedToken() {
+        Claims claims = jwtService.verifyToken(jwtService.generateToken(userDetails));
+
+        assertThat(jwtService.isTokenValid(claims, userDetails)).isTrue();
+    }
+
+    @Test
+    void extractPrincipal_shouldRestorePrincipalFromTokenClaims() {
+        CustomUserDetails teacher = new CustomUserDetails(7L, "teacher@gmail.com", "encodedPassword",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_TEACHER")), 3);
+        Claims claims = jwtService.verifyToken(jwtService.generateToken(teacher));
+
+        CustomUserDetails principal = jwtService.extractPrincipal(claims);
+
+        assertThat(principal.getId()).isEqualTo(7L);
+        assertThat(principal.getUsername()).isEqualTo("teacher@gmail.com");
+        assertThat(principal.getCredentialVersion()).isEqualTo(3);
+        assertThat(principal.getPassword()).isNull();
+        assertThat(principal.getAuthorities().iterator().next().getAuthority()).isEqualTo("ROLE_TEACHER");
+    }
+
+    @Test
+    void extractPrincipal_shouldReturnNull_whenTokenHasNoPrincipalClaims() {
+        Claims claims = Jwts.claims().setSubject("student@gmail.com");
+
+        assertThat(jwtService.extractPrincipal(claims)).isNull();
+    }
 }
@@ -0,0 +1,99 @@
+package org.example.onlinegradebookapp.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.onlinegradebookapp.config.LoginThrottleProperties;
+import org.example.onlinegradebookapp.exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
+
+public class LoginRateLimiterTest {
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private LoginRateLimiter rateLimiter;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        LoginThrottleProperties properties = new LoginThrottleProperties();
+        properties.setEmailCapacity(3);
+        properties.setEmailRefillPeriod(Duration.ofSeconds(10));
+        properties.setIpCapacity(5);
+        properties.setIpRefillPeriod(Duration.ofSeconds(2));
+        rateLimiter = new LoginRateLimiter(properties, clock::get);
+        registry = new SimpleMeterRegistry();
+        rateLimiter.bindTo(registry);
+    }
+
+    @Test
+    void acquire_shouldAllowBurstUpToEmailCapacity() {
+        for(int i = 0; i < 3; i++) {
+            rateLimiter.acquire("teacher@gmail.com", "10.0.0." + i);
+        }
+
+        assertThatThrownBy(() -> rateLimiter.acquire("Teacher@gmail.com ", "10.0.0.9"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .extracting("retryAfterSeconds").isEqualTo(10L);
+        assertThat(registry.get("login.throttled").tag("limit", "email").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void acquire_shouldRefillTokensContinuously() {
+        for(int i = 0; i < 3; i++) {
+            rateLimiter.acquire("teacher@gmail.com", "10.0.0." + i);
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertThatThrownBy(() -> rateLimiter.acquire("teacher@gmail.com", "10.0.0.9"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .extracting("retryAfterSeconds").isEqualTo(1L);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThatCode(() -> rateLimiter.acquire("teacher@gmail.com", "10.0.0.9")).doesNotThrowAnyException();
+        assertThatThrownBy(() -> rateLimiter.acquire("teacher@gmail.com", "10.0.0.9"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void acquire_shouldLimitAttemptsFromOneIpAcrossEmails() {
+        for(int i = 0; i < 5; i++) {
+            rateLimiter.acquire("user" + i + "@gmail.com", "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> rateLimiter.acquire("other@gmail.com", "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .extracting("retryAfterSeconds").isEqualTo(2L);
+        assertThat(registry.get("login.throttled").tag("limit", "ip").counter().count()).isEqualTo(1.0);
+        assertThatCode(() -> rateLimiter.acquire("other@gmail.com", "10.0.0.2")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void acquire_shouldNotHandOutMoreTokensThanCapacity_whenCalledConcurrently() throws InterruptedException {
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for(int i = 0; i < 200; i++) {
+            String ip = "10.0.1." + i;
+            executor.execute(() -> {
+                try {
+                    rateLimiter.acquire("teacher@gmail.com", ip);
+                    allowed.incrementAndGet();
+                } catch(TooManyRequestsException ignored) {
+                    // Expected for all attempts above capacity
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(allowed.get()).isEqualTo(3);
+    }
+}
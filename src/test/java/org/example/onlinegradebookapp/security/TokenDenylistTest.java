@@ -0,0 +1,51 @@
+package org.example.onlinegradebookapp.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class TokenDenylistTest {
+    private final TokenDenylist tokenDenylist = new TokenDenylist();
+    private final Instant now = Instant.now();
+
+    @Test
+    void isRevoked_shouldReturnTrueOnlyForAddedIds() {
+        tokenDenylist.add("revoked", now.plusSeconds(600));
+
+        assertThat(tokenDenylist.isRevoked("revoked")).isTrue();
+        assertThat(tokenDenylist.isRevoked("other")).isFalse();
+        assertThat(tokenDenylist.isRevoked(null)).isFalse();
+    }
+
+    @Test
+    void isRevoked_shouldFindEveryAddedId_whenManyIdsAdded() {
+        String[] ids = new String[10_000];
+        for(int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID().toString();
+            tokenDenylist.add(ids[i], now.plusSeconds(600));
+        }
+
+        for(String id : ids) {
+            assertThat(tokenDenylist.isRevoked(id)).isTrue();
+        }
+        assertThat(tokenDenylist.isRevoked(UUID.randomUUID().toString())).isFalse();
+        assertThat(tokenDenylist.size()).isEqualTo(ids.length);
+    }
+
+    @Test
+    void replaceAll_shouldPruneExpiredIds_andKeepLocallyAddedOnes() {
+        tokenDenylist.add("expired", now.minusSeconds(1));
+        tokenDenylist.add("local", now.plusSeconds(600));
+
+        tokenDenylist.replaceAll(Map.of("persisted", now.plusSeconds(600)), now);
+
+        assertThat(tokenDenylist.isRevoked("expired")).isFalse();
+        assertThat(tokenDenylist.isRevoked("local")).isTrue();
+        assertThat(tokenDenylist.isRevoked("persisted")).isTrue();
+        assertThat(tokenDenylist.size()).isEqualTo(2);
+    }
+}
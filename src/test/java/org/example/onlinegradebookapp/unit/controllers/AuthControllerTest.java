@@ -1,26 +1,33 @@
 package org.example.onlinegradebookapp.unit.controllers;
 
 import org.example.onlinegradebookapp.controller.AuthController;
+import org.example.onlinegradebookapp.exception.BadRequestException;
+import org.example.onlinegradebookapp.exception.TooManyRequestsException;
 import org.example.onlinegradebookapp.exception.UnauthorizedException;
 import org.example.onlinegradebookapp.payload.request.LoginDto;
+import org.example.onlinegradebookapp.payload.request.LogoutDto;
+import org.example.onlinegradebookapp.payload.request.RefreshTokenDto;
 import org.example.onlinegradebookapp.payload.request.StudentRegistrationDto;
+import org.example.onlinegradebookapp.payload.request.TokenRevocationDto;
 import org.example.onlinegradebookapp.payload.request.UserRegistrationDto;
+import org.example.onlinegradebookapp.payload.response.AuthTokensResponseDto;
 import org.example.onlinegradebookapp.security.CustomUserDetails;
-import org.example.onlinegradebookapp.security.JwtService;
+import org.example.onlinegradebookapp.security.LoginRateLimiter;
 import org.example.onlinegradebookapp.service.CustomUserDetailsService;
+import org.example.onlinegradebookapp.service.RefreshTokenService;
 import org.example.onlinegradebookapp.service.StudentService;
+import org.example.onlinegradebookapp.service.TokenRevocationService;
 import org.example.onlinegradebookapp.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 
-import java.util.Map;
-
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -29,19 +36,26 @@ public class AuthControllerTest {
     private AuthController authController;
     private UserService userService;
     private StudentService studentService;
-    private JwtService jwtService;
+    private RefreshTokenService refreshTokenService;
     private CustomUserDetailsService userDetailsService;
     private AuthenticationManager authenticationManager;
+    private LoginRateLimiter loginRateLimiter;
+    private TokenRevocationService tokenRevocationService;
+    private MockHttpServletRequest request;
 
     @BeforeEach
     void setUp() {
-        jwtService = Mockito.mock(JwtService.class);
+        refreshTokenService = Mockito.mock(RefreshTokenService.class);
         studentService = Mockito.mock(StudentService.class);
         userService = Mockito.mock(UserService.class);
         authenticationManager = Mockito.mock(AuthenticationManager.class);
         userDetailsService = Mockito.mock(CustomUserDetailsService.class);
-        authController = new AuthController(userService,
-                studentService, authenticationManager, jwtService, userDetailsService);
+        loginRateLimiter = Mockito.mock(LoginRateLimiter.class);
+        tokenRevocationService = Mockito.mock(TokenRevocationService.class);
+        authController = new AuthController(userService, studentService, authenticationManager, userDetailsService,
+                refreshTokenService, loginRateLimiter, tokenRevocationService);
+        request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
     }
 
     @Test
@@ -76,16 +90,17 @@ public class AuthControllerTest {
 
         when(authenticationManager.authenticate(any())).thenReturn(authentication);
         when(userDetailsService.loadUserByUsername(dto.getEmail())).thenReturn(userDetails);
-        when(jwtService.generateToken(userDetails)).thenReturn("mockToken");
+        when(refreshTokenService.issueTokens(userDetails))
+                .thenReturn(new AuthTokensResponseDto(dto.getEmail(), "mockToken", "mockRefreshToken"));
 
-        ResponseEntity<?> response = authController.login(dto);
+        ResponseEntity<?> response = authController.login(dto, request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        @SuppressWarnings("unchecked")
-        Map<String, String> body = (Map<String, String>) response.getBody();
+        AuthTokensResponseDto body = (AuthTokensResponseDto) response.getBody();
         assert body != null;
-        assertEquals(dto.getEmail(), body.get("email"));
-        assertEquals("mockToken", body.get("token"));
+        assertEquals(dto.getEmail(), body.getEmail());
+        assertEquals("mockToken", body.getToken());
+        assertEquals("mockRefreshToken", body.getRefreshToken());
     }
 
     @Test
@@ -97,6 +112,98 @@ public class AuthControllerTest {
         when(authenticationManager.authenticate(any()))
                 .thenThrow(new BadCredentialsException("Bad credentials"));
 
-        assertThrows(UnauthorizedException.class, () -> authController.login(dto));
+        assertThrows(UnauthorizedException.class, () -> authController.login(dto, request));
+    }
+
+    @Test
+    void login_ThrowsTooManyRequestsException_WhenThrottled() {
+        LoginDto dto = new LoginDto();
+        dto.setEmail("email@gmail.com");
+        dto.setPassword("password");
+
+        doThrow(new TooManyRequestsException("Too many login attempts", 5))
+                .when(loginRateLimiter).acquire("email@gmail.com", "10.0.0.1");
+
+        assertThrows(TooManyRequestsException.class, () -> authController.login(dto, request));
+        verifyNoInteractions(authenticationManager);
+    }
+
+    @Test
+    void refresh_ReturnsNewTokens_WhenRefreshTokenValid() throws UnauthorizedException {
+        RefreshTokenDto dto = new RefreshTokenDto();
+        dto.setRefreshToken("refreshToken");
+        AuthTokensResponseDto tokens = new AuthTokensResponseDto("email@gmail.com", "newToken", "newRefreshToken");
+
+        when(refreshTokenService.refresh("refreshToken")).thenReturn(tokens);
+
+        ResponseEntity<?> response = authController.refresh(dto);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(tokens, response.getBody());
+    }
+
+    @Test
+    void refresh_ThrowsUnauthorizedException_WhenRefreshTokenInvalid() {
+        RefreshTokenDto dto = new RefreshTokenDto();
+        dto.setRefreshToken("usedToken");
+
+        when(refreshTokenService.refresh("usedToken")).thenThrow(new UnauthorizedException("Refresh token has already been used"));
+
+        assertThrows(UnauthorizedException.class, () -> authController.refresh(dto));
+    }
+
+    @Test
+    void logout_RevokesAccessAndRefreshToken() {
+        LogoutDto dto = new LogoutDto();
+        dto.setRefreshToken("refreshToken");
+
+        ResponseEntity<?> response = authController.logout("Bearer accessToken", dto);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(tokenRevocationService).revoke("accessToken");
+        verify(refreshTokenService).revoke("refreshToken");
+    }
+
+    @Test
+    void logout_ThrowsUnauthorizedException_WhenTokenMissing() {
+        assertThrows(UnauthorizedException.class, () -> authController.logout(null, null));
+        verifyNoInteractions(tokenRevocationService);
+    }
+
+    @Test
+    void revoke_RevokesGivenToken() {
+        TokenRevocationDto dto = new TokenRevocationDto();
+        dto.setToken("leakedToken");
+
+        ResponseEntity<?> response = authController.revoke(dto);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(tokenRevocationService).revoke("leakedToken");
+    }
+
+    @Test
+    void revoke_RevokesTokenById() {
+        TokenRevocationDto dto = new TokenRevocationDto();
+        dto.setJti("jti-1");
+
+        ResponseEntity<?> response = authController.revoke(dto);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(tokenRevocationService).revokeById("jti-1");
+        verify(tokenRevocationService, never()).revoke(anyString());
+    }
+
+    @Test
+    void revoke_ThrowsBadRequestException_WhenNeitherTokenNorIdGiven() {
+        assertThrows(BadRequestException.class, () -> authController.revoke(new TokenRevocationDto()));
+        verifyNoInteractions(tokenRevocationService);
+    }
+
+    @Test
+    void revokeUserTokens_RevokesAllTokensOfUser() {
+        ResponseEntity<?> response = authController.revokeUserTokens(3L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(tokenRevocationService).revokeUserTokens(3L);
     }
 }
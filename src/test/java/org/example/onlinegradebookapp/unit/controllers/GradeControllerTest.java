@@ -5,19 +5,20 @@ import org.example.onlinegradebookapp.entity.Grade;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.payload.request.GradeDto;
 import org.example.onlinegradebookapp.payload.request.GradeUpdateDto;
+import org.example.onlinegradebookapp.payload.response.CursorPage;
+import org.example.onlinegradebookapp.payload.response.GradeResponseDto;
 import org.example.onlinegradebookapp.service.GradeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.ObjectError;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -36,26 +37,36 @@ public class GradeControllerTest {
     }
 
     @Test
-    void getAllGrades_shouldReturnListAndOk() {
-        List<Grade> grades = Arrays.asList(new Grade(), new Grade());
-        when(gradeService.findAllGrades()).thenReturn(grades);
+    void getAllGrades_shouldReturnPageAndOk() {
+        CursorPage<GradeResponseDto> grades = new CursorPage<>(Collections.emptyList(), null);
+        when(gradeService.findGrades(null, 20, 1L, null, null, null)).thenReturn(grades);
 
-        ResponseEntity<?> response = gradeController.getAllGrades();
+        ResponseEntity<?> response = gradeController.getAllGrades(null, 20, 1L, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(grades, response.getBody());
-        verify(gradeService, times(1)).findAllGrades();
+        verify(gradeService, times(1)).findGrades(null, 20, 1L, null, null, null);
+    }
+
+    @Test
+    void exportGrades_shouldStreamNdjsonToResponse() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        gradeController.exportGrades(response);
+
+        assertEquals(GradeController.NDJSON_MEDIA_TYPE, response.getContentType().split(";")[0]);
+        verify(gradeService, times(1)).exportGrades(response.getOutputStream());
     }
 
     @Test
     void getAllGradeById_shouldReturnGradeAndOk() {
-        Grade knowledgeTest = new Grade();
-        when(gradeService.findGradeById(1L)).thenReturn(knowledgeTest);
+        GradeResponseDto grade = new GradeResponseDto(1L, BigDecimal.valueOf(4.0), null, 1L, 1L, null, null);
+        when(gradeService.findGradeById(1L)).thenReturn(grade);
 
         ResponseEntity<?> response = gradeController.getGradeById(1L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(knowledgeTest, response.getBody());
+        assertEquals(grade, response.getBody());
         verify(gradeService, times(1)).findGradeById(1L);
     }
 
@@ -74,6 +85,20 @@ public class GradeControllerTest {
         verify(gradeService, times(1)).addGrade(dto);
     }
 
+    @Test
+    void saveGrade_shouldCallServiceAndReturnOk() {
+        GradeDto dto = new GradeDto();
+        dto.setGrade(BigDecimal.valueOf(4.0));
+        dto.setTestId(2L);
+        dto.setStudentId(3L);
+
+        ResponseEntity<?> response = gradeController.saveGrade(dto);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Grade saved successfully", response.getBody());
+        verify(gradeService, times(1)).saveGrade(dto);
+    }
+
     @Test
     void updateGrade_shouldUpdateAndReturnOk_whenNoValidationErrors() {
         GradeUpdateDto dto = new GradeUpdateDto();
@@ -1,11 +1,17 @@
 package org.example.onlinegradebookapp.unit.controllers;
 
 import org.example.onlinegradebookapp.controller.KnowledgeTestController;
-import org.example.onlinegradebookapp.entity.KnowledgeTest;
 import org.example.onlinegradebookapp.entity.TestCategory.TestCategory;
 import org.example.onlinegradebookapp.exception.BadRequestException;
+import org.example.onlinegradebookapp.payload.request.GradeBatchEntryDto;
 import org.example.onlinegradebookapp.payload.request.KnowledgeTestDto;
 import org.example.onlinegradebookapp.payload.request.KnowledgeTestUpdateDto;
+import org.example.onlinegradebookapp.payload.response.GradeBatchResponseDto;
+import org.example.onlinegradebookapp.payload.response.GradeSheetEntryResponseDto;
+import org.example.onlinegradebookapp.payload.response.GradeStatsResponseDto;
+import org.example.onlinegradebookapp.payload.response.KnowledgeTestResponseDto;
+import org.example.onlinegradebookapp.service.GradeService;
+import org.example.onlinegradebookapp.service.GradeStatisticsService;
 import org.example.onlinegradebookapp.service.KnowledgeTestService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +21,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.ObjectError;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
@@ -26,17 +33,23 @@ import static org.mockito.Mockito.*;
 
 public class KnowledgeTestControllerTest {
     private KnowledgeTestService testService;
+    private GradeService gradeService;
+    private GradeStatisticsService statisticsService;
     private KnowledgeTestController testController;
 
     @BeforeEach
     public void setUp() {
         testService = Mockito.mock(KnowledgeTestService.class);
-        testController = new KnowledgeTestController(testService);
+        gradeService = Mockito.mock(GradeService.class);
+        statisticsService = Mockito.mock(GradeStatisticsService.class);
+        testController = new KnowledgeTestController(testService, gradeService, statisticsService);
     }
 
     @Test
     void getAllKnowledgeTests_shouldReturnListAndOk() {
-        List<KnowledgeTest> tests = Arrays.asList(new KnowledgeTest(), new KnowledgeTest());
+        List<KnowledgeTestResponseDto> tests = Arrays.asList(
+                new KnowledgeTestResponseDto(1L, "Test 1", TestCategory.QUIZ, LocalDate.now().plusDays(1), 1L, 1L, 1L, null, null),
+                new KnowledgeTestResponseDto(2L, "Test 2", TestCategory.HOMEWORK, LocalDate.now().plusDays(2), 1L, 1L, 1L, null, null));
         when(testService.findAllKnowledgeTests()).thenReturn(tests);
 
         ResponseEntity<?> response = testController.getAllKnowledgeTests();
@@ -48,7 +61,8 @@ public class KnowledgeTestControllerTest {
 
     @Test
     void getAllKnowledgeTestById_shouldReturnKnowledgeTestAndOk() {
-        KnowledgeTest knowledgeTest = new KnowledgeTest();
+        KnowledgeTestResponseDto knowledgeTest = new KnowledgeTestResponseDto(1L, "Test 1", TestCategory.QUIZ,
+                LocalDate.now().plusDays(1), 1L, 1L, 1L, null, null);
         when(testService.findKnowledgeTestById(1L)).thenReturn(knowledgeTest);
 
         ResponseEntity<?> response = testController.getKnowledgeTestById(1L);
@@ -58,6 +72,48 @@ public class KnowledgeTestControllerTest {
         verify(testService, times(1)).findKnowledgeTestById(1L);
     }
 
+    @Test
+    void getGradeSheet_shouldReturnSheetAndOk() {
+        List<GradeSheetEntryResponseDto> sheet = List.of(
+                new GradeSheetEntryResponseDto(1L, "Jan", "Kowalski", 10L, BigDecimal.valueOf(5.0), null),
+                new GradeSheetEntryResponseDto(2L, "Anna", "Nowak", null, null, null));
+        when(testService.findGradeSheet(1L)).thenReturn(sheet);
+
+        ResponseEntity<?> response = testController.getGradeSheet(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(sheet, response.getBody());
+        verify(testService, times(1)).findGradeSheet(1L);
+    }
+
+    @Test
+    void getTestStats_shouldReturnStatsAndOk() {
+        GradeStatsResponseDto stats = new GradeStatsResponseDto(2L, 4.5, 4.5, 0.5, 0L, 0L, 0L, 1L, 1L, 0L);
+        when(statisticsService.findTestStats(1L)).thenReturn(stats);
+
+        ResponseEntity<?> response = testController.getTestStats(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(stats, response.getBody());
+        verify(statisticsService, times(1)).findTestStats(1L);
+    }
+
+    @Test
+    void createGradesBatch_shouldReturnResultAndOk() {
+        GradeBatchEntryDto entry = new GradeBatchEntryDto();
+        entry.setStudentId(1L);
+        entry.setGrade(BigDecimal.valueOf(5.0));
+        List<GradeBatchEntryDto> grades = List.of(entry);
+        GradeBatchResponseDto result = new GradeBatchResponseDto(1, List.of());
+        when(gradeService.addGradesBatch(1L, grades)).thenReturn(result);
+
+        ResponseEntity<?> response = testController.createGradesBatch(1L, grades);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(result, response.getBody());
+        verify(gradeService, times(1)).addGradesBatch(1L, grades);
+    }
+
     @Test
     void createKnowledgeTest_shouldCallServiceAndReturnCreated() {
         KnowledgeTestDto dto = new KnowledgeTestDto();
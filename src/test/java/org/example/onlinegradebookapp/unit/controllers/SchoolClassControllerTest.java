@@ -1,8 +1,11 @@
 package org.example.onlinegradebookapp.unit.controllers;
 
 import org.example.onlinegradebookapp.controller.SchoolClassController;
-import org.example.onlinegradebookapp.entity.SchoolClass;
 import org.example.onlinegradebookapp.payload.request.SchoolClassDto;
+import org.example.onlinegradebookapp.payload.response.GradeStatsResponseDto;
+import org.example.onlinegradebookapp.payload.response.SchoolClassResponseDto;
+import org.example.onlinegradebookapp.payload.response.WeightedAverageResponseDto;
+import org.example.onlinegradebookapp.service.GradeStatisticsService;
 import org.example.onlinegradebookapp.service.SchoolClassService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +13,7 @@ import org.mockito.Mockito;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 
@@ -18,17 +22,21 @@ import static org.mockito.Mockito.*;
 
 public class SchoolClassControllerTest {
     private SchoolClassService classService;
+    private GradeStatisticsService statisticsService;
     private SchoolClassController classController;
 
     @BeforeEach
     void setUp() {
         classService = Mockito.mock(SchoolClassService.class);
-        classController = new SchoolClassController(classService);
+        statisticsService = Mockito.mock(GradeStatisticsService.class);
+        classController = new SchoolClassController(classService, statisticsService);
     }
 
     @Test
     void getAllSchoolClasses_shouldReturnListAndOk() {
-        List<SchoolClass> classes = Arrays.asList(new SchoolClass(), new SchoolClass());
+        List<SchoolClassResponseDto> classes = Arrays.asList(
+                new SchoolClassResponseDto(1L, "1A", null, null, null),
+                new SchoolClassResponseDto(2L, "1B", null, null, null));
         when(classService.findAllSchoolClasses()).thenReturn(classes);
 
         ResponseEntity<?> response = classController.getAllSchoolClasses();
@@ -40,7 +48,7 @@ public class SchoolClassControllerTest {
 
     @Test
     void getSchoolClassById_shouldReturnClassAndOk() {
-        SchoolClass schoolClass = new SchoolClass();
+        SchoolClassResponseDto schoolClass = new SchoolClassResponseDto(1L, "1A", null, null, null);
         when(classService.findSchoolClassById(1L)).thenReturn(schoolClass);
 
         ResponseEntity<?> response = classController.getSchoolClassById(1L);
@@ -50,6 +58,31 @@ public class SchoolClassControllerTest {
         verify(classService, times(1)).findSchoolClassById(1L);
     }
 
+    @Test
+    void getClassStats_shouldReturnStatsAndOk() {
+        GradeStatsResponseDto stats = new GradeStatsResponseDto(1L, 5.0, 5.0, 0.0, 0L, 0L, 0L, 0L, 1L, 0L);
+        when(statisticsService.findClassStats(1L)).thenReturn(stats);
+
+        ResponseEntity<?> response = classController.getClassStats(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(stats, response.getBody());
+        verify(statisticsService, times(1)).findClassStats(1L);
+    }
+
+    @Test
+    void getWeightedAverages_shouldReturnAveragesAndOk() {
+        List<WeightedAverageResponseDto> averages = List.of(
+                new WeightedAverageResponseDto(1L, 1L, new BigDecimal("4.50"), 3));
+        when(statisticsService.findWeightedAverages(1L)).thenReturn(averages);
+
+        ResponseEntity<?> response = classController.getWeightedAverages(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(averages, response.getBody());
+        verify(statisticsService, times(1)).findWeightedAverages(1L);
+    }
+
     @Test
     void createSchoolClass_shouldCallServiceAndReturnCreated() {
         SchoolClassDto dto = new SchoolClassDto();
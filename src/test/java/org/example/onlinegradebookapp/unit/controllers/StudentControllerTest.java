@@ -4,6 +4,8 @@ import org.example.onlinegradebookapp.controller.StudentController;
 import org.example.onlinegradebookapp.entity.Student;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.payload.request.StudentUpdateDto;
+import org.example.onlinegradebookapp.payload.response.StudentResponseDto;
+import org.example.onlinegradebookapp.payload.response.SubjectGradesResponseDto;
 import org.example.onlinegradebookapp.service.StudentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,7 +35,9 @@ public class StudentControllerTest {
 
     @Test
     void getAllStudents_shouldReturnListAndOk() {
-        List<Student> students = Arrays.asList(new Student(), new Student());
+        List<StudentResponseDto> students = Arrays.asList(
+                new StudentResponseDto(1L, "student1@gmail.com", "Jan", "Kowalski", null, null, null),
+                new StudentResponseDto(2L, "student2@gmail.com", "Anna", "Nowak", 1L, null, null));
         when(studentService.findAllStudents()).thenReturn(students);
 
         ResponseEntity<?> response = studentController.getAllStudents();
@@ -45,11 +49,7 @@ public class StudentControllerTest {
 
     @Test
     void getStudentById_shouldReturnStudentAndOk() {
-        Student student = new Student();
-        student.setEmail("student@gmail.com");
-        student.setPassword("password");
-        student.setFirstName("Student");
-        student.setLastName("Test");
+        StudentResponseDto student = new StudentResponseDto(1L, "student@gmail.com", "Student", "Test", null, null, null);
         when(studentService.findStudentById(1L)).thenReturn(student);
 
         ResponseEntity<?> response = studentController.getStudentById(1L);
@@ -59,6 +59,18 @@ public class StudentControllerTest {
         verify(studentService, times(1)).findStudentById(1L);
     }
 
+    @Test
+    void getStudentGrades_shouldReturnGradesAndOk() {
+        List<SubjectGradesResponseDto> grades = List.of(new SubjectGradesResponseDto(1L, "matematyka", List.of()));
+        when(studentService.findStudentGrades(1L)).thenReturn(grades);
+
+        ResponseEntity<?> response = studentController.getStudentGrades(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(grades, response.getBody());
+        verify(studentService, times(1)).findStudentGrades(1L);
+    }
+
     @Test
     void updateStudent_shouldUpdateAndReturnOk_whenNoValidationErrors() {
         StudentUpdateDto dto = new StudentUpdateDto();
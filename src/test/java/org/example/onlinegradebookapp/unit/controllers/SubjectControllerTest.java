@@ -3,6 +3,7 @@ package org.example.onlinegradebookapp.unit.controllers;
 import org.example.onlinegradebookapp.controller.SubjectController;
 import org.example.onlinegradebookapp.entity.Subject;
 import org.example.onlinegradebookapp.payload.request.SubjectDto;
+import org.example.onlinegradebookapp.payload.response.SubjectResponseDto;
 import org.example.onlinegradebookapp.service.SubjectService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,7 +29,9 @@ public class SubjectControllerTest {
 
     @Test
     void getAllSubjects_shouldReturnListAndOk() {
-        List<Subject> subjects = Arrays.asList(new Subject(), new Subject());
+        List<SubjectResponseDto> subjects = Arrays.asList(
+                new SubjectResponseDto(1L, "matematyka", null, null),
+                new SubjectResponseDto(2L, "historia", null, null));
         when(subjectService.findAllSubjects()).thenReturn(subjects);
 
         ResponseEntity<?> response = subjectController.getAllSubjects();
@@ -40,7 +43,7 @@ public class SubjectControllerTest {
 
     @Test
     void getSubjectById_shouldReturnSubjectAndOk() {
-        Subject subject = new Subject();
+        SubjectResponseDto subject = new SubjectResponseDto(1L, "matematyka", null, null);
         when(subjectService.findSubjectById(1L)).thenReturn(subject);
 
         ResponseEntity<?> response = subjectController.getSubjectById(1L);
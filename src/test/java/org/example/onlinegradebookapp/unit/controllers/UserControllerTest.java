@@ -5,6 +5,7 @@ import org.example.onlinegradebookapp.entity.User;
 import org.example.onlinegradebookapp.entity.UserRole.UserRole;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.payload.request.UserUpdateDto;
+import org.example.onlinegradebookapp.payload.response.UserResponseDto;
 import org.example.onlinegradebookapp.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -34,7 +35,9 @@ public class UserControllerTest {
 
     @Test
     void getAllUsers_shouldReturnUserListAndOkStatus() {
-        List<User> users = Arrays.asList(new User(), new User());
+        List<UserResponseDto> users = Arrays.asList(
+                new UserResponseDto(1L, "admin@gmail.com", "Admin", "Admin", UserRole.ADMIN, null, null, null),
+                new UserResponseDto(2L, "teacher@gmail.com", "Teacher", "One", UserRole.TEACHER, null, null, null));
         when(userService.findAllUsers()).thenReturn(users);
 
         ResponseEntity<?> response = userController.getAllUsers();
@@ -46,12 +49,8 @@ public class UserControllerTest {
 
     @Test
     void getUserById_shouldReturnUserAndOkStatus() {
-        User user = new User();
-        user.setEmail("teacher@gmail.com");
-        user.setPassword("password");
-        user.setFirstName("Teacher");
-        user.setLastName("One");
-        user.setUserRole(UserRole.TEACHER);
+        UserResponseDto user = new UserResponseDto(1L, "teacher@gmail.com", "Teacher", "One",
+                UserRole.TEACHER, null, null, null);
         when(userService.findUserById(1L)).thenReturn(user);
 
         ResponseEntity<?> response = userController.getUserById(1L);
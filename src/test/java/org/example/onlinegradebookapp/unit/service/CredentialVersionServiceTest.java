@@ -0,0 +1,76 @@
+package org.example.onlinegradebookapp.unit.service;
+
+import org.example.onlinegradebookapp.repository.StudentRepository;
+import org.example.onlinegradebookapp.repository.UserRepository;
+import org.example.onlinegradebookapp.security.CustomUserDetails;
+import org.example.onlinegradebookapp.service.CredentialVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CredentialVersionServiceTest {
+    private UserRepository userRepository;
+    private StudentRepository studentRepository;
+    private CredentialVersionService credentialVersionService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        studentRepository = Mockito.mock(StudentRepository.class);
+        credentialVersionService = new CredentialVersionService(userRepository, studentRepository);
+    }
+
+    @Test
+    void isCurrent_shouldQueryVersionOnceAndCacheIt() {
+        when(userRepository.findCredentialVersionById(1L)).thenReturn(Optional.of(2));
+        CustomUserDetails teacher = principal(1L, "ROLE_TEACHER", 2);
+
+        assertTrue(credentialVersionService.isCurrent(teacher));
+        assertTrue(credentialVersionService.isCurrent(teacher));
+
+        verify(userRepository, times(1)).findCredentialVersionById(1L);
+    }
+
+    @Test
+    void isCurrent_shouldReturnFalse_whenVersionChangedAndEvicted() {
+        when(studentRepository.findCredentialVersionById(1L)).thenReturn(Optional.of(0), Optional.of(1));
+        CustomUserDetails student = principal(1L, "ROLE_STUDENT", 0);
+
+        assertTrue(credentialVersionService.isCurrent(student));
+        credentialVersionService.evictStudent(1L);
+
+        assertFalse(credentialVersionService.isCurrent(student));
+        verify(studentRepository, times(2)).findCredentialVersionById(1L);
+    }
+
+    @Test
+    void isCurrent_shouldReturnFalse_whenPrincipalDeleted() {
+        when(userRepository.findCredentialVersionById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(credentialVersionService.isCurrent(principal(1L, "ROLE_ADMIN", 0)));
+    }
+
+    @Test
+    void isCurrent_shouldKeepUsersAndStudentsWithSameIdApart() {
+        when(userRepository.findCredentialVersionById(1L)).thenReturn(Optional.of(0));
+        when(studentRepository.findCredentialVersionById(1L)).thenReturn(Optional.of(4));
+
+        assertTrue(credentialVersionService.isCurrent(principal(1L, "ROLE_TEACHER", 0)));
+        assertTrue(credentialVersionService.isCurrent(principal(1L, "ROLE_STUDENT", 4)));
+    }
+
+    private CustomUserDetails principal(Long id, String role, int credentialVersion) {
+        return new CustomUserDetails(id, "user@gmail.com", null, List.of(new SimpleGrantedAuthority(role)),
+                credentialVersion);
+    }
+}
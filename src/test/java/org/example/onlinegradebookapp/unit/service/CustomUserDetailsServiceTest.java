@@ -1,10 +1,10 @@
 package org.example.onlinegradebookapp.unit.service;
 
-import org.example.onlinegradebookapp.entity.Student;
-import org.example.onlinegradebookapp.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
 import org.example.onlinegradebookapp.entity.UserRole.UserRole;
-import org.example.onlinegradebookapp.repository.StudentRepository;
-import org.example.onlinegradebookapp.repository.UserRepository;
+import org.example.onlinegradebookapp.payload.response.CredentialDetailsDto;
+import org.example.onlinegradebookapp.repository.CredentialRepository;
 import org.example.onlinegradebookapp.security.CustomUserDetails;
 import org.example.onlinegradebookapp.service.CustomUserDetailsService;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,47 +19,34 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 public class CustomUserDetailsServiceTest {
-    private UserRepository userRepository;
-    private StudentRepository studentRepository;
+    private CredentialRepository credentialRepository;
     private CustomUserDetailsService customUserDetailsService;
 
     @BeforeEach
     void setUp() {
-        userRepository = Mockito.mock(UserRepository.class);
-        studentRepository = Mockito.mock(StudentRepository.class);
-        customUserDetailsService = new CustomUserDetailsService(userRepository, studentRepository);
+        credentialRepository = Mockito.mock(CredentialRepository.class);
+        customUserDetailsService = new CustomUserDetailsService(credentialRepository);
     }
 
     @Test
     void loadUserByUsername_shouldReturnUserDetails_whenUserExists() {
-        User user = new User();
-        user.setId(1L);
-        user.setEmail("admin@gmail.com");
-        user.setPassword("encoded-password");
-        user.setRole(UserRole.ADMIN);
-
-        when(userRepository.findByEmail("admin@gmail.com")).thenReturn(Optional.of(user));
+        when(credentialRepository.findDetailsByEmail("admin@gmail.com")).thenReturn(Optional.of(
+                new CredentialDetailsDto(PrincipalType.USER, 1L, "admin@gmail.com", "encoded-password", UserRole.ADMIN, 2)));
 
         CustomUserDetails result = customUserDetailsService.loadUserByUsername("admin@gmail.com");
 
         assertEquals(1L, result.getId());
         assertEquals("admin@gmail.com", result.getUsername());
         assertEquals("encoded-password", result.getPassword());
+        assertEquals(2, result.getCredentialVersion());
         assertTrue(result.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN")));
 
-        verify(userRepository).findByEmail("admin@gmail.com");
-        verifyNoInteractions(studentRepository);
+        verify(credentialRepository).findDetailsByEmail("admin@gmail.com");
     }
 
     @Test
-    void loadUserByUsername_shouldReturnStudentDetails_whenUserNotFoundButStudentExists() {
-        Student student = new Student();
-        student.setId(2L);
-        student.setEmail("student@gmail.com");
-        student.setPassword("student-pass");
-
-        when(userRepository.findByEmail("student@gmail.com")).thenReturn(Optional.empty());
-        when(studentRepository.findByEmail("student@gmail.com")).thenReturn(Optional.of(student));
+    void loadUserByUsername_shouldReturnStudentDetails_whenCredentialBelongsToStudent() {
+        when(credentialRepository.findDetailsByEmail("student@gmail.com")).thenReturn(Optional.of(student(2L, "student@gmail.com")));
 
         CustomUserDetails result = customUserDetailsService.loadUserByUsername("student@gmail.com");
 
@@ -67,15 +54,12 @@ public class CustomUserDetailsServiceTest {
         assertEquals("student@gmail.com", result.getUsername());
         assertEquals("student-pass", result.getPassword());
         assertTrue(result.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_STUDENT")));
-
-        verify(userRepository).findByEmail("student@gmail.com");
-        verify(studentRepository).findByEmail("student@gmail.com");
+        assertTrue(result.isStudent());
     }
 
     @Test
-    void loadUserByUsername_shouldThrowException_whenEmailNotFoundInBothRepositories() {
-        when(userRepository.findByEmail("unknown@gmail.com")).thenReturn(Optional.empty());
-        when(studentRepository.findByEmail("unknown@gmail.com")).thenReturn(Optional.empty());
+    void loadUserByUsername_shouldThrowException_whenEmailNotFound() {
+        when(credentialRepository.findDetailsByEmail("unknown@gmail.com")).thenReturn(Optional.empty());
 
         UsernameNotFoundException exception = assertThrows(
                 UsernameNotFoundException.class,
@@ -84,7 +68,84 @@ public class CustomUserDetailsServiceTest {
 
         assertEquals("The email has been updated. Log in again to get a new token.", exception.getMessage());
 
-        verify(userRepository).findByEmail("unknown@gmail.com");
-        verify(studentRepository).findByEmail("unknown@gmail.com");
+        verify(credentialRepository).findDetailsByEmail("unknown@gmail.com");
+    }
+
+    @Test
+    void loadUserByUsername_shouldThrowException_whenCredentialPointsToMissingAccount() {
+        when(credentialRepository.findDetailsByEmail("deleted@gmail.com")).thenReturn(Optional.of(
+                new CredentialDetailsDto(PrincipalType.USER, 5L, "deleted@gmail.com", null, null, null)));
+
+        assertThrows(UsernameNotFoundException.class, () -> customUserDetailsService.loadUserByUsername("deleted@gmail.com"));
+    }
+
+    @Test
+    void loadUserByUsername_shouldUseCache_whenCalledAgainWithSameEmail() {
+        when(credentialRepository.findDetailsByEmail("teacher@gmail.com")).thenReturn(Optional.of(teacher(1L, "teacher@gmail.com")));
+
+        CustomUserDetails first = customUserDetailsService.loadUserByUsername("teacher@gmail.com");
+        CustomUserDetails second = customUserDetailsService.loadUserByUsername("teacher@gmail.com");
+
+        assertSame(first, second);
+        verify(credentialRepository, times(1)).findDetailsByEmail("teacher@gmail.com");
+    }
+
+    @Test
+    void evictUser_shouldReloadUserDetails_whenUserWasEvictedById() {
+        when(credentialRepository.findDetailsByEmail("teacher@gmail.com")).thenReturn(Optional.of(teacher(1L, "teacher@gmail.com")));
+        customUserDetailsService.loadUserByUsername("teacher@gmail.com");
+
+        customUserDetailsService.evictStudent(1L);
+        customUserDetailsService.loadUserByUsername("teacher@gmail.com");
+        verify(credentialRepository, times(1)).findDetailsByEmail("teacher@gmail.com");
+
+        customUserDetailsService.evictUser(1L);
+        customUserDetailsService.loadUserByUsername("teacher@gmail.com");
+        verify(credentialRepository, times(2)).findDetailsByEmail("teacher@gmail.com");
+    }
+
+    @Test
+    void evictStudent_shouldReloadStudentDetails_whenStudentWasEvictedById() {
+        when(credentialRepository.findDetailsByEmail("student@gmail.com")).thenReturn(Optional.of(student(2L, "student@gmail.com")));
+        customUserDetailsService.loadUserByUsername("student@gmail.com");
+
+        customUserDetailsService.evictStudent(2L);
+        customUserDetailsService.loadUserByUsername("student@gmail.com");
+
+        verify(credentialRepository, times(2)).findDetailsByEmail("student@gmail.com");
+    }
+
+    @Test
+    void loadUserByUsername_shouldNotCacheMissingEmail() {
+        when(credentialRepository.findDetailsByEmail("new@gmail.com"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(student(3L, "new@gmail.com")));
+
+        assertThrows(UsernameNotFoundException.class, () -> customUserDetailsService.loadUserByUsername("new@gmail.com"));
+        assertNotNull(customUserDetailsService.loadUserByUsername("new@gmail.com"));
+    }
+
+    @Test
+    void bindTo_shouldPublishHitAndMissMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        customUserDetailsService.bindTo(registry);
+        when(credentialRepository.findDetailsByEmail("teacher@gmail.com")).thenReturn(Optional.of(teacher(1L, "teacher@gmail.com")));
+
+        customUserDetailsService.loadUserByUsername("teacher@gmail.com");
+        customUserDetailsService.loadUserByUsername("teacher@gmail.com");
+        customUserDetailsService.loadUserByUsername("teacher@gmail.com");
+
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "userDetails").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "userDetails").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    private static CredentialDetailsDto teacher(Long id, String email) {
+        return new CredentialDetailsDto(PrincipalType.USER, id, email, "encoded-password", UserRole.TEACHER, 0);
+    }
+
+    private static CredentialDetailsDto student(Long id, String email) {
+        return new CredentialDetailsDto(PrincipalType.STUDENT, id, email, "student-pass", null, 0);
     }
 }
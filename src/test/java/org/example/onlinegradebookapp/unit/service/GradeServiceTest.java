@@ -1,15 +1,24 @@
 package org.example.onlinegradebookapp.unit.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
 import org.example.onlinegradebookapp.entity.Grade;
 import org.example.onlinegradebookapp.entity.KnowledgeTest;
+import org.example.onlinegradebookapp.entity.SchoolClass;
 import org.example.onlinegradebookapp.entity.Student;
 import org.example.onlinegradebookapp.entity.User;
 import org.example.onlinegradebookapp.entity.UserRole.UserRole;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
 import org.example.onlinegradebookapp.exception.UnauthorizedException;
+import org.example.onlinegradebookapp.payload.request.GradeBatchEntryDto;
 import org.example.onlinegradebookapp.payload.request.GradeDto;
 import org.example.onlinegradebookapp.payload.request.GradeUpdateDto;
+import org.example.onlinegradebookapp.payload.response.CursorPage;
+import org.example.onlinegradebookapp.payload.response.GradeBatchErrorResponseDto;
+import org.example.onlinegradebookapp.payload.response.GradeBatchResponseDto;
+import org.example.onlinegradebookapp.payload.response.GradeResponseDto;
 import org.example.onlinegradebookapp.repository.GradeRepository;
 import org.example.onlinegradebookapp.repository.KnowledgeTestRepository;
 import org.example.onlinegradebookapp.repository.StudentRepository;
@@ -19,14 +28,26 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -43,132 +64,290 @@ public class GradeServiceTest {
         studentRepository = Mockito.mock(StudentRepository.class);
         testRepository = Mockito.mock(KnowledgeTestRepository.class);
         userService = Mockito.mock(UserService.class);
-        gradeService = new GradeService(gradeRepository, studentRepository, testRepository, userService);
+        gradeService = new GradeService(gradeRepository, studentRepository, testRepository, userService,
+                new ObjectMapper().findAndRegisterModules(), Validation.buildDefaultValidatorFactory().getValidator());
     }
 
     @Test
-    void findAllGrades_shouldReturnList() {
-        Grade g1 = new Grade(); Grade g2 = new Grade();
-        when(gradeRepository.findAll()).thenReturn(List.of(g1, g2));
+    void findGrades_shouldReturnLastPageWithoutCursor() {
+        GradeResponseDto g1 = gradeView(1L); GradeResponseDto g2 = gradeView(2L);
+        when(gradeRepository.findGradePage(0L, null, null, null, null, Limit.of(GradeService.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(List.of(g1, g2));
 
-        List<Grade> result = gradeService.findAllGrades();
+        CursorPage<GradeResponseDto> result = gradeService.findGrades(null, null, null, null, null, null);
 
-        assertEquals(2, result.size());
+        assertEquals(2, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void findGrades_shouldReturnNextCursor_whenMoreRowsExist() {
+        when(gradeRepository.findGradePage(eq(0L), eq(5L), eq(null), eq(null), eq(null), eq(Limit.of(3))))
+                .thenReturn(List.of(gradeView(10L), gradeView(11L), gradeView(12L)));
+
+        CursorPage<GradeResponseDto> result = gradeService.findGrades(null, 2, 5L, null, null, null);
+
+        assertEquals(2, result.getItems().size());
+        assertEquals(11L, CursorPage.decodeCursor(result.getNextCursor()));
+    }
+
+    @Test
+    void findGrades_shouldContinueAfterCursorAndFilterByDate() {
+        String cursor = CursorPage.encodeCursor(11L);
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 31);
+        when(gradeRepository.findGradePage(11L, null, 7L,
+                Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2025-02-01T00:00:00Z"), Limit.of(3)))
+                .thenReturn(List.of(gradeView(12L)));
+
+        CursorPage<GradeResponseDto> result = gradeService.findGrades(cursor, 2, null, 7L, from, to);
+
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void findGrades_shouldThrowException_whenPageSizeOutOfRange() {
+        assertThrows(BadRequestException.class,
+                () -> gradeService.findGrades(null, GradeService.MAX_PAGE_SIZE + 1, null, null, null, null));
+        assertThrows(BadRequestException.class,
+                () -> gradeService.findGrades(null, 0, null, null, null, null));
+    }
+
+    @Test
+    void findGrades_shouldThrowException_whenCursorIsInvalid() {
+        assertThrows(BadRequestException.class,
+                () -> gradeService.findGrades("not-a-cursor", null, null, null, null, null));
+    }
+
+    @Test
+    void exportGrades_shouldWriteOneJsonObjectPerLine() throws Exception {
+        when(gradeRepository.streamAllGrades()).thenReturn(Stream.of(gradeView(1L), gradeView(2L), gradeView(3L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = gradeService.exportGrades(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, count);
+        assertEquals(3, lines.length);
+        JsonNode last = new ObjectMapper().readTree(lines[2]);
+        assertEquals(3L, last.get("id").asLong());
+        assertEquals(1L, last.get("studentId").asLong());
+    }
+
+    @Test
+    void exportGrades_shouldWriteNothing_whenNoGrades() throws Exception {
+        when(gradeRepository.streamAllGrades()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = gradeService.exportGrades(out);
+
+        assertEquals(0, count);
+        assertEquals(0, out.size());
     }
 
     @Test
     void findGradeById_shouldReturnGrade_whenExists() {
-        Grade grade = new Grade();
-        grade.setId(1L);
-        when(gradeRepository.findById(1L)).thenReturn(Optional.of(grade));
+        when(gradeRepository.findGradeDtoById(1L)).thenReturn(Optional.of(gradeView(1L)));
 
-        Grade result = gradeService.findGradeById(1L);
+        GradeResponseDto result = gradeService.findGradeById(1L);
 
         assertEquals(1L, result.getId());
     }
 
     @Test
     void findGradeById_shouldThrowException_whenNotFound() {
-        when(gradeRepository.findById(1L)).thenReturn(Optional.empty());
+        when(gradeRepository.findGradeDtoById(1L)).thenReturn(Optional.empty());
 
         assertThrows(BadRequestException.class, () -> gradeService.findGradeById(1L));
     }
 
     @Test
-    void addGrade_shouldSaveNewGrade_whenDataIsValidAndAuthorized() {
-        GradeDto dto = new GradeDto();
-        dto.setStudentId(1L);
-        dto.setTestId(2L);
-        dto.setGrade(BigDecimal.valueOf(5.0));
-
-        Student student = new Student();
-        student.setId(1L);
-
-        KnowledgeTest test = new KnowledgeTest();
-        User teacher = new User();
-        teacher.setId(10L);
-        test.setTeacher(teacher);
-        test.setId(2L);
+    void addGrade_shouldInsertGradeRestrictedToAuthor_whenUserIsTeacher() {
+        GradeDto dto = gradeDto(1L, 2L, BigDecimal.valueOf(5.0));
 
-        when(gradeRepository.existsGradeByStudentId(1L)).thenReturn(false);
-        when(gradeRepository.existsGradeByTestId(2L)).thenReturn(false);
-        when(studentRepository.findById(1L)).thenReturn(Optional.of(student));
-        when(testRepository.findById(2L)).thenReturn(Optional.of(test));
         when(userService.getCurrentUserId()).thenReturn(10L);
         when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
+        when(gradeRepository.insertGrade(1L, 2L, BigDecimal.valueOf(5.0), null, 10L)).thenReturn(1);
 
         gradeService.addGrade(dto);
 
-        ArgumentCaptor<Grade> captor = ArgumentCaptor.forClass(Grade.class);
-        verify(gradeRepository).save(captor.capture());
-
-        Grade capturedGrade = captor.getValue();
-        assertEquals(BigDecimal.valueOf(5.0), capturedGrade.getGrade());
-        assertEquals(student, captor.getValue().getStudent());
-        assertEquals(test, captor.getValue().getTest());
+        verify(gradeRepository).insertGrade(1L, 2L, BigDecimal.valueOf(5.0), null, 10L);
+        verify(studentRepository, never()).existsById(any());
+        verify(testRepository, never()).findById(any());
     }
 
+    @Test
+    void addGrade_shouldInsertGradeWithoutAuthorRestriction_whenUserIsAdmin() {
+        GradeDto dto = gradeDto(1L, 2L, BigDecimal.valueOf(5.0));
+
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(true);
+        when(gradeRepository.insertGrade(1L, 2L, BigDecimal.valueOf(5.0), null, null)).thenReturn(1);
+
+        gradeService.addGrade(dto);
+
+        verify(gradeRepository).insertGrade(1L, 2L, BigDecimal.valueOf(5.0), null, null);
+    }
 
     @Test
     void addGrade_shouldThrowException_whenStudentAlreadyHasGradeForTest() {
-        GradeDto dto = new GradeDto();
-        dto.setStudentId(1L);
-        dto.setTestId(2L);
-        dto.setGrade(BigDecimal.valueOf(4.5));
+        GradeDto dto = gradeDto(1L, 2L, BigDecimal.valueOf(4.5));
 
-        when(gradeRepository.existsGradeByStudentId(1L)).thenReturn(true);
-        when(gradeRepository.existsGradeByTestId(2L)).thenReturn(true);
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(true);
+        when(gradeRepository.insertGrade(1L, 2L, BigDecimal.valueOf(4.5), null, null)).thenReturn(0);
+        when(studentRepository.existsById(1L)).thenReturn(true);
+        when(testRepository.findById(2L)).thenReturn(Optional.of(testOf(10L)));
 
-        assertThrows(BadRequestException.class, () -> gradeService.addGrade(dto));
+        BadRequestException ex = assertThrows(BadRequestException.class, () -> gradeService.addGrade(dto));
+        assertEquals("Student with id=1 has already a grade for test with id=2", ex.getMessage());
     }
 
     @Test
     void addGrade_shouldThrowException_whenStudentNotFound() {
-        GradeDto dto = new GradeDto();
-        dto.setStudentId(1L);
-        dto.setTestId(2L);
-        dto.setGrade(BigDecimal.valueOf(4.5));
+        GradeDto dto = gradeDto(1L, 2L, BigDecimal.valueOf(4.5));
 
-        when(gradeRepository.existsGradeByStudentId(1L)).thenReturn(false);
-        when(gradeRepository.existsGradeByTestId(2L)).thenReturn(false);
-        when(studentRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(true);
+        when(gradeRepository.insertGrade(1L, 2L, BigDecimal.valueOf(4.5), null, null)).thenReturn(0);
+        when(studentRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(BadRequestException.class, () -> gradeService.addGrade(dto));
     }
 
     @Test
     void addGrade_shouldThrowException_whenTestNotFound() {
-        GradeDto dto = new GradeDto();
-        dto.setStudentId(1L);
-        dto.setTestId(2L);
-        dto.setGrade(BigDecimal.valueOf(4.5));
+        GradeDto dto = gradeDto(1L, 2L, BigDecimal.valueOf(4.5));
 
-        Student student = new Student();
-        when(studentRepository.findById(1L)).thenReturn(Optional.of(student));
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(true);
+        when(gradeRepository.insertGrade(1L, 2L, BigDecimal.valueOf(4.5), null, null)).thenReturn(0);
+        when(studentRepository.existsById(1L)).thenReturn(true);
         when(testRepository.findById(2L)).thenReturn(Optional.empty());
 
         assertThrows(BadRequestException.class, () -> gradeService.addGrade(dto));
     }
 
+    @Test
+    void addGrade_shouldThrowException_whenIdsAreMissing() {
+        assertThrows(BadRequestException.class, () -> gradeService.addGrade(gradeDto(null, 2L, BigDecimal.ONE)));
+        assertThrows(BadRequestException.class, () -> gradeService.addGrade(gradeDto(1L, null, BigDecimal.ONE)));
+        verify(gradeRepository, never()).insertGrade(any(), any(), any(), any(), any());
+    }
+
     @Test
     void addGrade_shouldThrowUnauthorizedException_whenUserNotAuthorOrAdmin() {
-        GradeDto dto = new GradeDto();
-        dto.setStudentId(1L);
-        dto.setTestId(2L);
-        dto.setGrade(BigDecimal.valueOf(4.5));
+        GradeDto dto = gradeDto(1L, 2L, BigDecimal.valueOf(4.5));
 
-        Student student = new Student();
-        KnowledgeTest test = new KnowledgeTest();
-        User teacher = new User();
-        teacher.setId(99L);
-        test.setTeacher(teacher);
+        when(userService.getCurrentUserId()).thenReturn(1L);
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
+        when(gradeRepository.insertGrade(1L, 2L, BigDecimal.valueOf(4.5), null, 1L)).thenReturn(0);
+        when(studentRepository.existsById(1L)).thenReturn(true);
+        when(testRepository.findById(2L)).thenReturn(Optional.of(testOf(99L)));
+
+        assertThrows(UnauthorizedException.class, () -> gradeService.addGrade(dto));
+    }
+
+    @Test
+    void saveGrade_shouldUpsertGrade_whenUserIsAuthor() {
+        GradeDto dto = gradeDto(1L, 2L, BigDecimal.valueOf(3.5));
+        dto.setDescription("Poprawa");
+
+        when(userService.getCurrentUserId()).thenReturn(10L);
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
+        when(gradeRepository.upsertGrade(1L, 2L, BigDecimal.valueOf(3.5), "Poprawa", 10L)).thenReturn(1);
 
-        when(studentRepository.findById(1L)).thenReturn(Optional.of(student));
+        gradeService.saveGrade(dto);
+
+        verify(gradeRepository).upsertGrade(1L, 2L, BigDecimal.valueOf(3.5), "Poprawa", 10L);
+        verify(gradeRepository, never()).insertGrade(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void saveGrade_shouldThrowUnauthorizedException_whenUserNotAuthorOrAdmin() {
+        GradeDto dto = gradeDto(1L, 2L, BigDecimal.valueOf(3.5));
+
+        when(userService.getCurrentUserId()).thenReturn(1L);
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
+        when(gradeRepository.upsertGrade(1L, 2L, BigDecimal.valueOf(3.5), null, 1L)).thenReturn(0);
+        when(studentRepository.existsById(1L)).thenReturn(true);
+        when(testRepository.findById(2L)).thenReturn(Optional.of(testOf(99L)));
+
+        assertThrows(UnauthorizedException.class, () -> gradeService.saveGrade(dto));
+    }
+
+    @Test
+    void addGradesBatch_shouldInsertValidRowsAndReportInvalidOnes() {
+        KnowledgeTest test = batchTest(10L);
         when(testRepository.findById(2L)).thenReturn(Optional.of(test));
+        when(userService.getCurrentUserId()).thenReturn(10L);
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
+        when(studentRepository.findIdsInClass(eq(5L), any())).thenReturn(Set.of(1L, 2L, 3L));
+        when(gradeRepository.findGradedStudentIds(eq(2L), any())).thenReturn(Set.of(3L));
+        when(gradeRepository.insertGrades(eq(2L), any())).thenReturn(new int[]{1});
+
+        List<GradeBatchEntryDto> entries = List.of(
+                batchEntry(1L, BigDecimal.valueOf(5.0)),
+                batchEntry(2L, BigDecimal.valueOf(7.0)),
+                batchEntry(3L, BigDecimal.valueOf(4.0)),
+                batchEntry(4L, BigDecimal.valueOf(3.0)),
+                batchEntry(1L, BigDecimal.valueOf(2.0)));
+
+        GradeBatchResponseDto result = gradeService.addGradesBatch(2L, entries);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(List.of(1, 2, 3, 4), result.getErrors().stream().map(GradeBatchErrorResponseDto::getIndex).toList());
+        assertEquals("The highest grade value is 6.0", result.getErrors().get(0).getMessage());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<GradeBatchEntryDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(gradeRepository).insertGrades(eq(2L), captor.capture());
+        assertEquals(List.of(entries.get(0)), captor.getValue());
+    }
+
+    @Test
+    void addGradesBatch_shouldReportRow_whenConcurrentInsertWon() {
+        when(testRepository.findById(2L)).thenReturn(Optional.of(batchTest(10L)));
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(true);
+        when(studentRepository.findIdsInClass(eq(5L), any())).thenReturn(Set.of(1L, 2L));
+        when(gradeRepository.findGradedStudentIds(eq(2L), any())).thenReturn(Set.of());
+        when(gradeRepository.insertGrades(eq(2L), any())).thenReturn(new int[]{0, 1});
+
+        GradeBatchResponseDto result = gradeService.addGradesBatch(2L, List.of(
+                batchEntry(1L, BigDecimal.valueOf(5.0)),
+                batchEntry(2L, BigDecimal.valueOf(4.0))));
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(0, result.getErrors().get(0).getIndex());
+        assertEquals(1L, result.getErrors().get(0).getStudentId());
+    }
+
+    @Test
+    void addGradesBatch_shouldThrowNotFoundException_whenTestNotFound() {
+        when(testRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> gradeService.addGradesBatch(2L, List.of(batchEntry(1L, BigDecimal.valueOf(5.0)))));
+    }
+
+    @Test
+    void addGradesBatch_shouldThrowUnauthorizedException_whenUserNotAuthorOrAdmin() {
+        when(testRepository.findById(2L)).thenReturn(Optional.of(batchTest(99L)));
         when(userService.getCurrentUserId()).thenReturn(1L);
         when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
 
-        assertThrows(UnauthorizedException.class, () -> gradeService.addGrade(dto));
+        assertThrows(UnauthorizedException.class,
+                () -> gradeService.addGradesBatch(2L, List.of(batchEntry(1L, BigDecimal.valueOf(5.0)))));
+        verify(gradeRepository, never()).insertGrades(any(), any());
+    }
+
+    @Test
+    void addGradesBatch_shouldThrowException_whenBatchIsEmptyOrTooLarge() {
+        assertThrows(BadRequestException.class, () -> gradeService.addGradesBatch(2L, List.of()));
+
+        List<GradeBatchEntryDto> tooMany = new ArrayList<>();
+        for(long i = 0; i <= GradeService.MAX_BATCH_SIZE; i++) {
+            tooMany.add(batchEntry(i, BigDecimal.valueOf(5.0)));
+        }
+        assertThrows(BadRequestException.class, () -> gradeService.addGradesBatch(2L, tooMany));
     }
 
     @Test
@@ -176,97 +355,145 @@ public class GradeServiceTest {
         GradeUpdateDto dto = new GradeUpdateDto();
         dto.setGrade(BigDecimal.valueOf(3.5));
 
-        Grade grade = new Grade();
-        grade.setId(1L);
-        grade.setGrade(BigDecimal.valueOf(2.0));
-
-        KnowledgeTest test = new KnowledgeTest();
-        User teacher = new User();
-        teacher.setId(11L);
-        test.setTeacher(teacher);
-        grade.setTest(test);
-
-        when(gradeRepository.findById(1L)).thenReturn(Optional.of(grade));
         when(userService.getCurrentUserId()).thenReturn(11L);
         when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
-        when(gradeRepository.save(any(Grade.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(gradeRepository.updateGrade(1L, BigDecimal.valueOf(3.5), null, null, null, 11L)).thenReturn(1);
 
         gradeService.updateGradeAttributes(dto, 1L);
 
-        ArgumentCaptor<Grade> captor = ArgumentCaptor.forClass(Grade.class);
-        verify(gradeRepository).save(captor.capture());
+        verify(gradeRepository).updateGrade(1L, BigDecimal.valueOf(3.5), null, null, null, 11L);
+        verify(gradeRepository, never()).findById(any());
+        verify(gradeRepository, never()).existsById(any());
+    }
 
-        assertEquals(BigDecimal.valueOf(3.5), captor.getValue().getGrade());
+    @Test
+    void updateGradeAttributes_shouldThrowBadRequest_whenNewStudentNotFound() {
+        GradeUpdateDto dto = new GradeUpdateDto();
+        dto.setStudentId(5L);
+        when(studentRepository.existsById(5L)).thenReturn(false);
+
+        assertThrows(BadRequestException.class, () -> gradeService.updateGradeAttributes(dto, 1L));
+        verify(gradeRepository, never()).updateGrade(any(), any(), any(), any(), any(), any());
     }
 
+    @Test
+    void updateGradeAttributes_shouldThrowBadRequest_whenNewStudentHasAlreadyGradeForTest() {
+        GradeUpdateDto dto = new GradeUpdateDto();
+        dto.setStudentId(5L);
+        KnowledgeTest test = new KnowledgeTest();
+        test.setId(7L);
+        Grade grade = new Grade();
+        grade.setTest(test);
+
+        when(studentRepository.existsById(5L)).thenReturn(true);
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(true);
+        when(gradeRepository.updateGrade(1L, null, null, 5L, null, null))
+                .thenThrow(new DuplicateKeyException("uc_grades_student_test"));
+        when(gradeRepository.findById(1L)).thenReturn(Optional.of(grade));
+
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> gradeService.updateGradeAttributes(dto, 1L));
+        assertEquals("Student with id=5 has already a grade for test with id=7", exception.getMessage());
+    }
 
     @Test
     void updateGradeAttributes_shouldThrowNotFoundException_whenGradeNotFound() {
-        when(gradeRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(true);
+        when(gradeRepository.existsById(1L)).thenReturn(false);
+
         assertThrows(ResourceNotFoundException.class,
                 () -> gradeService.updateGradeAttributes(new GradeUpdateDto(), 1L));
     }
 
     @Test
     void updateGradeAttributes_shouldThrowUnauthorizedException_whenUserNotAuthorOrAdmin() {
-        Grade grade = new Grade();
-        KnowledgeTest test = new KnowledgeTest();
-        User teacher = new User();
-        teacher.setId(100L);
-        test.setTeacher(teacher);
-        grade.setTest(test);
-
-        when(gradeRepository.findById(1L)).thenReturn(Optional.of(grade));
         when(userService.getCurrentUserId()).thenReturn(1L);
         when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
+        when(gradeRepository.existsById(1L)).thenReturn(true);
 
         GradeUpdateDto dto = new GradeUpdateDto();
         dto.setGrade(BigDecimal.valueOf(4.0));
 
         assertThrows(UnauthorizedException.class, () -> gradeService.updateGradeAttributes(dto, 1L));
+        verify(gradeRepository).updateGrade(1L, BigDecimal.valueOf(4.0), null, null, null, 1L);
     }
 
     @Test
     void deleteGrade_shouldDeleteGrade() {
-        Grade grade = new Grade();
-        grade.setId(1L);
-
-        KnowledgeTest test = new KnowledgeTest();
-        User teacher = new User();
-        teacher.setId(10L);
-        test.setTeacher(teacher);
-        grade.setTest(test);
-
-        when(gradeRepository.findById(1L)).thenReturn(Optional.of(grade));
         when(userService.getCurrentUserId()).thenReturn(10L);
         when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
+        when(gradeRepository.deleteGrade(1L, 10L)).thenReturn(1);
 
         gradeService.deleteGrade(1L);
 
-        verify(gradeRepository).deleteById(1L);
+        verify(gradeRepository).deleteGrade(1L, 10L);
+        verify(gradeRepository, never()).findById(any());
     }
 
+    @Test
+    void deleteGrade_shouldNotRestrictToAuthor_whenAdmin() {
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(true);
+        when(gradeRepository.deleteGrade(1L, null)).thenReturn(1);
+
+        gradeService.deleteGrade(1L);
+
+        verify(userService, never()).getCurrentUserId();
+    }
 
     @Test
     void deleteGrade_shouldThrowNotFoundException_whenGradeNotFound() {
-        when(gradeRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(true);
+        when(gradeRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(ResourceNotFoundException.class, () -> gradeService.deleteGrade(1L));
     }
 
     @Test
     void deleteGrade_shouldThrowUnauthorizedException_whenUserNotAuthorOrAdmin() {
-        Grade grade = new Grade();
-        KnowledgeTest test = new KnowledgeTest();
-        User teacher = new User();
-        teacher.setId(100L);
-        test.setTeacher(teacher);
-        grade.setTest(test);
-
-        when(gradeRepository.findById(1L)).thenReturn(Optional.of(grade));
         when(userService.getCurrentUserId()).thenReturn(1L);
         when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
+        when(gradeRepository.existsById(1L)).thenReturn(true);
 
         assertThrows(UnauthorizedException.class, () -> gradeService.deleteGrade(1L));
     }
+
+    private GradeResponseDto gradeView(Long id) {
+        return new GradeResponseDto(id, BigDecimal.valueOf(4.0), null, 1L, 1L, Instant.now(), Instant.now());
+    }
+
+    private KnowledgeTest batchTest(Long teacherId) {
+        User teacher = new User();
+        teacher.setId(teacherId);
+        SchoolClass schoolClass = new SchoolClass();
+        schoolClass.setId(5L);
+        KnowledgeTest test = new KnowledgeTest();
+        test.setId(2L);
+        test.setTeacher(teacher);
+        test.setSchoolClass(schoolClass);
+        return test;
+    }
+
+    private GradeBatchEntryDto batchEntry(Long studentId, BigDecimal grade) {
+        GradeBatchEntryDto entry = new GradeBatchEntryDto();
+        entry.setStudentId(studentId);
+        entry.setGrade(grade);
+        return entry;
+    }
+
+    private GradeDto gradeDto(Long studentId, Long testId, BigDecimal value) {
+        GradeDto dto = new GradeDto();
+        dto.setStudentId(studentId);
+        dto.setTestId(testId);
+        dto.setGrade(value);
+        return dto;
+    }
+
+    private KnowledgeTest testOf(Long teacherId) {
+        User teacher = new User();
+        teacher.setId(teacherId);
+        KnowledgeTest test = new KnowledgeTest();
+        test.setId(2L);
+        test.setTeacher(teacher);
+        return test;
+    }
 }
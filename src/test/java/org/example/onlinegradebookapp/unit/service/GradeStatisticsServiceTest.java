@@ -0,0 +1,155 @@
+package org.example.onlinegradebookapp.unit.service;
+
+import org.example.onlinegradebookapp.config.GradeWeightProperties;
+import org.example.onlinegradebookapp.entity.TestCategory.TestCategory;
+import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
+import org.example.onlinegradebookapp.payload.response.GradeCategorySumDto;
+import org.example.onlinegradebookapp.payload.response.GradeStatsResponseDto;
+import org.example.onlinegradebookapp.payload.response.WeightedAverageResponseDto;
+import org.example.onlinegradebookapp.repository.GradeRepository;
+import org.example.onlinegradebookapp.repository.KnowledgeTestRepository;
+import org.example.onlinegradebookapp.repository.SchoolClassRepository;
+import org.example.onlinegradebookapp.service.GradeStatisticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GradeStatisticsServiceTest {
+    private GradeRepository gradeRepository;
+    private SchoolClassRepository schoolClassRepository;
+    private KnowledgeTestRepository knowledgeTestRepository;
+    private GradeWeightProperties gradeWeightProperties;
+    private GradeStatisticsService statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        gradeRepository = Mockito.mock(GradeRepository.class);
+        schoolClassRepository = Mockito.mock(SchoolClassRepository.class);
+        knowledgeTestRepository = Mockito.mock(KnowledgeTestRepository.class);
+        gradeWeightProperties = new GradeWeightProperties();
+        statisticsService = new GradeStatisticsService(gradeRepository, schoolClassRepository, knowledgeTestRepository,
+                gradeWeightProperties);
+    }
+
+    @Test
+    void findWeightedAverages_shouldWeightCategoriesPerStudentAndSubject() {
+        // Student 1, subject 1: class test 5.0 (weight 3), two homeworks 2.0 + 3.0 (weight 1)
+        // -> (3 * 5 + 5) / (3 + 2) = 4.00
+        // Student 1, subject 2: quiz 4.0 -> 4.00
+        // Student 2, subject 1: two class tests 3.0 + 4.0 -> 3.50
+        when(gradeRepository.sumGradesByCategory(1L)).thenReturn(List.of(
+                sum(1L, 1L, TestCategory.CLASS_TEST, "5.0", 1),
+                sum(1L, 1L, TestCategory.HOMEWORK, "5.0", 2),
+                sum(1L, 2L, TestCategory.QUIZ, "4.0", 1),
+                sum(2L, 1L, TestCategory.CLASS_TEST, "7.0", 2)));
+
+        List<WeightedAverageResponseDto> averages = statisticsService.findWeightedAverages(1L);
+
+        assertEquals(3, averages.size());
+        assertAverage(averages.get(0), 1L, 1L, "4.00", 3);
+        assertAverage(averages.get(1), 1L, 2L, "4.00", 1);
+        assertAverage(averages.get(2), 2L, 1L, "3.50", 2);
+        verify(schoolClassRepository, never()).existsById(1L);
+    }
+
+    @Test
+    void findWeightedAverages_shouldUseConfiguredWeights() {
+        gradeWeightProperties.getGradeWeights().put(TestCategory.HOMEWORK, 0.0);
+        when(gradeRepository.sumGradesByCategory(1L)).thenReturn(List.of(
+                sum(1L, 1L, TestCategory.CLASS_TEST, "5.0", 1),
+                sum(1L, 1L, TestCategory.HOMEWORK, "2.0", 1),
+                sum(2L, 1L, TestCategory.HOMEWORK, "2.0", 1)));
+
+        List<WeightedAverageResponseDto> averages = statisticsService.findWeightedAverages(1L);
+
+        assertAverage(averages.get(0), 1L, 1L, "5.00", 2);
+        assertNull(averages.get(1).getAverage());
+    }
+
+    @Test
+    void findWeightedAverages_shouldReturnEmptyList_whenClassHasNoGrades() {
+        when(gradeRepository.sumGradesByCategory(1L)).thenReturn(List.of());
+        when(schoolClassRepository.existsById(1L)).thenReturn(true);
+
+        assertTrue(statisticsService.findWeightedAverages(1L).isEmpty());
+    }
+
+    @Test
+    void findWeightedAverages_shouldThrowNotFoundException_whenClassNotFound() {
+        when(gradeRepository.sumGradesByCategory(1L)).thenReturn(List.of());
+        when(schoolClassRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> statisticsService.findWeightedAverages(1L));
+    }
+
+    @Test
+    void findTestStats_shouldReturnStatsFromDatabase() {
+        GradeStatsResponseDto stats = new GradeStatsResponseDto(3L, 4.0, new BigDecimal("4.5"), 0.8164965,
+                0L, 0L, 1L, 1L, 1L, 0L);
+        when(gradeRepository.findTestStats(1L)).thenReturn(stats);
+
+        GradeStatsResponseDto result = statisticsService.findTestStats(1L);
+
+        assertEquals(3, result.getCount());
+        assertEquals(new BigDecimal("4.00"), result.getMean());
+        assertEquals(new BigDecimal("4.50"), result.getMedian());
+        assertEquals(new BigDecimal("0.82"), result.getStandardDeviation());
+        assertEquals(List.of(0L, 0L, 1L, 1L, 1L, 0L), List.copyOf(result.getHistogram().values()));
+        verify(knowledgeTestRepository, never()).existsById(1L);
+    }
+
+    @Test
+    void findTestStats_shouldReturnEmptyStats_whenTestHasNoGrades() {
+        when(gradeRepository.findTestStats(1L)).thenReturn(emptyStats());
+        when(knowledgeTestRepository.existsById(1L)).thenReturn(true);
+
+        GradeStatsResponseDto result = statisticsService.findTestStats(1L);
+
+        assertEquals(0, result.getCount());
+        assertNull(result.getMean());
+        assertEquals(6, result.getHistogram().size());
+    }
+
+    @Test
+    void findTestStats_shouldThrowNotFoundException_whenTestNotFound() {
+        when(gradeRepository.findTestStats(1L)).thenReturn(emptyStats());
+        when(knowledgeTestRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> statisticsService.findTestStats(1L));
+    }
+
+    @Test
+    void findClassStats_shouldThrowNotFoundException_whenClassNotFound() {
+        when(gradeRepository.findClassStats(1L)).thenReturn(emptyStats());
+        when(schoolClassRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> statisticsService.findClassStats(1L));
+    }
+
+    private GradeStatsResponseDto emptyStats() {
+        return new GradeStatsResponseDto(0L, null, null, null, 0L, 0L, 0L, 0L, 0L, 0L);
+    }
+
+    private GradeCategorySumDto sum(Long studentId, Long subjectId, TestCategory category, String gradeSum, long count) {
+        return new GradeCategorySumDto(studentId, subjectId, category, new BigDecimal(gradeSum), count);
+    }
+
+    private void assertAverage(WeightedAverageResponseDto average, Long studentId, Long subjectId, String expected,
+                               long gradeCount) {
+        assertEquals(studentId, average.getStudentId());
+        assertEquals(subjectId, average.getSubjectId());
+        assertEquals(new BigDecimal(expected), average.getAverage());
+        assertEquals(gradeCount, average.getGradeCount());
+    }
+}
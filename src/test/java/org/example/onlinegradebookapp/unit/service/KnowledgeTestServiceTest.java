@@ -11,6 +11,8 @@ import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
 import org.example.onlinegradebookapp.exception.UnauthorizedException;
 import org.example.onlinegradebookapp.payload.request.KnowledgeTestDto;
 import org.example.onlinegradebookapp.payload.request.KnowledgeTestUpdateDto;
+import org.example.onlinegradebookapp.payload.response.GradeSheetEntryResponseDto;
+import org.example.onlinegradebookapp.payload.response.KnowledgeTestResponseDto;
 import org.example.onlinegradebookapp.repository.KnowledgeTestRepository;
 import org.example.onlinegradebookapp.repository.SchoolClassRepository;
 import org.example.onlinegradebookapp.repository.SubjectRepository;
@@ -21,6 +23,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -28,6 +31,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -52,32 +56,51 @@ public class KnowledgeTestServiceTest {
 
     @Test
     void findAllKnowledgeTests_shouldReturnList() {
-        List<KnowledgeTest> tests = List.of(new KnowledgeTest(), new KnowledgeTest());
-        when(testRepository.findAll()).thenReturn(tests);
+        List<KnowledgeTestResponseDto> tests = List.of(testView(1L), testView(2L));
+        when(testRepository.findAllKnowledgeTestDtos()).thenReturn(tests);
 
-        List<KnowledgeTest> result = testService.findAllKnowledgeTests();
+        List<KnowledgeTestResponseDto> result = testService.findAllKnowledgeTests();
 
         assertEquals(2, result.size());
     }
 
     @Test
     void findKnowledgeTestById_shouldReturnKnowledgeTest_whenFound() {
-        KnowledgeTest test = new KnowledgeTest();
-        test.setId(1L);
-        when(testRepository.findById(1L)).thenReturn(Optional.of(test));
+        when(testRepository.findKnowledgeTestDtoById(1L)).thenReturn(Optional.of(testView(1L)));
 
-        KnowledgeTest result = testService.findKnowledgeTestById(1L);
+        KnowledgeTestResponseDto result = testService.findKnowledgeTestById(1L);
 
         assertEquals(1L, result.getId());
     }
 
     @Test
     void findKnowledgeTestById_shouldThrowException_whenNotFound() {
-        when(testRepository.findById(1L)).thenReturn(Optional.empty());
+        when(testRepository.findKnowledgeTestDtoById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> testService.findKnowledgeTestById(1L));
     }
 
+    @Test
+    void findGradeSheet_shouldReturnSheet_whenTestHasStudents() {
+        List<GradeSheetEntryResponseDto> sheet = List.of(
+                new GradeSheetEntryResponseDto(1L, "Jan", "Kowalski", 10L, BigDecimal.valueOf(4.5), "Ok"),
+                new GradeSheetEntryResponseDto(2L, "Anna", "Nowak", null, null, null));
+        when(testRepository.findGradeSheet(1L)).thenReturn(sheet);
+
+        List<GradeSheetEntryResponseDto> result = testService.findGradeSheet(1L);
+
+        assertEquals(2, result.size());
+        verify(testRepository, never()).existsById(any());
+    }
+
+    @Test
+    void findGradeSheet_shouldThrowException_whenTestNotFound() {
+        when(testRepository.findGradeSheet(1L)).thenReturn(List.of());
+        when(testRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> testService.findGradeSheet(1L));
+    }
+
     @Test
     void addKnowledgeTest_shouldSaveNewTest() {
         KnowledgeTestDto dto = new KnowledgeTestDto();
@@ -114,74 +137,99 @@ public class KnowledgeTestServiceTest {
     }
 
     @Test
-    void updateKnowledgeTestAttributes_shouldUpdateKnowledgeTest_whenExists() {
+    void updateKnowledgeTestAttributes_shouldUpdateOwnTestInOneStatement() {
         KnowledgeTestUpdateDto dto = new KnowledgeTestUpdateDto();
         dto.setName("Updated Test");
         dto.setCategory(TestCategory.HOMEWORK);
         dto.setTestDate(LocalDate.now().plusDays(2));
 
-        KnowledgeTest test = new KnowledgeTest();
-        User teacher = new User();
-        teacher.setId(1L);
-        test.setTeacher(teacher);
-        test.setId(1L);
-
-        when(testRepository.findById(1L)).thenReturn(Optional.of(test));
         when(userService.getCurrentUserId()).thenReturn(1L);
         when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
+        when(testRepository.updateKnowledgeTest(1L, "Updated Test", TestCategory.HOMEWORK,
+                LocalDate.now().plusDays(2), null, null, 1L)).thenReturn(1);
 
         testService.updateKnowledgeTestAttributes(dto, 1L);
 
-        verify(testRepository).save(test);
-        assertEquals("Updated Test", test.getName());
-        assertEquals(TestCategory.HOMEWORK, test.getCategory());
-        assertEquals(LocalDate.now().plusDays(2), test.getTestDate());
+        verify(testRepository, never()).findById(any());
+        verify(testRepository, never()).existsById(any());
+    }
+
+    @Test
+    void updateKnowledgeTestAttributes_shouldNotRestrictToAuthor_whenAdmin() {
+        KnowledgeTestUpdateDto dto = new KnowledgeTestUpdateDto();
+        dto.setName("Updated Test");
+
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(true);
+        when(testRepository.updateKnowledgeTest(1L, "Updated Test", null, null, null, null, null)).thenReturn(1);
+
+        testService.updateKnowledgeTestAttributes(dto, 1L);
+
+        verify(userService, never()).getCurrentUserId();
+    }
+
+    @Test
+    void updateKnowledgeTestAttributes_shouldThrowBadRequest_whenNewClassNotFound() {
+        KnowledgeTestUpdateDto dto = new KnowledgeTestUpdateDto();
+        dto.setClassId(5L);
+        when(classRepository.existsById(5L)).thenReturn(false);
+
+        assertThrows(BadRequestException.class, () -> testService.updateKnowledgeTestAttributes(dto, 1L));
+        verify(testRepository, never()).updateKnowledgeTest(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void updateKnowledgeTestAttributes_shouldThrowNotFound_whenTestNotExists() {
+        KnowledgeTestUpdateDto dto = new KnowledgeTestUpdateDto();
+        dto.setName("Updated Test");
+
+        when(userService.getCurrentUserId()).thenReturn(2L);
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
+        when(testRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> testService.updateKnowledgeTestAttributes(dto, 1L));
     }
 
     @Test
     void updateKnowledgeTestAttributes_shouldThrowException_whenUnauthorizedToUpdate() {
         KnowledgeTestUpdateDto dto = new KnowledgeTestUpdateDto();
-        KnowledgeTest test = new KnowledgeTest();
-        User teacher = new User();
-        teacher.setId(1L);
-        test.setTeacher(teacher);
 
-        when(testRepository.findById(1L)).thenReturn(Optional.of(test));
         when(userService.getCurrentUserId()).thenReturn(2L);
         when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
+        when(testRepository.existsById(1L)).thenReturn(true);
 
         assertThrows(UnauthorizedException.class, () -> testService.updateKnowledgeTestAttributes(dto, 1L));
     }
 
     @Test
     void deleteKnowledgeTest_shouldDelete_whenExists() {
-        KnowledgeTest test = new KnowledgeTest();
-        test.setId(1L);
-
-        User teacher = new User();
-        teacher.setId(2L);
-        test.setTeacher(teacher);
-
-        when(testRepository.findById(1L)).thenReturn(Optional.of(test));
         when(userService.getCurrentUserId()).thenReturn(2L);
         when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
+        when(testRepository.deleteKnowledgeTest(1L, 2L)).thenReturn(1);
 
         testService.deleteKnowledgeTest(1L);
 
-        verify(testRepository).deleteById(1L);
+        verify(testRepository, never()).findById(any());
     }
 
     @Test
-    void deleteKnowledgeTest_shouldThrowException_whenUnauthorizedToDelete() {
-        KnowledgeTest test = new KnowledgeTest();
-        User teacher = new User();
-        teacher.setId(1L);
-        test.setTeacher(teacher);
+    void deleteKnowledgeTest_shouldThrowNotFound_whenTestNotExists() {
+        when(userService.hasRole(UserRole.ADMIN)).thenReturn(true);
+        when(testRepository.existsById(1L)).thenReturn(false);
 
-        when(testRepository.findById(1L)).thenReturn(Optional.of(test));
+        assertThrows(ResourceNotFoundException.class, () -> testService.deleteKnowledgeTest(1L));
+    }
+
+    @Test
+    void deleteKnowledgeTest_shouldThrowException_whenUnauthorizedToDelete() {
         when(userService.getCurrentUserId()).thenReturn(2L);
         when(userService.hasRole(UserRole.ADMIN)).thenReturn(false);
+        when(testRepository.existsById(1L)).thenReturn(true);
 
         assertThrows(UnauthorizedException.class, () -> testService.deleteKnowledgeTest(1L));
     }
+
+    private KnowledgeTestResponseDto testView(Long id) {
+        return new KnowledgeTestResponseDto(id, "Test " + id, TestCategory.QUIZ, LocalDate.now().plusDays(1),
+                1L, 1L, 1L, null, null);
+    }
 }
@@ -0,0 +1,152 @@
+package org.example.onlinegradebookapp.unit.service;
+
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
+import org.example.onlinegradebookapp.entity.RefreshToken;
+import org.example.onlinegradebookapp.exception.UnauthorizedException;
+import org.example.onlinegradebookapp.payload.response.AuthTokensResponseDto;
+import org.example.onlinegradebookapp.repository.RefreshTokenRepository;
+import org.example.onlinegradebookapp.security.CustomUserDetails;
+import org.example.onlinegradebookapp.security.JwtService;
+import org.example.onlinegradebookapp.service.CustomUserDetailsService;
+import org.example.onlinegradebookapp.service.RefreshTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class RefreshTokenServiceTest {
+    private RefreshTokenRepository refreshTokenRepository;
+    private CustomUserDetailsService userDetailsService;
+    private JwtService jwtService;
+    private RefreshTokenService refreshTokenService;
+
+    private final CustomUserDetails teacher = new CustomUserDetails(1L, "teacher@gmail.com", "encoded",
+            List.of(new SimpleGrantedAuthority("ROLE_TEACHER")), 3);
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = Mockito.mock(RefreshTokenRepository.class);
+        userDetailsService = Mockito.mock(CustomUserDetailsService.class);
+        jwtService = Mockito.mock(JwtService.class);
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userDetailsService, jwtService);
+
+        when(jwtService.generateToken(any())).thenReturn("accessToken");
+    }
+
+    @Test
+    void issueTokens_shouldStoreOnlyHashOfRefreshToken() {
+        AuthTokensResponseDto tokens = refreshTokenService.issueTokens(teacher);
+
+        RefreshToken stored = capturedToken();
+        assertEquals("teacher@gmail.com", tokens.getEmail());
+        assertEquals("accessToken", tokens.getToken());
+        assertNotNull(tokens.getRefreshToken());
+        assertNotEquals(tokens.getRefreshToken(), stored.getTokenHash());
+        assertEquals(64, stored.getTokenHash().length());
+        assertEquals(PrincipalType.USER, stored.getPrincipalType());
+        assertEquals(1L, stored.getPrincipalId());
+        assertEquals(3, stored.getCredentialVersion());
+        assertTrue(stored.getExpiresAt().isAfter(Instant.now().plus(1, ChronoUnit.DAYS)));
+        verify(refreshTokenRepository).deleteExpired(eq(PrincipalType.USER), eq(1L), any());
+    }
+
+    @Test
+    void refresh_shouldRotateTokenWithinFamily_whenTokenValid() {
+        String refreshToken = refreshTokenService.issueTokens(teacher).getRefreshToken();
+        RefreshToken stored = capturedToken();
+        stored.setId(10L);
+        when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.markUsed(eq(10L), any())).thenReturn(1);
+        when(userDetailsService.loadPrincipal(PrincipalType.USER, 1L)).thenReturn(teacher);
+
+        AuthTokensResponseDto tokens = refreshTokenService.refresh(refreshToken);
+
+        assertEquals("accessToken", tokens.getToken());
+        assertNotEquals(refreshToken, tokens.getRefreshToken());
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(2)).save(captor.capture());
+        assertEquals(stored.getFamilyId(), captor.getAllValues().get(1).getFamilyId());
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+
+    @Test
+    void refresh_shouldRevokeFamily_whenTokenAlreadyUsed() {
+        String refreshToken = refreshTokenService.issueTokens(teacher).getRefreshToken();
+        RefreshToken stored = capturedToken();
+        stored.setUsedAt(Instant.now());
+        when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.refresh(refreshToken));
+
+        verify(refreshTokenRepository).revokeFamily(stored.getFamilyId());
+        verify(jwtService, times(1)).generateToken(any());
+    }
+
+    @Test
+    void refresh_shouldRevokeFamily_whenTokenUsedConcurrently() {
+        String refreshToken = refreshTokenService.issueTokens(teacher).getRefreshToken();
+        RefreshToken stored = capturedToken();
+        stored.setId(10L);
+        when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.markUsed(eq(10L), any())).thenReturn(0);
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.refresh(refreshToken));
+
+        verify(refreshTokenRepository).revokeFamily(stored.getFamilyId());
+    }
+
+    @Test
+    void refresh_shouldThrowUnauthorized_whenTokenRevokedOrExpired() {
+        String refreshToken = refreshTokenService.issueTokens(teacher).getRefreshToken();
+        RefreshToken stored = capturedToken();
+        when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+
+        stored.setRevoked(true);
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.refresh(refreshToken));
+
+        stored.setRevoked(false);
+        stored.setExpiresAt(Instant.now().minusSeconds(1));
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.refresh(refreshToken));
+
+        verify(refreshTokenRepository, never()).markUsed(any(), any());
+    }
+
+    @Test
+    void refresh_shouldThrowUnauthorized_whenTokenUnknown() {
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.refresh("unknown"));
+    }
+
+    @Test
+    void refresh_shouldRevokeFamily_whenCredentialsChanged() {
+        String refreshToken = refreshTokenService.issueTokens(teacher).getRefreshToken();
+        RefreshToken stored = capturedToken();
+        stored.setId(10L);
+        when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.markUsed(eq(10L), any())).thenReturn(1);
+        when(userDetailsService.loadPrincipal(PrincipalType.USER, 1L)).thenReturn(new CustomUserDetails(1L,
+                "teacher@gmail.com", "encoded", List.of(new SimpleGrantedAuthority("ROLE_TEACHER")), 4));
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.refresh(refreshToken));
+
+        verify(refreshTokenRepository).revokeFamily(stored.getFamilyId());
+    }
+
+    private RefreshToken capturedToken() {
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -4,6 +4,7 @@ import org.example.onlinegradebookapp.entity.SchoolClass;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
 import org.example.onlinegradebookapp.payload.request.SchoolClassDto;
+import org.example.onlinegradebookapp.payload.response.SchoolClassResponseDto;
 import org.example.onlinegradebookapp.repository.SchoolClassRepository;
 import org.example.onlinegradebookapp.service.SchoolClassService;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,31 +32,32 @@ public class SchoolClassServiceTest {
 
     @Test
     void findAllSchoolClasses_shouldReturnList() {
-        List<SchoolClass> classes = List.of(new SchoolClass(), new SchoolClass());
-        when(classRepository.findAll()).thenReturn(classes);
+        List<SchoolClassResponseDto> classes = List.of(
+                new SchoolClassResponseDto(1L, "1A", null, null, null),
+                new SchoolClassResponseDto(2L, "1B", 5L, null, null));
+        when(classRepository.findAllSchoolClassDtos()).thenReturn(classes);
 
-        List<SchoolClass> result = classService.findAllSchoolClasses();
+        List<SchoolClassResponseDto> result = classService.findAllSchoolClasses();
 
         assertEquals(2, result.size());
-        verify(classRepository).findAll();
+        verify(classRepository).findAllSchoolClassDtos();
     }
 
     @Test
     void findSchoolClassById_shouldReturnSchoolClass_whenFound() {
-        SchoolClass schoolClass = new SchoolClass();
-        schoolClass.setId(1L);
+        SchoolClassResponseDto schoolClass = new SchoolClassResponseDto(1L, "1A", null, null, null);
 
-        when(classRepository.findById(1L)).thenReturn(Optional.of(schoolClass));
+        when(classRepository.findSchoolClassDtoById(1L)).thenReturn(Optional.of(schoolClass));
 
-        SchoolClass result = classService.findSchoolClassById(1L);
+        SchoolClassResponseDto result = classService.findSchoolClassById(1L);
 
         assertEquals(1L, result.getId());
-        verify(classRepository).findById(1L);
+        verify(classRepository).findSchoolClassDtoById(1L);
     }
 
     @Test
     void findSchoolClassById_shouldThrowException_whenNotFound() {
-        when(classRepository.findById(1L)).thenReturn(Optional.empty());
+        when(classRepository.findSchoolClassDtoById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> classService.findSchoolClassById(1L));
     }
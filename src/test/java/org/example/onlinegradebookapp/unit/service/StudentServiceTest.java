@@ -1,26 +1,41 @@
 package org.example.onlinegradebookapp.unit.service;
 
+import org.example.onlinegradebookapp.entity.Credential;
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
 import org.example.onlinegradebookapp.entity.SchoolClass;
 import org.example.onlinegradebookapp.entity.Student;
+import org.example.onlinegradebookapp.entity.TestCategory.TestCategory;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
 import org.example.onlinegradebookapp.payload.request.StudentRegistrationDto;
 import org.example.onlinegradebookapp.payload.request.StudentUpdateDto;
+import org.example.onlinegradebookapp.payload.response.StudentGradeResponseDto;
+import org.example.onlinegradebookapp.payload.response.StudentResponseDto;
+import org.example.onlinegradebookapp.payload.response.SubjectGradesResponseDto;
+import org.example.onlinegradebookapp.repository.CredentialRepository;
+import org.example.onlinegradebookapp.repository.GradeRepository;
 import org.example.onlinegradebookapp.repository.SchoolClassRepository;
 import org.example.onlinegradebookapp.repository.StudentRepository;
+import org.example.onlinegradebookapp.service.CredentialVersionService;
+import org.example.onlinegradebookapp.service.CustomUserDetailsService;
 import org.example.onlinegradebookapp.service.StudentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +43,10 @@ public class StudentServiceTest {
     private StudentRepository studentRepository;
     private PasswordEncoder passwordEncoder;
     private SchoolClassRepository classRepository;
+    private GradeRepository gradeRepository;
+    private CredentialVersionService credentialVersionService;
+    private CustomUserDetailsService userDetailsService;
+    private CredentialRepository credentialRepository;
     private StudentService studentService;
 
     @BeforeEach
@@ -35,7 +54,12 @@ public class StudentServiceTest {
         studentRepository = Mockito.mock(StudentRepository.class);
         passwordEncoder = Mockito.mock(PasswordEncoder.class);
         classRepository = Mockito.mock(SchoolClassRepository.class);
-        studentService = new StudentService(studentRepository, passwordEncoder, classRepository);
+        gradeRepository = Mockito.mock(GradeRepository.class);
+        credentialVersionService = Mockito.mock(CredentialVersionService.class);
+        userDetailsService = Mockito.mock(CustomUserDetailsService.class);
+        credentialRepository = Mockito.mock(CredentialRepository.class);
+        studentService = new StudentService(studentRepository, passwordEncoder, classRepository, gradeRepository,
+                credentialVersionService, userDetailsService, credentialRepository);
     }
 
     @Test
@@ -46,7 +70,7 @@ public class StudentServiceTest {
         dto.setFirstName("Jan");
         dto.setLastName("Kowalski");
 
-        when(studentRepository.existsByEmail(dto.getEmail())).thenReturn(false);
+        when(credentialRepository.existsByEmail(dto.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(dto.getPassword())).thenReturn("encodedPassword");
 
         studentService.register(dto);
@@ -59,6 +83,11 @@ public class StudentServiceTest {
         assertEquals("encodedPassword", saved.getPassword());
         assertEquals("Jan", saved.getFirstName());
         assertEquals("Kowalski", saved.getLastName());
+
+        ArgumentCaptor<Credential> credentialCaptor = ArgumentCaptor.forClass(Credential.class);
+        verify(credentialRepository).save(credentialCaptor.capture());
+        assertEquals("student@gmail.com", credentialCaptor.getValue().getEmail());
+        assertEquals(PrincipalType.STUDENT, credentialCaptor.getValue().getPrincipalType());
     }
 
     @Test
@@ -66,36 +95,71 @@ public class StudentServiceTest {
         StudentRegistrationDto dto = new StudentRegistrationDto();
         dto.setEmail("student@gmail.com");
 
-        when(studentRepository.existsByEmail(dto.getEmail())).thenReturn(true);
+        when(credentialRepository.existsByEmail(dto.getEmail())).thenReturn(true);
 
         assertThrows(BadRequestException.class, () -> studentService.register(dto));
     }
 
     @Test
     void findAllStudents_shouldReturnList() {
-        List<Student> list = List.of(new Student(), new Student());
-        when(studentRepository.findAll()).thenReturn(list);
+        List<StudentResponseDto> list = List.of(studentView(1L), studentView(2L));
+        when(studentRepository.findAllStudentDtos()).thenReturn(list);
 
-        List<Student> result = studentService.findAllStudents();
+        List<StudentResponseDto> result = studentService.findAllStudents();
         assertEquals(2, result.size());
     }
 
     @Test
     void findStudentById_shouldReturnStudent_whenFound() {
-        Student student = new Student();
-        when(studentRepository.findById(1L)).thenReturn(Optional.of(student));
+        StudentResponseDto student = studentView(1L);
+        when(studentRepository.findStudentDtoById(1L)).thenReturn(Optional.of(student));
 
-        Student result = studentService.findStudentById(1L);
+        StudentResponseDto result = studentService.findStudentById(1L);
         assertEquals(student, result);
     }
 
     @Test
     void findStudentById_shouldThrowException_whenNotFound() {
-        when(studentRepository.findById(1L)).thenReturn(Optional.empty());
+        when(studentRepository.findStudentDtoById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> studentService.findStudentById(1L));
     }
 
+    @Test
+    void findStudentGrades_shouldGroupGradesBySubject() {
+        when(gradeRepository.findStudentGrades(1L)).thenReturn(List.of(
+                gradeRow(1L, "historia", 10L),
+                gradeRow(2L, "matematyka", 11L),
+                gradeRow(2L, "matematyka", 12L)));
+
+        List<SubjectGradesResponseDto> result = studentService.findStudentGrades(1L);
+
+        assertEquals(2, result.size());
+        assertEquals("historia", result.get(0).getSubjectName());
+        assertEquals(1, result.get(0).getGrades().size());
+        assertEquals(2L, result.get(1).getSubjectId());
+        assertEquals(List.of(11L, 12L), result.get(1).getGrades().stream().map(StudentGradeResponseDto::getId).toList());
+        verify(studentRepository, never()).existsById(any());
+    }
+
+    @Test
+    void findStudentGrades_shouldReturnEmptyList_whenStudentHasNoGrades() {
+        when(gradeRepository.findStudentGrades(1L)).thenReturn(List.of());
+        when(studentRepository.existsById(1L)).thenReturn(true);
+
+        List<SubjectGradesResponseDto> result = studentService.findStudentGrades(1L);
+
+        assertEquals(0, result.size());
+    }
+
+    @Test
+    void findStudentGrades_shouldThrowException_whenStudentNotFound() {
+        when(gradeRepository.findStudentGrades(1L)).thenReturn(List.of());
+        when(studentRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> studentService.findStudentGrades(1L));
+    }
+
     @Test
     void updateStudentAttributes_shouldUpdateStudentFields() {
         Student existing = new Student();
@@ -106,7 +170,7 @@ public class StudentServiceTest {
         dto.setFirstName("Adam");
         dto.setLastName("Nowak");
 
-        when(studentRepository.existsByEmail(dto.getEmail())).thenReturn(false);
+        when(credentialRepository.existsByEmail(dto.getEmail())).thenReturn(false);
         when(studentRepository.findById(1L)).thenReturn(Optional.of(existing));
         when(passwordEncoder.encode("newpassword")).thenReturn("encoded");
 
@@ -116,7 +180,33 @@ public class StudentServiceTest {
         assertEquals("encoded", existing.getPassword());
         assertEquals("Adam", existing.getFirstName());
         assertEquals("Nowak", existing.getLastName());
+        assertEquals(1, existing.getCredentialVersion());
         verify(studentRepository).save(existing);
+        verify(credentialRepository).updateEmail(PrincipalType.STUDENT, 1L, "new@gmail.com");
+        verify(credentialVersionService).evictStudent(1L);
+        verify(userDetailsService).evictStudent(1L);
+    }
+
+    @Test
+    void updateStudentAttributes_shouldEvictCachedCredentialsAfterCommit() {
+        StudentUpdateDto dto = new StudentUpdateDto();
+        dto.setPassword("newpassword");
+
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(new Student()));
+        when(passwordEncoder.encode("newpassword")).thenReturn("encoded");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            studentService.updateStudentAttributes(dto, 1L);
+            verify(credentialVersionService, never()).evictStudent(any());
+            verify(userDetailsService, never()).evictStudent(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(credentialVersionService).evictStudent(1L);
+        verify(userDetailsService).evictStudent(1L);
     }
 
     @Test
@@ -128,20 +218,23 @@ public class StudentServiceTest {
         SchoolClass newClass = new SchoolClass();
         newClass.setId(99L);
 
-        when(studentRepository.existsByEmail(any())).thenReturn(false);
+        when(credentialRepository.existsByEmail(any())).thenReturn(false);
         when(studentRepository.findById(1L)).thenReturn(Optional.of(existing));
         when(classRepository.findById(99L)).thenReturn(Optional.of(newClass));
 
         studentService.updateStudentAttributes(dto, 1L);
 
         assertEquals(newClass, existing.getSchoolClass());
+        assertEquals(0, existing.getCredentialVersion());
         verify(studentRepository).save(existing);
+        verify(credentialVersionService, never()).evictStudent(any());
+        verify(userDetailsService, never()).evictStudent(any());
     }
 
     @Test
     void updateStudentAttributes_shouldThrow_whenStudentNotFound() {
         StudentUpdateDto dto = new StudentUpdateDto();
-        when(studentRepository.existsByEmail(any())).thenReturn(false);
+        when(credentialRepository.existsByEmail(any())).thenReturn(false);
         when(studentRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> studentService.updateStudentAttributes(dto, 1L));
@@ -153,10 +246,19 @@ public class StudentServiceTest {
         StudentUpdateDto dto = new StudentUpdateDto();
         dto.setClassId(123L);
 
-        when(studentRepository.existsByEmail(any())).thenReturn(false);
+        when(credentialRepository.existsByEmail(any())).thenReturn(false);
         when(studentRepository.findById(1L)).thenReturn(Optional.of(existing));
         when(classRepository.findById(123L)).thenReturn(Optional.empty());
 
         assertThrows(BadRequestException.class, () -> studentService.updateStudentAttributes(dto, 1L));
     }
+
+    private StudentResponseDto studentView(Long id) {
+        return new StudentResponseDto(id, "student" + id + "@gmail.com", "Jan", "Kowalski", null, null, null);
+    }
+
+    private StudentGradeResponseDto gradeRow(Long subjectId, String subjectName, Long gradeId) {
+        return new StudentGradeResponseDto(subjectId, subjectName, gradeId, BigDecimal.valueOf(5.0), null,
+                gradeId, "Test " + gradeId, TestCategory.QUIZ, LocalDate.now());
+    }
 }
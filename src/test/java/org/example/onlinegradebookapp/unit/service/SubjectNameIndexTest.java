@@ -0,0 +1,83 @@
+package org.example.onlinegradebookapp.unit.service;
+
+import org.example.onlinegradebookapp.entity.Subject;
+import org.example.onlinegradebookapp.repository.SubjectRepository;
+import org.example.onlinegradebookapp.service.SubjectNameIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class SubjectNameIndexTest {
+    private SubjectRepository subjectRepository;
+    private SubjectNameIndex subjectNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        subjectRepository = Mockito.mock(SubjectRepository.class);
+        subjectNameIndex = new SubjectNameIndex(subjectRepository);
+    }
+
+    @Test
+    void findIds_shouldQueryOnlyNamesNotIndexed() {
+        when(subjectRepository.findByNameIn(anyCollection()))
+                .thenReturn(List.of(subject(1L, "matematyka")))
+                .thenReturn(List.of(subject(2L, "historia")));
+
+        assertEquals(Map.of("matematyka", 1L), subjectNameIndex.findIds(List.of("matematyka")));
+        assertEquals(Map.of("matematyka", 1L, "historia", 2L),
+                subjectNameIndex.findIds(List.of("matematyka", "historia")));
+        assertEquals(Map.of("matematyka", 1L, "historia", 2L),
+                subjectNameIndex.findIds(List.of("matematyka", "historia")));
+
+        verify(subjectRepository).findByNameIn(List.of("matematyka"));
+        verify(subjectRepository).findByNameIn(argThat(names -> names.size() == 1 && names.contains("historia")));
+        verify(subjectRepository, times(2)).findByNameIn(anyCollection());
+    }
+
+    @Test
+    void findIds_shouldLeaveOutUnknownNames() {
+        when(subjectRepository.findByNameIn(anyCollection())).thenReturn(List.of(subject(1L, "matematyka")));
+
+        assertEquals(Map.of("matematyka", 1L), subjectNameIndex.findIds(List.of("matematyka", "chemia")));
+    }
+
+    @Test
+    void evictSubject_shouldReloadSubject() {
+        when(subjectRepository.findByNameIn(anyCollection()))
+                .thenReturn(List.of(subject(1L, "matematyka")))
+                .thenReturn(List.of());
+
+        subjectNameIndex.findIds(List.of("matematyka"));
+        subjectNameIndex.evictSubject(1L);
+
+        assertEquals(Map.of(), subjectNameIndex.findIds(List.of("matematyka")));
+        verify(subjectRepository, times(2)).findByNameIn(anyCollection());
+    }
+
+    @Test
+    void evictNames_shouldReloadOnlyGivenNames() {
+        when(subjectRepository.findByNameIn(anyCollection()))
+                .thenReturn(List.of(subject(1L, "matematyka"), subject(2L, "historia")))
+                .thenReturn(List.of());
+
+        subjectNameIndex.findIds(List.of("matematyka", "historia"));
+        subjectNameIndex.evictNames(List.of("matematyka"));
+
+        assertEquals(Map.of("historia", 2L), subjectNameIndex.findIds(List.of("matematyka", "historia")));
+        verify(subjectRepository).findByNameIn(List.of("matematyka"));
+    }
+
+    private static Subject subject(Long id, String name) {
+        Subject subject = new Subject();
+        subject.setId(id);
+        subject.setName(name);
+        return subject;
+    }
+}
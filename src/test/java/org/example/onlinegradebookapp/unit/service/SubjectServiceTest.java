@@ -4,7 +4,9 @@ import org.example.onlinegradebookapp.entity.Subject;
 import org.example.onlinegradebookapp.exception.BadRequestException;
 import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
 import org.example.onlinegradebookapp.payload.request.SubjectDto;
+import org.example.onlinegradebookapp.payload.response.SubjectResponseDto;
 import org.example.onlinegradebookapp.repository.SubjectRepository;
+import org.example.onlinegradebookapp.service.SubjectNameIndex;
 import org.example.onlinegradebookapp.service.SubjectService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,41 +23,44 @@ import static org.mockito.Mockito.*;
 
 public class SubjectServiceTest {
     private SubjectRepository subjectRepository;
+    private SubjectNameIndex subjectNameIndex;
     private SubjectService subjectService;
 
     @BeforeEach
     public void setUp() {
         subjectRepository = Mockito.mock(SubjectRepository.class);
-        subjectService = new SubjectService(subjectRepository);
+        subjectNameIndex = Mockito.mock(SubjectNameIndex.class);
+        subjectService = new SubjectService(subjectRepository, subjectNameIndex);
     }
 
     @Test
     void findAllSubjects_shouldReturnList() {
-        List<Subject> subjects = List.of(new Subject(), new Subject());
-        when(subjectRepository.findAll()).thenReturn(subjects);
+        List<SubjectResponseDto> subjects = List.of(
+                new SubjectResponseDto(1L, "matematyka", null, null),
+                new SubjectResponseDto(2L, "historia", null, null));
+        when(subjectRepository.findAllSubjectDtos()).thenReturn(subjects);
 
-        List<Subject> result = subjectService.findAllSubjects();
+        List<SubjectResponseDto> result = subjectService.findAllSubjects();
 
         assertEquals(2, result.size());
-        verify(subjectRepository).findAll();
+        verify(subjectRepository).findAllSubjectDtos();
     }
 
     @Test
     void findSubjectById_shouldReturnSubject_whenFound() {
-        Subject subject = new Subject();
-        subject.setId(1L);
+        SubjectResponseDto subject = new SubjectResponseDto(1L, "matematyka", null, null);
 
-        when(subjectRepository.findById(1L)).thenReturn(Optional.of(subject));
+        when(subjectRepository.findSubjectDtoById(1L)).thenReturn(Optional.of(subject));
 
-        Subject result = subjectService.findSubjectById(1L);
+        SubjectResponseDto result = subjectService.findSubjectById(1L);
 
         assertEquals(1L, result.getId());
-        verify(subjectRepository).findById(1L);
+        verify(subjectRepository).findSubjectDtoById(1L);
     }
 
     @Test
     void findSubjectById_shouldThrowException_whenNotFound() {
-        when(subjectRepository.findById(1L)).thenReturn(Optional.empty());
+        when(subjectRepository.findSubjectDtoById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> subjectService.findSubjectById(1L));
     }
@@ -106,6 +111,7 @@ public class SubjectServiceTest {
         assertEquals("historia", updated.getName());
         assertEquals(1L, updated.getId());
         assertEquals(existing.getCreatedAt(), updated.getCreatedAt());
+        verify(subjectNameIndex).evictSubject(1L);
     }
 
     @Test
@@ -126,6 +132,7 @@ public class SubjectServiceTest {
         subjectService.deleteSubject(1L);
 
         verify(subjectRepository).deleteById(1L);
+        verify(subjectNameIndex).evictSubject(1L);
     }
 
     @Test
@@ -0,0 +1,165 @@
+package org.example.onlinegradebookapp.unit.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
+import org.example.onlinegradebookapp.entity.RevokedToken;
+import org.example.onlinegradebookapp.entity.User;
+import org.example.onlinegradebookapp.exception.BadRequestException;
+import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
+import org.example.onlinegradebookapp.repository.RefreshTokenRepository;
+import org.example.onlinegradebookapp.repository.RevokedTokenRepository;
+import org.example.onlinegradebookapp.repository.UserRepository;
+import org.example.onlinegradebookapp.security.JwtService;
+import org.example.onlinegradebookapp.security.TokenDenylist;
+import org.example.onlinegradebookapp.service.CredentialVersionService;
+import org.example.onlinegradebookapp.service.CustomUserDetailsService;
+import org.example.onlinegradebookapp.service.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TokenRevocationServiceTest {
+    private RevokedTokenRepository revokedTokenRepository;
+    private TokenDenylist tokenDenylist;
+    private JwtService jwtService;
+    private UserRepository userRepository;
+    private RefreshTokenRepository refreshTokenRepository;
+    private CredentialVersionService credentialVersionService;
+    private CustomUserDetailsService userDetailsService;
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokenRepository = Mockito.mock(RevokedTokenRepository.class);
+        tokenDenylist = new TokenDenylist();
+        jwtService = Mockito.mock(JwtService.class);
+        userRepository = Mockito.mock(UserRepository.class);
+        refreshTokenRepository = Mockito.mock(RefreshTokenRepository.class);
+        credentialVersionService = Mockito.mock(CredentialVersionService.class);
+        userDetailsService = Mockito.mock(CustomUserDetailsService.class);
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, tokenDenylist, jwtService,
+                userRepository, refreshTokenRepository, credentialVersionService, userDetailsService);
+    }
+
+    @Test
+    void revoke_shouldPersistAndDenyTokenId() {
+        Date expiration = Date.from(Instant.now().plusSeconds(600).truncatedTo(ChronoUnit.SECONDS));
+        when(jwtService.verifyToken("token")).thenReturn(Jwts.claims().setId("jti-1").setExpiration(expiration));
+
+        tokenRevocationService.revoke("token");
+
+        ArgumentCaptor<RevokedToken> captor = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(captor.capture());
+        assertEquals("jti-1", captor.getValue().getJti());
+        assertEquals(expiration.toInstant(), captor.getValue().getExpiresAt());
+        assertTrue(tokenDenylist.isRevoked("jti-1"));
+    }
+
+    @Test
+    void revoke_shouldNotSaveAgain_whenTokenAlreadyRevoked() {
+        Claims claims = Jwts.claims().setId("jti-1").setExpiration(new Date(System.currentTimeMillis() + 600_000));
+        when(revokedTokenRepository.existsById("jti-1")).thenReturn(true);
+
+        tokenRevocationService.revoke(claims);
+
+        verify(revokedTokenRepository, never()).save(any());
+        assertTrue(tokenDenylist.isRevoked("jti-1"));
+    }
+
+    @Test
+    void revoke_shouldThrowBadRequest_whenTokenHasNoId() {
+        Claims claims = Jwts.claims().setExpiration(new Date(System.currentTimeMillis() + 600_000));
+
+        assertThrows(BadRequestException.class, () -> tokenRevocationService.revoke(claims));
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void revoke_shouldThrowBadRequest_whenTokenInvalid() {
+        when(jwtService.verifyToken("invalid")).thenThrow(new MalformedJwtException("Malformed"));
+
+        assertThrows(BadRequestException.class, () -> tokenRevocationService.revoke("invalid"));
+    }
+
+    @Test
+    void revokeById_shouldDenyTokenIdForAccessTokenLifetime() {
+        Instant before = Instant.now();
+
+        tokenRevocationService.revokeById("jti-3");
+
+        ArgumentCaptor<RevokedToken> captor = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(captor.capture());
+        assertEquals("jti-3", captor.getValue().getJti());
+        assertFalse(captor.getValue().getExpiresAt().isBefore(before.plus(JwtService.ACCESS_TOKEN_TTL)));
+        assertTrue(tokenDenylist.isRevoked("jti-3"));
+    }
+
+    @Test
+    void revokeUserTokens_shouldBumpCredentialVersionAndRevokeRefreshTokens() {
+        User user = new User();
+        user.setId(7L);
+        user.setCredentialVersion(2);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+
+        tokenRevocationService.revokeUserTokens(7L);
+
+        assertEquals(3, user.getCredentialVersion());
+        verify(userRepository).save(user);
+        verify(refreshTokenRepository).revokeAll(PrincipalType.USER, 7L);
+        verify(credentialVersionService).evictUser(7L);
+        verify(userDetailsService).evictUser(7L);
+    }
+
+    @Test
+    void revokeUserTokens_shouldEvictCachedVersionAfterCommit() {
+        User user = new User();
+        user.setId(7L);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenRevocationService.revokeUserTokens(7L);
+            verify(credentialVersionService, never()).evictUser(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(credentialVersionService).evictUser(7L);
+        verify(userDetailsService).evictUser(7L);
+    }
+
+    @Test
+    void revokeUserTokens_shouldThrowNotFound_whenUserMissing() {
+        when(userRepository.findById(7L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> tokenRevocationService.revokeUserTokens(7L));
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
+    @Test
+    void pruneAndReload_shouldDeleteExpiredAndLoadCurrentRevocations() {
+        when(revokedTokenRepository.findByExpiresAtAfter(any()))
+                .thenReturn(List.of(new RevokedToken("jti-2", Instant.now().plusSeconds(600))));
+
+        tokenRevocationService.pruneAndReload();
+
+        verify(revokedTokenRepository).deleteExpired(any());
+        assertTrue(tokenDenylist.isRevoked("jti-2"));
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.onlinegradebookapp.unit.service;
 
+import org.example.onlinegradebookapp.entity.Credential;
+import org.example.onlinegradebookapp.entity.PrincipalType.PrincipalType;
 import org.example.onlinegradebookapp.entity.SchoolClass;
 import org.example.onlinegradebookapp.entity.Subject;
 import org.example.onlinegradebookapp.entity.User;
@@ -9,17 +11,28 @@ import org.example.onlinegradebookapp.exception.ResourceNotFoundException;
 import org.example.onlinegradebookapp.payload.request.SubjectDto;
 import org.example.onlinegradebookapp.payload.request.UserRegistrationDto;
 import org.example.onlinegradebookapp.payload.request.UserUpdateDto;
+import org.example.onlinegradebookapp.payload.response.UserResponseDto;
+import org.example.onlinegradebookapp.repository.CredentialRepository;
 import org.example.onlinegradebookapp.repository.SchoolClassRepository;
 import org.example.onlinegradebookapp.repository.SubjectRepository;
 import org.example.onlinegradebookapp.repository.UserRepository;
+import org.example.onlinegradebookapp.service.CredentialVersionService;
+import org.example.onlinegradebookapp.service.CustomUserDetailsService;
+import org.example.onlinegradebookapp.service.SubjectNameIndex;
 import org.example.onlinegradebookapp.service.UserService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +40,7 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -36,6 +50,9 @@ public class UserServiceTest {
     private SchoolClassRepository classRepository;
     private SubjectRepository subjectRepository;
     private PasswordEncoder passwordEncoder;
+    private CredentialVersionService credentialVersionService;
+    private CustomUserDetailsService userDetailsService;
+    private CredentialRepository credentialRepository;
 
     private UserRegistrationDto registrationDto;
     private UserUpdateDto updateDto;
@@ -46,7 +63,11 @@ public class UserServiceTest {
         classRepository = Mockito.mock(SchoolClassRepository.class);
         subjectRepository = Mockito.mock(SubjectRepository.class);
         passwordEncoder = Mockito.mock(PasswordEncoder.class);
-        userService = new UserService(userRepository, passwordEncoder, classRepository, subjectRepository);
+        credentialVersionService = Mockito.mock(CredentialVersionService.class);
+        userDetailsService = Mockito.mock(CustomUserDetailsService.class);
+        credentialRepository = Mockito.mock(CredentialRepository.class);
+        userService = new UserService(userRepository, passwordEncoder, classRepository, subjectRepository,
+                credentialVersionService, userDetailsService, credentialRepository, new SubjectNameIndex(subjectRepository));
 
         registrationDto = new UserRegistrationDto();
         registrationDto.setEmail("test@gmail.com");
@@ -71,7 +92,7 @@ public class UserServiceTest {
         dto.setLastName("Kowalski");
         dto.setRole(UserRole.TEACHER);
 
-        when(userRepository.existsByEmail(dto.getEmail())).thenReturn(false);
+        when(credentialRepository.existsByEmail(dto.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(dto.getPassword())).thenReturn("encodedPassword");
 
         userService.register(dto);
@@ -85,6 +106,11 @@ public class UserServiceTest {
         assertThat(saved.getFirstName()).isEqualTo(dto.getFirstName());
         assertThat(saved.getLastName()).isEqualTo(dto.getLastName());
         assertThat(saved.getRole()).isEqualTo(UserRole.TEACHER);
+
+        ArgumentCaptor<Credential> credentialCaptor = ArgumentCaptor.forClass(Credential.class);
+        verify(credentialRepository).save(credentialCaptor.capture());
+        assertThat(credentialCaptor.getValue().getEmail()).isEqualTo(dto.getEmail());
+        assertThat(credentialCaptor.getValue().getPrincipalType()).isEqualTo(PrincipalType.USER);
     }
 
     @Test
@@ -96,7 +122,7 @@ public class UserServiceTest {
         dto.setLastName("Kowalski");
         dto.setRole(UserRole.TEACHER);
 
-        when(userRepository.existsByEmail(dto.getEmail())).thenReturn(true);
+        when(credentialRepository.existsByEmail(dto.getEmail())).thenReturn(true);
 
         assertThatThrownBy(() -> userService.register(dto))
                 .isInstanceOf(BadRequestException.class)
@@ -112,7 +138,7 @@ public class UserServiceTest {
         dto.setLastName("User");
         dto.setRole(UserRole.ADMIN);
 
-        when(userRepository.existsByEmail(dto.getEmail())).thenReturn(false);
+        when(credentialRepository.existsByEmail(dto.getEmail())).thenReturn(false);
         when(userRepository.countByRole(UserRole.ADMIN)).thenReturn(1L);
 
         assertThatThrownBy(() -> userService.register(dto))
@@ -122,7 +148,7 @@ public class UserServiceTest {
 
     @Test
     void register_shouldSaveNewUser_whenEmailDoesNotExistAndRoleNotAdmin() {
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(credentialRepository.existsByEmail(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encoded");
 
         userService.register(registrationDto);
@@ -132,7 +158,7 @@ public class UserServiceTest {
 
     @Test
     void register_shouldThrowException_whenEmailAlreadyExists() {
-        when(userRepository.existsByEmail("test@gmail.com")).thenReturn(true);
+        when(credentialRepository.existsByEmail("test@gmail.com")).thenReturn(true);
 
         assertThrows(BadRequestException.class, () -> userService.register(registrationDto));
     }
@@ -140,7 +166,7 @@ public class UserServiceTest {
     @Test
     void register_shouldThrowException_whenSecondAdminIsRegistered() {
         registrationDto.setRole(UserRole.ADMIN);
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(credentialRepository.existsByEmail(anyString())).thenReturn(false);
         when(userRepository.countByRole(UserRole.ADMIN)).thenReturn(1L);
 
         assertThrows(BadRequestException.class, () -> userService.register(registrationDto));
@@ -155,7 +181,7 @@ public class UserServiceTest {
         registrationDto.setClassId(classId);
 
         when(classRepository.findById(classId)).thenReturn(Optional.of(schoolClass));
-        when(userRepository.existsByEmail(registrationDto.getEmail())).thenReturn(false);
+        when(credentialRepository.existsByEmail(registrationDto.getEmail())).thenReturn(false);
 
         userService.register(registrationDto);
 
@@ -172,7 +198,7 @@ public class UserServiceTest {
         registrationDto.setClassId(classId);
 
         when(classRepository.findById(classId)).thenReturn(Optional.empty());
-        when(userRepository.existsByEmail(registrationDto.getEmail())).thenReturn(false);
+        when(credentialRepository.existsByEmail(registrationDto.getEmail())).thenReturn(false);
 
         assertThatThrownBy(() -> userService.register(registrationDto))
                 .isInstanceOf(BadRequestException.class)
@@ -186,16 +212,13 @@ public class UserServiceTest {
         SubjectDto subjectDto2 = new SubjectDto();
         subjectDto2.setName("Physics");
 
-        Subject math = new Subject();
-        math.setName("Math");
-        Subject physics = new Subject();
-        physics.setName("Physics");
+        Subject math = subject(1L, "Math");
+        Subject physics = subject(2L, "Physics");
 
         registrationDto.setSubjects(List.of(subjectDto1, subjectDto2));
 
-        when(userRepository.existsByEmail(registrationDto.getEmail())).thenReturn(false);
-        when(subjectRepository.findByName("Math")).thenReturn(Optional.of(math));
-        when(subjectRepository.findByName("Physics")).thenReturn(Optional.of(physics));
+        when(credentialRepository.existsByEmail(registrationDto.getEmail())).thenReturn(false);
+        stubSubjects(math, physics);
 
         userService.register(registrationDto);
 
@@ -206,30 +229,54 @@ public class UserServiceTest {
         assertThat(saved.getSubjects()).containsExactlyInAnyOrder(math, physics);
     }
 
+    @Test
+    void register_shouldThrowException_whenIndexedSubjectWasDeleted() {
+        SubjectDto subjectDto = new SubjectDto();
+        subjectDto.setName("Math");
+        registrationDto.setSubjects(List.of(subjectDto));
+
+        when(credentialRepository.existsByEmail(registrationDto.getEmail())).thenReturn(false);
+        stubSubjects(subject(1L, "Math"));
+        doThrow(new DataIntegrityViolationException("insert into teachers_subjects",
+                new ConstraintViolationException("violates foreign key", new SQLException(), "fk_teasub_on_subject")))
+                .when(userRepository).flush();
+
+        assertThatThrownBy(() -> userService.register(registrationDto))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Subject 'Math' not found");
+        verify(credentialRepository, never()).save(any());
+
+        // The stale entry is gone, so the next request looks the subject up again
+        ReflectionTestUtils.invokeMethod(userService, "findSubjectList", List.of(subjectDto));
+        verify(subjectRepository, times(2)).findByNameIn(anyCollection());
+    }
+
     @Test
     void findAllUsers_ShouldReturnList() {
-        List<User> users = List.of(new User(), new User());
-        when(userRepository.findAll()).thenReturn(users);
+        List<UserResponseDto> users = List.of(
+                new UserResponseDto(1L, "admin@gmail.com", "Admin", "Admin", UserRole.ADMIN, null, null, null),
+                new UserResponseDto(2L, "teacher@gmail.com", "Jan", "Kowalski", UserRole.TEACHER, 1L, null, null));
+        when(userRepository.findAllUserDtos()).thenReturn(users);
 
-        List<User> result = userService.findAllUsers();
+        List<UserResponseDto> result = userService.findAllUsers();
 
         assertThat(result).hasSize(2);
     }
 
     @Test
     void findUserById_ShouldReturnUser_WhenExists() {
-        User user = new User();
-        user.setId(1L);
+        UserResponseDto user = new UserResponseDto(1L, "teacher@gmail.com", "Jan", "Kowalski",
+                UserRole.TEACHER, null, null, null);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.findUserDtoById(1L)).thenReturn(Optional.of(user));
 
-        User found = userService.findUserById(1L);
+        UserResponseDto found = userService.findUserById(1L);
         assertThat(found.getId()).isEqualTo(1L);
     }
 
     @Test
     void findUserById_ShouldThrow_WhenNotFound() {
-        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+        when(userRepository.findUserDtoById(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> userService.findUserById(99L))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -243,6 +290,27 @@ public class UserServiceTest {
         userService.deleteUser(1L);
 
         verify(userRepository).deleteById(1L);
+        verify(credentialRepository).deleteByPrincipal(PrincipalType.USER, 1L);
+        verify(credentialVersionService).evictUser(1L);
+        verify(userDetailsService).evictUser(1L);
+    }
+
+    @Test
+    void deleteUser_shouldEvictCachedCredentialsAfterCommit() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userService.deleteUser(1L);
+            verify(credentialVersionService, never()).evictUser(any());
+            verify(userDetailsService, never()).evictUser(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(credentialVersionService).evictUser(1L);
+        verify(userDetailsService).evictUser(1L);
     }
 
     @Test
@@ -271,7 +339,7 @@ public class UserServiceTest {
         dto.setPassword("newPassword");
 
         when(userRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
+        when(credentialRepository.existsByEmail("new@example.com")).thenReturn(false);
         when(passwordEncoder.encode(dto.getPassword())).thenReturn("encodedPassword");
 
         userService.updateUserAttributes(dto, id);
@@ -281,6 +349,10 @@ public class UserServiceTest {
         assertThat(existing.getFirstName()).isEqualTo("NewName");
         assertThat(existing.getLastName()).isEqualTo("NewLastName");
         assertThat(existing.getPassword()).isEqualTo("encodedPassword");
+        assertThat(existing.getCredentialVersion()).isEqualTo(1);
+        verify(credentialRepository).updateEmail(PrincipalType.USER, id, "new@example.com");
+        verify(credentialVersionService).evictUser(id);
+        verify(userDetailsService).evictUser(id);
     }
 
     @Test
@@ -302,8 +374,7 @@ public class UserServiceTest {
         SchoolClass schoolClass = new SchoolClass();
         schoolClass.setId(1L);
 
-        Subject math = new Subject();
-        math.setName("matematyka");
+        Subject math = subject(1L, "matematyka");
 
         SubjectDto mathDto = new SubjectDto();
         mathDto.setName("matematyka");
@@ -311,10 +382,10 @@ public class UserServiceTest {
         updateDto.setClassId(1L);
         updateDto.setSubjects(List.of(mathDto));
 
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(credentialRepository.existsByEmail(anyString())).thenReturn(false);
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(classRepository.findById(1L)).thenReturn(Optional.of(schoolClass));
-        when(subjectRepository.findByName("matematyka")).thenReturn(Optional.of(math));
+        when(classRepository.findWithTeacherById(1L)).thenReturn(Optional.of(schoolClass));
+        stubSubjects(math);
 
         userService.updateUserAttributes(updateDto, 1L);
 
@@ -326,9 +397,9 @@ public class UserServiceTest {
     @Test
     void updateUserAttributes_shouldThrowException_whenClassNotFound() {
         updateDto.setClassId(100L);
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(credentialRepository.existsByEmail(anyString())).thenReturn(false);
         when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
-        when(classRepository.findById(100L)).thenReturn(Optional.empty());
+        when(classRepository.findWithTeacherById(100L)).thenReturn(Optional.empty());
 
         assertThrows(BadRequestException.class, () -> userService.updateUserAttributes(updateDto, 1L));
     }
@@ -339,9 +410,9 @@ public class UserServiceTest {
         subjectDto.setName("Unknown");
 
         updateDto.setSubjects(List.of(subjectDto));
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(credentialRepository.existsByEmail(anyString())).thenReturn(false);
         when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
-        when(subjectRepository.findByName("Unknown")).thenReturn(Optional.empty());
+        stubSubjects();
 
         assertThrows(BadRequestException.class, () -> userService.updateUserAttributes(updateDto, 1L));
     }
@@ -358,7 +429,7 @@ public class UserServiceTest {
         user.setEmail("original@gmail.com");
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.existsByEmail(dto.getEmail())).thenReturn(true);
+        when(credentialRepository.existsByEmail(dto.getEmail())).thenReturn(true);
 
         assertThatThrownBy(() -> userService.updateUserAttributes(dto, userId))
                 .isInstanceOf(BadRequestException.class)
@@ -376,7 +447,7 @@ public class UserServiceTest {
         user.setUserRole(UserRole.TEACHER);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(credentialRepository.existsByEmail(anyString())).thenReturn(false);
         when(userRepository.countByRole(UserRole.ADMIN)).thenReturn(1L);
 
         assertThatThrownBy(() -> userService.updateUserAttributes(dto, userId))
@@ -405,8 +476,8 @@ public class UserServiceTest {
         schoolClass.setTeacher(oldTeacher);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(currentUser));
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
-        when(classRepository.findById(classId)).thenReturn(Optional.of(schoolClass));
+        when(credentialRepository.existsByEmail(anyString())).thenReturn(false);
+        when(classRepository.findWithTeacherById(classId)).thenReturn(Optional.of(schoolClass));
         when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
         userService.updateUserAttributes(dto, userId);
@@ -419,14 +490,59 @@ public class UserServiceTest {
         SubjectDto dto = new SubjectDto();
         dto.setName("matematyka");
 
-        Subject math = new Subject();
-        math.setName("matematyka");
+        Subject math = subject(1L, "matematyka");
 
-        when(subjectRepository.findByName("matematyka")).thenReturn(Optional.of(math));
+        stubSubjects(math);
 
         List<Subject> result = ReflectionTestUtils.invokeMethod(userService, "findSubjectList", List.of(dto));
 
         assertEquals(List.of(math), result);
     }
 
+    @Test
+    void findSubjectList_shouldLoadAllSubjectsInOneQuery() {
+        stubSubjects(subject(1L, "matematyka"), subject(2L, "historia"));
+
+        List<Subject> result = ReflectionTestUtils.invokeMethod(userService, "findSubjectList",
+                List.of(subjectDto("matematyka"), subjectDto("historia"), subjectDto("matematyka")));
+
+        assertThat(result).extracting(Subject::getName).containsExactly("matematyka", "historia");
+        verify(subjectRepository, times(1)).findByNameIn(anyCollection());
+    }
+
+    @Test
+    void findSubjectList_shouldReportAllUnknownSubjects() {
+        stubSubjects(subject(1L, "matematyka"));
+        List<SubjectDto> subjects = List.of(subjectDto("chemia"), subjectDto("matematyka"), subjectDto("biologia"));
+
+        assertThatThrownBy(() -> ReflectionTestUtils.invokeMethod(userService, "findSubjectList", subjects))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Subjects 'chemia', 'biologia' not found");
+    }
+
+    private static Subject subject(Long id, String name) {
+        Subject subject = new Subject();
+        subject.setId(id);
+        subject.setName(name);
+        return subject;
+    }
+
+    private static SubjectDto subjectDto(String name) {
+        SubjectDto dto = new SubjectDto();
+        dto.setName(name);
+        return dto;
+    }
+
+    // Make the repository know only given subjects
+    private void stubSubjects(Subject... subjects) {
+        List<Subject> known = List.of(subjects);
+        when(subjectRepository.findByNameIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<?> names = invocation.getArgument(0);
+            return known.stream().filter(subject -> names.contains(subject.getName())).toList();
+        });
+        for(Subject subject : subjects) {
+            when(subjectRepository.getReferenceById(subject.getId())).thenReturn(subject);
+        }
+    }
+
 }